@@ -2,16 +2,24 @@ package com.promptoholics.anonymous.springai.controller;
 
 import com.promptoholics.anonymous.springai.dto.ChatRequest;
 import com.promptoholics.anonymous.springai.dto.ChatResponse;
+import com.promptoholics.anonymous.springai.dto.ChatStreamEvent;
 import com.promptoholics.anonymous.springai.service.AiService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/ai")
 @RequiredArgsConstructor
+@Slf4j
 @CrossOrigin(origins = "*")
 public class AiController {
 
@@ -23,6 +31,50 @@ public class AiController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Server-sent events: "start", then one "token" per content fragment as the model produces it,
+     * then "done" (or "error"). A client disconnect cancels the subscription and with it the model request.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChatStreamEvent>> chatStream(@Valid @RequestBody ChatRequest request) {
+        String sessionId = aiService.sessionId(request);
+        request.setSessionId(sessionId);
+
+        ServerSentEvent<ChatStreamEvent> start = ServerSentEvent.builder(ChatStreamEvent.builder()
+                        .sessionId(sessionId)
+                        .model(aiService.modelName())
+                        .build())
+                .event("start")
+                .build();
+        Flux<ServerSentEvent<ChatStreamEvent>> tokens = aiService.streamChat(request)
+                .map(content -> ServerSentEvent.builder(ChatStreamEvent.builder().content(content).build())
+                        .event("token")
+                        .build());
+        Mono<ServerSentEvent<ChatStreamEvent>> done = Mono.fromSupplier(() -> ServerSentEvent.builder(ChatStreamEvent.builder()
+                        .sessionId(sessionId)
+                        .timestamp(LocalDateTime.now())
+                        .build())
+                .event("done")
+                .build());
+
+        return Flux.concat(Mono.just(start), tokens, done)
+                .doOnCancel(() -> log.debug("Chat stream {} cancelled by client", sessionId))
+                .onErrorResume(e -> {
+                    log.warn("Chat stream {} failed", sessionId, e);
+                    return Mono.just(ServerSentEvent.builder(ChatStreamEvent.builder()
+                                    .sessionId(sessionId)
+                                    .error("Model request failed")
+                                    .build())
+                            .event("error")
+                            .build());
+                });
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Spring AI module is running");
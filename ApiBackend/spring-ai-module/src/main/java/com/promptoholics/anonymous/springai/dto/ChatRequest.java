@@ -1,10 +1,14 @@
 package com.promptoholics.anonymous.springai.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,4 +18,12 @@ public class ChatRequest {
     private String message;
 
     private String sessionId;
+
+    /** Optional override of the configured temperature. */
+    @DecimalMin("0.0")
+    @DecimalMax("2.0")
+    private Double temperature;
+
+    /** Optional subset of registered tool names the model may call; all tools when absent. */
+    private List<String> tools;
 }
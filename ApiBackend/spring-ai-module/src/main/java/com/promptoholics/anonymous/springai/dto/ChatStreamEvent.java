@@ -0,0 +1,27 @@
+package com.promptoholics.anonymous.springai.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload of one server-sent event of /api/ai/chat/stream:
+ * start (sessionId, model), token (content), done (timestamp) or error (error).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatStreamEvent {
+
+    private String content;
+    private String sessionId;
+    private String model;
+    private LocalDateTime timestamp;
+    private String error;
+}
@@ -2,46 +2,45 @@ package com.promptoholics.anonymous.springai.service;
 
 import com.promptoholics.anonymous.springai.dto.ChatRequest;
 import com.promptoholics.anonymous.springai.dto.ChatResponse;
-import com.promptoholics.anonymous.springai.tools.WeatherTool;
-import lombok.RequiredArgsConstructor;
+import com.promptoholics.anonymous.springai.tools.ToolRegistry;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
 public class AiService {
 
     private final ChatModel chatModel;
-    private final WeatherTool weatherTool;
+    private final ToolRegistry toolRegistry;
+    private final String modelName;
 
-    @Value("${spring.ai.openai.chat.options.model}")
-    private String modelName;
+    /**
+     * Options template with every registered tool, built once. It is never modified: requests without
+     * overrides pass it as is (the model copies options into each API request), requests with overrides
+     * get a copy.
+     */
+    private final OpenAiChatOptions defaultOptions;
 
-    public ChatResponse chat(ChatRequest request) {
-        // Generate session ID if not provided
-        String sessionId = request.getSessionId() != null
-            ? request.getSessionId()
-            : UUID.randomUUID().toString();
-
-        // Create prompt with function calling enabled
-        var options = org.springframework.ai.openai.OpenAiChatOptions.builder()
-                .withFunctionCallbacks(List.of(
-                    FunctionCallback.builder()
-                        .function("getWeather", weatherTool)
-                        .inputType(WeatherTool.Request.class)
-                        .build()
-                ))
+    public AiService(ChatModel chatModel,
+                     ToolRegistry toolRegistry,
+                     @Value("${spring.ai.openai.chat.options.model}") String modelName) {
+        this.chatModel = chatModel;
+        this.toolRegistry = toolRegistry;
+        this.modelName = modelName;
+        this.defaultOptions = OpenAiChatOptions.builder()
+                .withFunctionCallbacks(toolRegistry.all())
                 .build();
+    }
 
-        Prompt prompt = new Prompt(request.getMessage(), options);
-        String aiResponse = chatModel.call(prompt).getResult().getOutput().getContent();
+    public ChatResponse chat(ChatRequest request) {
+        String sessionId = sessionId(request);
+        String aiResponse = chatModel.call(prompt(request)).getResult().getOutput().getContent();
 
         // Build and return response
         return ChatResponse.builder()
@@ -51,4 +50,44 @@ public class AiService {
                 .model(modelName)
                 .build();
     }
+
+    /**
+     * Streaming variant: content fragments forwarded as the model produces them.
+     * Cancelling the subscription (client disconnect) cancels the upstream model request.
+     */
+    public Flux<String> streamChat(ChatRequest request) {
+        return chatModel.stream(prompt(request))
+                .mapNotNull(AiService::contentOf)
+                .filter(content -> !content.isEmpty());
+    }
+
+    public String sessionId(ChatRequest request) {
+        // Generate session ID if not provided
+        return request.getSessionId() != null
+            ? request.getSessionId()
+            : UUID.randomUUID().toString();
+    }
+
+    public String modelName() {
+        return modelName;
+    }
+
+    private Prompt prompt(ChatRequest request) {
+        return new Prompt(request.getMessage(), options(request));
+    }
+
+    /** Template unless the request overrides temperature or narrows the tool set (copy-on-write). */
+    OpenAiChatOptions options(ChatRequest request) {
+        if (request.getTemperature() == null && request.getTools() == null) return defaultOptions;
+        OpenAiChatOptions options = OpenAiChatOptions.fromOptions(defaultOptions);
+        if (request.getTemperature() != null) options.setTemperature(request.getTemperature());
+        if (request.getTools() != null) options.setFunctionCallbacks(toolRegistry.select(request.getTools()));
+        return options;
+    }
+
+    /** Chunks without a generation (e.g. trailing usage-only chunk) carry no content. */
+    private static String contentOf(org.springframework.ai.chat.model.ChatResponse chunk) {
+        if (chunk == null || chunk.getResult() == null || chunk.getResult().getOutput() == null) return null;
+        return chunk.getResult().getOutput().getContent();
+    }
 }
@@ -0,0 +1,20 @@
+package com.promptoholics.anonymous.springai.tools;
+
+import java.util.function.Function;
+
+/**
+ * A function the model may call. Every Spring bean implementing this interface is registered
+ * once at startup in {@link ToolRegistry}.
+ *
+ * @param <I> request record deserialized from the model's arguments (its schema is derived from this type)
+ * @param <O> response serialized back to the model
+ */
+public interface ChatTool<I, O> extends Function<I, O> {
+
+    /** Function name exposed to the model; unique across tools. */
+    String name();
+
+    String description();
+
+    Class<I> inputType();
+}
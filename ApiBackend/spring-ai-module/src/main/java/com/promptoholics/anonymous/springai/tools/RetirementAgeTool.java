@@ -0,0 +1,99 @@
+package com.promptoholics.anonymous.springai.tools;
+
+import org.springframework.context.annotation.Description;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Statutory retirement age in Poland (60 for women, 65 for men) and when it is reached.
+ * Computed in-process, so the model can answer "when can I retire" without an HTTP round trip.
+ */
+@Component
+@Description("Statutory retirement age in Poland and the month it is reached")
+public class RetirementAgeTool implements ChatTool<RetirementAgeTool.Request, RetirementAgeTool.Response> {
+
+    public record Request(
+        @Description("Sex: M (male) or F (female)") String sex,
+        @Description("Year of birth, e.g. 1985; required") Integer birthYear,
+        @Description("Month of birth 1-12; January if unknown") Integer birthMonth
+    ) {}
+
+    /**
+     * Either the computed dates or {@code error} describing a bad argument. Errors are returned to the model
+     * (so it can ask the user or retry) instead of failing the whole chat request.
+     */
+    public record Response(
+        Integer retirementAge,
+        Integer retirementYear,
+        Integer retirementMonth,
+        Long monthsUntilRetirement,
+        String error
+    ) {
+        static Response invalid(String error) {
+            return new Response(null, null, null, null, error);
+        }
+    }
+
+    private static final int MIN_BIRTH_YEAR = 1900;
+
+    private final Clock clock;
+
+    public RetirementAgeTool() {
+        this(Clock.systemDefaultZone());
+    }
+
+    RetirementAgeTool(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String name() {
+        return "getRetirementAge";
+    }
+
+    @Override
+    public String description() {
+        return "Statutory retirement age in Poland for a person of given sex and birth date, "
+                + "the year and month it is reached and how many months are left";
+    }
+
+    @Override
+    public Class<Request> inputType() {
+        return Request.class;
+    }
+
+    @Override
+    public Response apply(Request request) {
+        Integer age = statutoryAge(request.sex());
+        if (age == null) {
+            return Response.invalid("sex must be M or F, got: " + request.sex());
+        }
+        YearMonth now = YearMonth.now(clock);
+        Integer birthYear = request.birthYear();
+        if (birthYear == null || birthYear < MIN_BIRTH_YEAR || birthYear > now.getYear()) {
+            return Response.invalid("birthYear must be between " + MIN_BIRTH_YEAR + " and " + now.getYear()
+                    + ", got: " + birthYear);
+        }
+        Integer birthMonth = request.birthMonth();
+        if (birthMonth != null && (birthMonth < 1 || birthMonth > 12)) {
+            return Response.invalid("birthMonth must be between 1 and 12, got: " + birthMonth);
+        }
+        YearMonth retirement = YearMonth.of(birthYear, birthMonth == null ? 1 : birthMonth).plusYears(age);
+        long monthsLeft = Math.max(0, now.until(retirement, ChronoUnit.MONTHS));
+        return new Response(age, retirement.getYear(), retirement.getMonthValue(), monthsLeft, null);
+    }
+
+    /** 65 for men, 60 for women, null if unrecognised; accepts M/F, the Polish K (kobieta) and full words. */
+    static Integer statutoryAge(String sex) {
+        String s = sex == null ? "" : sex.trim().toLowerCase(Locale.ROOT);
+        return switch (s) {
+            case "m", "male", "man", "mężczyzna" -> 65;
+            case "f", "k", "female", "woman", "kobieta" -> 60;
+            default -> null;
+        };
+    }
+}
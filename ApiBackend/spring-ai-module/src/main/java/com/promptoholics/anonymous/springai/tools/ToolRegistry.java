@@ -0,0 +1,67 @@
+package com.promptoholics.anonymous.springai.tools;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Function callbacks for all {@link ChatTool} beans, built once at startup and never modified.
+ * Requests share the same callback instances, so adding a tool costs nothing per call.
+ */
+@Slf4j
+@Component
+public class ToolRegistry {
+
+    private final Map<String, FunctionCallback> callbacks;
+    private final List<FunctionCallback> all;
+
+    public ToolRegistry(List<ChatTool<?, ?>> tools) {
+        Map<String, FunctionCallback> byName = new LinkedHashMap<>();
+        for (ChatTool<?, ?> tool : tools) {
+            if (byName.putIfAbsent(tool.name(), callback(tool)) != null) {
+                throw new IllegalStateException("Duplicate chat tool name: " + tool.name());
+            }
+        }
+        this.callbacks = Collections.unmodifiableMap(byName);
+        this.all = List.copyOf(byName.values());
+        log.info("Registered chat tools: {}", byName.keySet());
+    }
+
+    public List<FunctionCallback> all() {
+        return all;
+    }
+
+    public Set<String> names() {
+        return callbacks.keySet();
+    }
+
+    /** Callbacks for the given tool names, in registry order. */
+    public List<FunctionCallback> select(Collection<String> names) {
+        for (String name : names) {
+            if (!callbacks.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown tool: " + name + ", available: " + callbacks.keySet());
+            }
+        }
+        List<FunctionCallback> selected = new ArrayList<>(names.size());
+        callbacks.forEach((name, callback) -> {
+            if (names.contains(name)) selected.add(callback);
+        });
+        return List.copyOf(selected);
+    }
+
+    private static <I, O> FunctionCallback callback(ChatTool<I, O> tool) {
+        return FunctionCallback.builder()
+                .function(tool.name(), tool)
+                .description(tool.description())
+                .inputType(tool.inputType())
+                .build();
+    }
+}
@@ -3,11 +3,9 @@ package com.promptoholics.anonymous.springai.tools;
 import org.springframework.context.annotation.Description;
 import org.springframework.stereotype.Component;
 
-import java.util.function.Function;
-
 @Component
 @Description("Get weather information for a specific city")
-public class WeatherTool implements Function<WeatherTool.Request, WeatherTool.Response> {
+public class WeatherTool implements ChatTool<WeatherTool.Request, WeatherTool.Response> {
 
     public record Request(
         @Description("The city name to get weather for") String city
@@ -21,6 +19,21 @@ public class WeatherTool implements Function<WeatherTool.Request, WeatherTool.Re
         String windSpeed
     ) {}
 
+    @Override
+    public String name() {
+        return "getWeather";
+    }
+
+    @Override
+    public String description() {
+        return "Get weather information for a specific city";
+    }
+
+    @Override
+    public Class<Request> inputType() {
+        return Request.class;
+    }
+
     @Override
     public Response apply(Request request) {
         // Hardcoded weather responses for demo purposes
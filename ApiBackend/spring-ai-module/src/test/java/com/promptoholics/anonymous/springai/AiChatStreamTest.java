@@ -0,0 +1,146 @@
+package com.promptoholics.anonymous.springai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * /api/ai/chat/stream against a local stub of the OpenAI chat completions API.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AiChatStreamTest {
+
+    private static final StubOpenAiServer STUB;
+
+    static {
+        try {
+            STUB = new StubOpenAiServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void openAi(DynamicPropertyRegistry registry) {
+        registry.add("spring.ai.openai.base-url", STUB::baseUrl);
+        registry.add("spring.ai.openai.api-key", () -> "test-key");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private record Event(String name, JsonNode data) {}
+
+    @Test
+    void forwardsTokensAsServerSentEventsInOrder() throws Exception {
+        List<String> tokens = List.of("Emerytura", " zależy", " od", "\n", "składek \"i\" wieku.");
+        STUB.replay(tokens, 0);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/ai/chat/stream"))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"Od czego zależy emerytura?\",\"sessionId\":\"s-1\"}"))
+                .build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+        List<Event> events;
+        try (var lines = response.body()) {
+            events = parse(lines.toList());
+        }
+
+        assertEquals("start", events.get(0).name());
+        assertEquals("s-1", events.get(0).data().get("sessionId").asText());
+        assertEquals("done", events.get(events.size() - 1).name());
+        List<Event> tokenEvents = events.subList(1, events.size() - 1);
+        assertTrue(tokenEvents.stream().allMatch(e -> e.name().equals("token")));
+        assertEquals(String.join("", tokens),
+                tokenEvents.stream().map(e -> e.data().get("content").asText()).collect(Collectors.joining()));
+
+        JsonNode upstream = objectMapper.readTree(STUB.requests().get(0));
+        assertTrue(upstream.get("stream").asBoolean(), "model called in streaming mode");
+    }
+
+    @Test
+    void clientDisconnectCancelsUpstreamModelRequest() throws Exception {
+        int total = 500;
+        STUB.replay(Collections.nCopies(total, "tok "), 20);
+
+        String body = "{\"message\":\"Opowiedz dlugo o ZUS\"}";
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /api/ai/chat/stream HTTP/1.1\r\n"
+                    + "Host: localhost:" + port + "\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Accept: text/event-stream\r\n"
+                    + "Content-Length: " + body.getBytes(StandardCharsets.UTF_8).length + "\r\n"
+                    + "\r\n" + body).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null && !line.contains("event:token")) {
+                // headers, start event
+            }
+            assertTrue(line != null, "first token arrives before the stream ends");
+        }
+
+        assertTrue(STUB.disconnected().await(10, TimeUnit.SECONDS), "upstream connection dropped after client left");
+        assertTrue(STUB.tokensSent() < total, "stub stopped before replaying the whole stream");
+    }
+
+    private List<Event> parse(List<String> lines) throws IOException {
+        List<Event> events = new ArrayList<>();
+        String name = null;
+        StringBuilder data = new StringBuilder();
+        for (String line : lines) {
+            if (line.isEmpty()) {
+                if (name != null || !data.isEmpty()) events.add(new Event(name, objectMapper.readTree(data.toString())));
+                name = null;
+                data.setLength(0);
+            } else if (line.startsWith("event:")) {
+                name = line.substring("event:".length()).trim();
+            } else if (line.startsWith("data:")) {
+                data.append(line.substring("data:".length()));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,112 @@
+package com.promptoholics.anonymous.springai;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local OpenAI-compatible chat completions endpoint that replays a canned token stream
+ * (chat.completion.chunk events, then [DONE]) with a fixed delay between tokens.
+ * Records request bodies and notices when the caller drops the connection mid-stream.
+ */
+class StubOpenAiServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger tokensSent = new AtomicInteger();
+    private volatile List<String> tokens = List.of();
+    private volatile long delayMillis;
+    private volatile CountDownLatch disconnected = new CountDownLatch(1);
+
+    StubOpenAiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::completions);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Next responses replay these tokens, {@code delayMillis} apart. */
+    void replay(List<String> tokens, long delayMillis) {
+        this.tokens = List.copyOf(tokens);
+        this.delayMillis = delayMillis;
+        this.tokensSent.set(0);
+        this.disconnected = new CountDownLatch(1);
+        this.requests.clear();
+    }
+
+    List<String> requests() {
+        return requests;
+    }
+
+    int tokensSent() {
+        return tokensSent.get();
+    }
+
+    CountDownLatch disconnected() {
+        return disconnected;
+    }
+
+    private void completions(HttpExchange exchange) throws IOException {
+        requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        CountDownLatch dropped = disconnected;
+        try (OutputStream out = exchange.getResponseBody()) {
+            send(out, chunk("{\"role\":\"assistant\",\"content\":\"\"}", null));
+            for (String token : tokens) {
+                if (delayMillis > 0) Thread.sleep(delayMillis);
+                send(out, chunk("{\"content\":" + quote(token) + "}", null));
+                tokensSent.incrementAndGet();
+            }
+            send(out, chunk("{}", "stop"));
+            send(out, "[DONE]");
+        } catch (IOException e) {
+            dropped.countDown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static String chunk(String delta, String finishReason) {
+        return "{\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,"
+                + "\"model\":\"gpt-4o-mini\",\"system_fingerprint\":\"stub\",\"choices\":[{\"index\":0,\"delta\":" + delta
+                + ",\"finish_reason\":" + (finishReason == null ? "null" : quote(finishReason)) + "}]}";
+    }
+
+    private static String quote(String text) {
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                default -> json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
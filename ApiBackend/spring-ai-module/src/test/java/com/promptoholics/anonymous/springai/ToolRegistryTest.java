@@ -0,0 +1,75 @@
+package com.promptoholics.anonymous.springai;
+
+import com.promptoholics.anonymous.springai.tools.RetirementAgeTool;
+import com.promptoholics.anonymous.springai.tools.ToolRegistry;
+import com.promptoholics.anonymous.springai.tools.WeatherTool;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.model.function.FunctionCallback;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tool callbacks built once and shared; per-request selection returns the same instances.
+ */
+class ToolRegistryTest {
+
+    @Test
+    void registersEveryToolOnceAndSelectsSubsetsWithoutRebuilding() {
+        ToolRegistry registry = new ToolRegistry(List.of(new WeatherTool(), new RetirementAgeTool()));
+
+        assertEquals(List.of("getWeather", "getRetirementAge"), List.copyOf(registry.names()));
+        assertSame(registry.all(), registry.all());
+        assertThrows(UnsupportedOperationException.class, () -> registry.all().clear());
+
+        List<FunctionCallback> selected = registry.select(List.of("getRetirementAge"));
+        assertEquals(1, selected.size());
+        assertSame(registry.all().get(1), selected.get(0));
+        assertThrows(IllegalArgumentException.class, () -> registry.select(List.of("getPension")));
+    }
+
+    @Test
+    void rejectsDuplicateToolNames() {
+        assertThrows(IllegalStateException.class, () -> new ToolRegistry(List.of(new WeatherTool(), new WeatherTool())));
+    }
+
+    @Test
+    void retirementAgeToolAppliesStatutoryAgeBySex() {
+        RetirementAgeTool tool = new RetirementAgeTool();
+
+        RetirementAgeTool.Response man = tool.apply(new RetirementAgeTool.Request("M", 1980, 5));
+        assertEquals(65, man.retirementAge());
+        assertEquals(2045, man.retirementYear());
+        assertEquals(5, man.retirementMonth());
+
+        RetirementAgeTool.Response woman = tool.apply(new RetirementAgeTool.Request("f", 1980, null));
+        assertEquals(60, woman.retirementAge());
+        assertEquals(2040, woman.retirementYear());
+        assertEquals(1, woman.retirementMonth());
+
+        assertEquals(65, tool.apply(new RetirementAgeTool.Request(" Mężczyzna ", 1980, 1)).retirementAge());
+        assertEquals(60, tool.apply(new RetirementAgeTool.Request("K", 1980, 1)).retirementAge());
+        assertEquals(60, tool.apply(new RetirementAgeTool.Request("female", 1980, 1)).retirementAge());
+    }
+
+    @Test
+    void retirementAgeToolReportsBadArgumentsToTheModelInsteadOfThrowing() {
+        RetirementAgeTool tool = new RetirementAgeTool();
+
+        for (String sex : new String[] {null, "", "X", "unknown"}) {
+            RetirementAgeTool.Response response = tool.apply(new RetirementAgeTool.Request(sex, 1980, 1));
+            assertTrue(response.error().startsWith("sex must be M or F"), String.valueOf(sex));
+            assertNull(response.retirementAge());
+        }
+        assertTrue(tool.apply(new RetirementAgeTool.Request("M", null, 1)).error().startsWith("birthYear"));
+        assertTrue(tool.apply(new RetirementAgeTool.Request("M", 0, 1)).error().startsWith("birthYear"));
+        assertTrue(tool.apply(new RetirementAgeTool.Request("M", 3000, 1)).error().startsWith("birthYear"));
+        assertTrue(tool.apply(new RetirementAgeTool.Request("M", 1980, 13)).error().startsWith("birthMonth"));
+        assertNull(tool.apply(new RetirementAgeTool.Request("M", 1980, 12)).error());
+    }
+}
@@ -0,0 +1,98 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.ids.IdGenerator;
+import com.promptoholics.anonymous.ApiBackend.domain.ids.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wstawianie wierszy pension_calculation z kluczem UUID v4 (losowym) vs v7 (rosnącym w czasie).
+ * H2 w trybie PostgreSQL, plikowa baza w katalogu tymczasowym (żeby liczyły się strony B-drzewa,
+ * a nie tylko pamięć); jedna iteracja = {@code rows} wierszy w paczkach po 1000.
+ *
+ * ./gradlew jmh -Pjmh.includes=CalculationIdInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CalculationIdInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"v4", "v7"})
+    public String generator;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private IdGenerator ids;
+    private Connection connection;
+    private String dir;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        ids = "v7".equals(generator) ? new UuidV7Generator() : IdGenerator.random();
+        dir = java.nio.file.Files.createTempDirectory("id-bench").toString();
+        connection = DriverManager.getConnection("jdbc:h2:file:" + dir + "/bench;MODE=PostgreSQL", "sa", "");
+        try (Statement st = connection.createStatement()) {
+            // ta sama tabela co schema-h2.sql (bez indeksów pomocniczych)
+            st.execute("""
+                    CREATE TABLE pension_calculation (
+                        id UUID PRIMARY KEY,
+                        created_at TIMESTAMP NOT NULL,
+                        expected_pension DOUBLE PRECISION NOT NULL,
+                        age SMALLINT NOT NULL,
+                        gender VARCHAR(20) NOT NULL,
+                        salary_amount DOUBLE PRECISION NOT NULL,
+                        included_sickness_periods BOOLEAN NOT NULL,
+                        postal_code VARCHAR(16),
+                        version INTEGER NOT NULL
+                    )""");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int insert() throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO pension_calculation (id, created_at, expected_pension, age, gender, salary_amount, "
+                        + "included_sickness_periods, postal_code, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int i = 1; i <= rows; i++) {
+                ps.setObject(1, ids.next());
+                ps.setTimestamp(2, now);
+                ps.setDouble(3, 4000);
+                ps.setInt(4, 30 + i % 35);
+                ps.setString(5, (i & 1) == 0 ? "F" : "M");
+                ps.setDouble(6, 7000);
+                ps.setBoolean(7, true);
+                ps.setString(8, "43-100");
+                ps.addBatch();
+                if (i % BATCH == 0) {
+                    ps.executeBatch();
+                    connection.commit();
+                }
+            }
+            ps.executeBatch();
+            connection.commit();
+        }
+        return rows;
+    }
+}
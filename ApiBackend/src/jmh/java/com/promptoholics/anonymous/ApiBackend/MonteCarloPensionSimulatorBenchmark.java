@@ -0,0 +1,52 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataLoader;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataSet;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MonteCarloPensionSimulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tryb Monte Carlo V3 – cel: tysiące ścieżek w czasie interaktywnym (&lt; 100 ms).
+ * Profil: 40 lat pracy, historia do 2025, losowa makro do emerytury.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MonteCarloPensionSimulatorBenchmark {
+
+    @Param({"1000", "5000", "20000"})
+    public int paths;
+
+    private final MonteCarloPensionSimulator simulator = new MonteCarloPensionSimulator();
+    private MonteCarloPensionSimulator.Input input;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        MacroDataSet data = MacroDataLoader.bundled();
+        int firstYear = 2010;
+        int retireYear = 2055;
+        int years = retireYear - firstYear + 1;
+        double[] contribution = new double[years];
+        double[] cpi = new double[years];
+        double[] real = new double[years];
+        double wage = 6000.0;
+        for (int i = 0; i < years; i++) {
+            int y = firstYear + i;
+            cpi[i] = data.cpiYoY(y);
+            real[i] = data.realWageYoY(y);
+            contribution[i] = wage * 12 * 0.1952;
+            wage *= 1.0 + cpi[i] + real[i];
+        }
+        input = new MonteCarloPensionSimulator.Input(firstYear, 0.0, contribution, cpi, real, 2025 - firstYear, 21.0);
+    }
+
+    @Benchmark
+    public MonteCarloPensionSimulator.Result simulate() {
+        return simulator.simulate(input, paths, seed++);
+    }
+}
@@ -0,0 +1,104 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.*;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializacja odpowiedzi kalkulatora dla 45-letniej kariery: refleksja Jacksona (dotychczas)
+ * vs BlackbirdModule (akcesory przez LambdaMetafactory).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponseSerializationBenchmark {
+
+    private ObjectMapper reflective;
+    private ObjectMapper blackbird;
+    private PensionCalculationResponseDto response;
+
+    @Setup
+    public void setUp() {
+        reflective = mapper();
+        blackbird = mapper().registerModule(new BlackbirdModule());
+        response = response45Years();
+    }
+
+    @Benchmark
+    public byte[] reflective() throws Exception {
+        return reflective.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] blackbird() throws Exception {
+        return blackbird.writeValueAsBytes(response);
+    }
+
+    private static ObjectMapper mapper() {
+        // odpowiednik konfiguracji Spring Boot (JSR-310, daty jako ISO, JsonNullable)
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new JsonNullableModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static PensionCalculationResponseDto response45Years() {
+        var result = new PensionCalculationResponseResultDto();
+        result.setActualAmountPLN(7321.45f);
+        result.setRealAmountDeflated(3512.10f);
+        result.setReplacementRatePct(41.2f);
+        result.setVsAverageInRetirementYearPct(-3.4f);
+        result.setWageInclSickLeavePLN(7210.00f);
+        result.setWageExclSickLeavePLN(7321.45f);
+
+        List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> funds = new ArrayList<>();
+        List<PensionCalculationResponseResultSalaryProjectionInnerDto> salaries = new ArrayList<>();
+        float pot = 0f;
+        float salary = 6000f;
+        for (int year = 2010; year < 2055; year++) {
+            pot = pot * 1.05f + salary * 12 * 0.1952f;
+            salary *= 1.045f;
+            var f = new PensionCalculationResponseResultZusAccountFundsByYearInnerDto();
+            f.setYear(year);
+            f.setZusAccountFundsPLN(pot);
+            funds.add(f);
+            var s = new PensionCalculationResponseResultSalaryProjectionInnerDto();
+            s.setYear(year);
+            s.setSalary(salary);
+            salaries.add(s);
+        }
+        result.setZusAccountFundsByYear(funds);
+        result.setSalaryProjection(salaries);
+
+        var postponed = new PensionCalculationResponseResultIfPostponedYearsInnerDto();
+        postponed.setPostponedByYears(2);
+        postponed.setActualAmountPLN(8012.3f);
+        result.setIfPostponedYears(List.of(postponed));
+
+        var meets = new PensionCalculationResponseResultMeetsExpectationDto();
+        meets.setIsMet(false);
+        meets.setShortfallPLN(JsonNullable.of(500f));
+        meets.setExtraYearsRequiredEstimate(JsonNullable.of(3));
+        result.setMeetsExpectation(meets);
+
+        var response = new PensionCalculationResponseDto();
+        response.setId(UUID.randomUUID().toString());
+        response.setRequestedAt(OffsetDateTime.now());
+        response.setDataVersion("2025.10.05");
+        response.setResult(result);
+        return response;
+    }
+}
@@ -0,0 +1,68 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataLoader;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataSet;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MonthlyValorisationEngine;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.ZUSMacroSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dotychczasowa pętla roczna na BigDecimal (składka „od 1 stycznia”) vs silnik miesięczny
+ * na prymitywach (12 wpływów i 4 waloryzacje subkonta w roku) – 45 lat kariery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ValorisationEngineBenchmark {
+
+    private static final int START = 2010;
+    private static final int END = 2054;
+    private static final BigDecimal RATE_ACCOUNT = new BigDecimal("0.1500");
+    private static final BigDecimal RATE_SUBACCOUNT = new BigDecimal("0.0452");
+
+    private MacroDataSet data;
+    private ZUSMacroSeries macro;
+    private BigDecimal[] annualBasesBd;
+    private double[] monthlyBases;
+
+    @Setup
+    public void setUp() {
+        data = MacroDataLoader.bundled();
+        macro = new ZUSMacroSeries(data);
+        int years = END - START + 1;
+        annualBasesBd = new BigDecimal[years];
+        double[] annual = new double[years];
+        double wage = 6000.0;
+        for (int i = 0; i < years; i++) {
+            annual[i] = wage * 12;
+            annualBasesBd[i] = BigDecimal.valueOf(annual[i]);
+            wage *= 1.045;
+        }
+        monthlyBases = MonthlyValorisationEngine.spreadAnnual(annual);
+    }
+
+    @Benchmark
+    public BigDecimal annualBigDecimal() {
+        BigDecimal account = BigDecimal.ZERO;
+        BigDecimal subaccount = BigDecimal.ZERO;
+        for (int year = START; year <= END; year++) {
+            BigDecimal base = annualBasesBd[year - START];
+            account = account.add(base.multiply(RATE_ACCOUNT));
+            subaccount = subaccount.add(base.multiply(RATE_SUBACCOUNT));
+            account = account.multiply(macro.accountIndexFactor(year));
+            subaccount = subaccount.multiply(macro.subaccountIndexFactorYear(year));
+        }
+        return account.add(subaccount);
+    }
+
+    @Benchmark
+    public MonthlyValorisationEngine.Result monthlyPrimitive() {
+        return MonthlyValorisationEngine.accumulate(data, START, END, 0.0, 0.0, monthlyBases,
+                RATE_ACCOUNT.doubleValue(), RATE_SUBACCOUNT.doubleValue());
+    }
+}
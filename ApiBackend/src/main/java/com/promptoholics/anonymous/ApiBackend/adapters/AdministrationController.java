@@ -4,12 +4,14 @@ import com.promptoholics.anonymous.ApiBackend.api.AdministrationApi;
 import com.promptoholics.anonymous.ApiBackend.application.AdministrationFacade;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.AdminReportCreateRequestDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.AdminReportJsonCreateRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.MacroDataStatusDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationReportJsonDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.UsageQueryRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.UsageQueryResultDto;
 import io.swagger.v3.oas.annotations.Parameter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +19,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.nio.file.Path;
 import java.util.List;
 
 @Component
@@ -26,21 +29,40 @@ import java.util.List;
 public class AdministrationController implements AdministrationApi {
 
     private final AdministrationFacade administrationFacade;
+    private final ReportFileResponses reportFileResponses;
 
     @Override
     public ResponseEntity<Resource> generateAdminReport(AdminReportCreateRequestDto reportCreateRequestDto) {
         log.info("[REQUEST] generateAdminReport with: {}", reportCreateRequestDto);
-        ByteArrayResource resource = administrationFacade.generateAdminReport(reportCreateRequestDto.getDateFrom(), reportCreateRequestDto.getDateTo());
+        Path report = administrationFacade.generateAdminReport(reportCreateRequestDto.getDateFrom(), reportCreateRequestDto.getDateTo());
 
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=\"admin-report.xls\"")
-                .contentType(MediaType.parseMediaType("application/vnd.ms-excel"))
-                .contentLength(resource.contentLength())
-                .body(resource);
+        return reportFileResponses.serve(report, "admin-report.xls", MediaType.parseMediaType("application/vnd.ms-excel"));
     }
 
     @Override
     public ResponseEntity<List<PensionCalculationReportJsonDto>> generateAdminReportJson(@Parameter(name = "AdminReportJsonCreateRequestDto", description = "", required = true) @Valid @RequestBody AdminReportJsonCreateRequestDto adminReportJsonCreateRequestDto) {
         return ResponseEntity.ok(administrationFacade.generateAdminReportJson(adminReportJsonCreateRequestDto.getDateFrom(), adminReportJsonCreateRequestDto.getDateTo()));
     }
+
+    @Override
+    public ResponseEntity<MacroDataStatusDto> getMacroDataStatus() {
+        return ResponseEntity.ok(administrationFacade.getMacroDataStatus());
+    }
+
+    @Override
+    public ResponseEntity<MacroDataStatusDto> reloadMacroData() {
+        log.info("[REQUEST] reloadMacroData");
+        MacroDataStatusDto status = administrationFacade.reloadMacroData();
+        log.info("[RESPONSE] reloadMacroData: version={}, reloaded={}", status.getVersion(), status.getReloaded());
+        return ResponseEntity.ok(status);
+    }
+
+    @Override
+    public ResponseEntity<UsageQueryResultDto> queryUsage(UsageQueryRequestDto usageQueryRequestDto) {
+        log.info("[REQUEST] queryUsage with: {}", usageQueryRequestDto);
+        UsageQueryResultDto result = administrationFacade.queryUsage(usageQueryRequestDto);
+        log.info("[RESPONSE] queryUsage: {} groups from {} rows in {} ms",
+                result.getGroups().size(), result.getRowsScanned(), result.getElapsedMs());
+        return ResponseEntity.ok(result);
+    }
 }
@@ -4,6 +4,9 @@ import com.promptoholics.anonymous.ApiBackend.api.CalculationApi;
 import com.promptoholics.anonymous.ApiBackend.application.CalculationFacadeV3;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationSnapshotDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PostalCodeBatchUpdateRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PostalCodeBatchUpdateResultDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PostalCodeUpdateRequestDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,9 +29,21 @@ public class CalculationController implements CalculationApi {
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    public ResponseEntity<PensionCalculationSnapshotDto> getCalculation(String calculationId) {
+        log.info("[REQUEST] getCalculation with id: {}", calculationId);
+        return ResponseEntity.of(calculationFacade.getCalculation(calculationId));
+    }
+
     public ResponseEntity<Void> enterPostalCodeForCalculation(String calculationId, PostalCodeUpdateRequestDto request) {
         log.info("[REQUEST] enterPostalCodeForCalculation with id: {} and {}", calculationId, request);
         calculationFacade.enterPostalCodeForCalculation(calculationId, request);
         return ResponseEntity.ok(null);
     }
+
+    @Override
+    public ResponseEntity<PostalCodeBatchUpdateResultDto> updatePostalCodes(PostalCodeBatchUpdateRequestDto request) {
+        log.info("[REQUEST] updatePostalCodes with {} items", request.getItems() == null ? 0 : request.getItems().size());
+        return ResponseEntity.ok(calculationFacade.updatePostalCodes(request));
+    }
 }
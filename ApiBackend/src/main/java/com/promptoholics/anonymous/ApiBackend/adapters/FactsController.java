@@ -5,9 +5,17 @@ import com.promptoholics.anonymous.ApiBackend.application.FactsFacade;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.FactDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.List;
 
 @Component
 @RestController
@@ -15,11 +23,33 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class FactsController implements FactsApi {
 
+    private static final CacheControl POOL_CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
     private final FactsFacade factsFacade;
 
     @Override
-    public ResponseEntity<FactDto> getRandomFact(String locale) {
-        log.info("[REQUEST] getRandomFact");
-        return ResponseEntity.ok(factsFacade.getRandomFact(locale));
+    public ResponseEntity<FactDto> getRandomFact(String locale, String sessionId) {
+        log.debug("[REQUEST] getRandomFact");
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(factsFacade.getRandomFact(locale, sessionId));
+    }
+
+    @Override
+    public ResponseEntity<List<FactDto>> listFacts(String locale, String ifNoneMatch) {
+        log.debug("[REQUEST] listFacts");
+        FactsFacade.FactPool pool = factsFacade.getFactPool(locale);
+        // If-None-Match wg RFC 9110 (lista tagów, W/, *) – sprawdzane przed sięgnięciem po listę faktów
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        if (new ServletWebRequest(attributes.getRequest(), attributes.getResponse()).checkNotModified(pool.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(pool.etag())
+                    .cacheControl(POOL_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(pool.etag())
+                .cacheControl(POOL_CACHE_CONTROL)
+                .body(factsFacade.facts(pool));
     }
 }
@@ -0,0 +1,59 @@
+package com.promptoholics.anonymous.ApiBackend.adapters;
+
+import com.promptoholics.anonymous.ApiBackend.api.ReportApi;
+import com.promptoholics.anonymous.ApiBackend.application.AdministrationFacade;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.ReportJobCreateRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.ReportJobDto;
+import com.promptoholics.anonymous.ApiBackend.services.ReportJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+@Component
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class ReportController implements ReportApi {
+
+    private final AdministrationFacade administrationFacade;
+    private final ReportFileResponses reportFileResponses;
+
+    @Override
+    public ResponseEntity<ReportJobDto> createReportJob(ReportJobCreateRequestDto reportJobCreateRequestDto) {
+        log.info("[REQUEST] createReportJob with: {}", reportJobCreateRequestDto);
+        try {
+            ReportJobDto job = administrationFacade.createReportJob(reportJobCreateRequestDto);
+            log.info("[RESPONSE] createReportJob: id={}, status={}", job.getId(), job.getStatus());
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalStateException e) {
+            log.warn("createReportJob rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<ReportJobDto> getReportJob(String jobId) {
+        return ResponseEntity.of(administrationFacade.getReportJob(jobId));
+    }
+
+    @Override
+    public ResponseEntity<Resource> downloadReportJob(String jobId) {
+        Optional<ReportJobService.Job> found = administrationFacade.findReportJob(jobId);
+        if (found.isEmpty()) return ResponseEntity.notFound().build();
+        ReportJobService.Job job = found.get();
+        if (job.status() != ReportJobService.Status.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        return reportFileResponses.serve(job.file(),
+                "admin-report-" + job.dateFrom() + "_" + job.dateTo() + "." + job.format().extension(),
+                MediaType.parseMediaType(job.format().contentType()));
+    }
+}
@@ -0,0 +1,140 @@
+package com.promptoholics.anonymous.ApiBackend.adapters;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Odpowiedzi z wygenerowanymi plikami raportów – treść nigdy nie przechodzi przez stertę:
+ * - reports.files.x-accel-redirect ustawione (nginx przed API) → tylko nagłówek X-Accel-Redirect,
+ *   plik (z Range i warunkami) serwuje nginx z dysku przez sendfile;
+ * - bez nagłówka Range → sendfile Tomcata (atrybuty org.apache.tomcat.sendfile.*), gdy konektor go wspiera;
+ * - z Range (także wiele zakresów) → {@link FileSystemResource}, regiony liczy Spring (206).
+ * ETag i Last-Modified z metadanych pliku; dla GET/HEAD If-None-Match/If-Modified-Since dają 304,
+ * a niepasujący If-Range – cały plik zamiast zakresu.
+ */
+@Component
+public class ReportFileResponses {
+
+    static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final Path root;
+    private final String accelRedirectPrefix;
+
+    public ReportFileResponses(@Value("${reports.dir:${java.io.tmpdir}/pension-reports}") String root,
+                               @Value("${reports.files.x-accel-redirect:}") String accelRedirectPrefix) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.accelRedirectPrefix = accelRedirectPrefix.isBlank() || accelRedirectPrefix.endsWith("/")
+                ? accelRedirectPrefix : accelRedirectPrefix + "/";
+    }
+
+    public ResponseEntity<Resource> serve(Path file, String downloadName, MediaType contentType) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        HttpServletResponse response = attributes.getResponse();
+
+        BasicFileAttributes meta;
+        try {
+            meta = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Report file not readable: " + file, e);
+        }
+        long lastModified = meta.lastModifiedTime().to(TimeUnit.SECONDS) * 1000; // rozdzielczość nagłówka HTTP
+        String etag = etag(file, meta.size(), lastModified);
+
+        boolean safeMethod = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        if (safeMethod && new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            // 304 albo 412 – status i nagłówki ustawione już przez checkNotModified
+            return ResponseEntity.status(response != null ? response.getStatus() : HttpStatus.NOT_MODIFIED.value())
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(downloadName).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(contentType)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+
+        Path absolute = file.toAbsolutePath().normalize();
+        if (!accelRedirectPrefix.isBlank() && absolute.startsWith(root)) {
+            String relative = root.relativize(absolute).toString().replace('\\', '/');
+            return builder.header("X-Accel-Redirect", accelRedirectPrefix + relative).build();
+        }
+
+        boolean rangeRequested = request.getHeader(HttpHeaders.RANGE) != null;
+        if (rangeRequested && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            return builder.body(new FileSystemResource(file));
+        }
+
+        if (!"HEAD".equals(request.getMethod()) && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Tomcat wyśle plik sam (FileChannel.transferTo) po nagłówkach; ciało odpowiedzi puste
+            request.setAttribute(SENDFILE_FILENAME_ATTR, absolute.toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, meta.size());
+            return builder.contentLength(meta.size()).build();
+        }
+        if (rangeRequested) {
+            // If-Range nie pasuje – cały plik; zasób bez regionów, żeby Spring nie ciął go wg Range
+            return builder.contentLength(meta.size()).body(new InputStreamResource(newInputStream(file)));
+        }
+        return builder.body(new FileSystemResource(file));
+    }
+
+    static String etag(Path file, long size, long lastModified) {
+        return "\"" + Integer.toHexString(file.getFileName().toString().hashCode())
+                + "-" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    /** Brak If-Range albo zgodny z bieżącą wersją pliku (RFC 9110: ETag silny albo dokładna data). */
+    static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null || ifRange.isBlank()) return true;
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) return value.equals(etag);
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+                    .equals(Instant.ofEpochMilli(lastModified));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static InputStream newInputStream(Path file) {
+        try {
+            return Files.newInputStream(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Report file not readable: " + file, e);
+        }
+    }
+}
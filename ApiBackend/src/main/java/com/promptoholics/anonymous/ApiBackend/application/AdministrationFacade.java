@@ -1,23 +1,49 @@
 package com.promptoholics.anonymous.ApiBackend.application;
 
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroSnapshot;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageColumns;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQueryEngine;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.MacroDataStatusDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationReportJsonDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.ReportJobCreateRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.ReportJobDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.UsageQueryFilterDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.UsageQueryGroupDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.UsageQueryMetricDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.UsageQueryRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.UsageQueryResultDto;
+import com.promptoholics.anonymous.ApiBackend.services.MacroDataRegistry;
+import com.promptoholics.anonymous.ApiBackend.services.ReportFileStore;
+import com.promptoholics.anonymous.ApiBackend.services.ReportJobService;
 import com.promptoholics.anonymous.ApiBackend.services.ReportService;
+import com.promptoholics.anonymous.ApiBackend.services.UsageColumnStore;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 public class AdministrationFacade {
     private final ReportService reportService;
+    private final MacroDataRegistry macroDataRegistry;
+    private final UsageColumnStore usageColumnStore;
+    private final ReportJobService reportJobService;
+    private final ReportFileStore reportFileStore;
 
-    public ByteArrayResource generateAdminReport(LocalDate dateFrom, LocalDate dateTo) {
+    /** Plik raportu XLS na dysku – wygenerowany teraz albo wcześniej, jeśli dane zakresu się nie zmieniły. */
+    public Path generateAdminReport(LocalDate dateFrom, LocalDate dateTo) {
         try {
-            return reportService.generateReportInMemory(dateFrom, dateTo);
+            return reportFileStore.xlsReport(dateFrom, dateTo);
         } catch (IOException e) {
             throw new RuntimeException("Błąd generowania raportu", e);
         }
@@ -26,4 +52,123 @@ public class AdministrationFacade {
     public List<PensionCalculationReportJsonDto> generateAdminReportJson(LocalDate dateFrom, LocalDate dateTo) {
         return reportService.generateJsonReport(dateFrom, dateTo);
     }
+
+    public ReportJobDto createReportJob(ReportJobCreateRequestDto request) {
+        ReportJobService.Format format = request.getFormat() != null
+                ? ReportJobService.Format.valueOf(request.getFormat().getValue())
+                : ReportJobService.Format.XLSX;
+        return toReportJob(reportJobService.submit(request.getDateFrom(), request.getDateTo(), format));
+    }
+
+    public Optional<ReportJobDto> getReportJob(String jobId) {
+        return findReportJob(jobId).map(AdministrationFacade::toReportJob);
+    }
+
+    public Optional<ReportJobService.Job> findReportJob(String jobId) {
+        try {
+            return reportJobService.find(UUID.fromString(jobId));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public MacroDataStatusDto getMacroDataStatus() {
+        return toStatus(macroDataRegistry.current(), null);
+    }
+
+    public MacroDataStatusDto reloadMacroData() {
+        try {
+            boolean reloaded = macroDataRegistry.reload();
+            return toStatus(macroDataRegistry.current(), reloaded);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Błąd przeładowania danych makro", e);
+        }
+    }
+
+    public UsageQueryResultDto queryUsage(UsageQueryRequestDto request) {
+        long started = System.nanoTime();
+        UsageQuery query = toQuery(request);
+        UsageQueryEngine.Result result = UsageQueryEngine.execute(usageColumnStore.current(), query);
+
+        List<UsageQueryGroupDto> groups = new ArrayList<>(result.groups().size());
+        for (UsageQueryEngine.Group g : result.groups()) {
+            List<Double> values = new ArrayList<>(g.values().length);
+            for (double v : g.values()) values.add(Double.isNaN(v) ? null : v);
+            UsageQueryGroupDto dto = new UsageQueryGroupDto();
+            dto.setKeys(g.keys());
+            dto.setCount(g.count());
+            dto.setValues(values);
+            groups.add(dto);
+        }
+
+        UsageQueryResultDto dto = new UsageQueryResultDto();
+        dto.setRowsScanned(result.rowsScanned());
+        dto.setRowsMatched(result.rowsMatched());
+        dto.setDataAsOf(result.dataAsOf().atOffset(ZoneOffset.UTC));
+        dto.setColumns(query.metrics().stream().map(UsageQuery.Metric::label).toList());
+        dto.setGroups(groups);
+        dto.setElapsedMs((System.nanoTime() - started) / 1_000_000.0);
+        return dto;
+    }
+
+    private static UsageQuery toQuery(UsageQueryRequestDto request) {
+        LocalDate dateFrom = request.getDateFrom();
+        LocalDate dateTo = request.getDateTo();
+        if (dateFrom != null && dateTo != null && dateFrom.isAfter(dateTo)) {
+            throw new IllegalArgumentException("dateFrom must be <= dateTo");
+        }
+        Instant from = dateFrom != null ? dateFrom.atStartOfDay(UsageColumns.ZONE).toInstant() : null;
+        Instant to = dateTo != null ? dateTo.plusDays(1).atStartOfDay(UsageColumns.ZONE).toInstant() : null;
+
+        List<UsageQuery.Dimension> groupBy = request.getGroupBy() == null ? List.of()
+                : request.getGroupBy().stream().map(d -> UsageQuery.Dimension.valueOf(d.getValue())).distinct().toList();
+
+        List<UsageQuery.Metric> metrics = new ArrayList<>();
+        if (request.getMetrics() != null) {
+            for (UsageQueryMetricDto m : request.getMetrics()) {
+                var aggregation = UsageQuery.Aggregation.valueOf(m.getAggregation().getValue());
+                var measure = m.getMeasure() != null ? UsageQuery.Measure.valueOf(m.getMeasure().getValue()) : null;
+                if (measure == null && aggregation != UsageQuery.Aggregation.COUNT) {
+                    throw new IllegalArgumentException(aggregation + " requires a measure");
+                }
+                metrics.add(new UsageQuery.Metric(aggregation, measure));
+            }
+        }
+        if (metrics.isEmpty()) metrics.add(new UsageQuery.Metric(UsageQuery.Aggregation.COUNT, null));
+
+        UsageQueryFilterDto filter = request.getFilter() != null ? request.getFilter() : new UsageQueryFilterDto();
+        int ageBandWidth = request.getAgeBandWidth() != null ? request.getAgeBandWidth() : 10;
+        return new UsageQuery(from, to, groupBy, ageBandWidth,
+                filter.getGender(), filter.getPostalPrefix(), filter.getAgeFrom(), filter.getAgeTo(), metrics);
+    }
+
+    private static ReportJobDto toReportJob(ReportJobService.Job job) {
+        ReportJobDto dto = new ReportJobDto();
+        dto.setId(job.id().toString());
+        dto.setStatus(ReportJobDto.StatusEnum.fromValue(job.status().name()));
+        dto.setDateFrom(job.dateFrom());
+        dto.setDateTo(job.dateTo());
+        dto.setFormat(job.format().name());
+        dto.setCreatedAt(job.createdAt().atOffset(ZoneOffset.UTC));
+        dto.setRowsWritten(job.rowsWritten());
+        dto.setProgress(job.progress());
+        if (job.rowsTotal() >= 0) dto.setRowsTotal(job.rowsTotal());
+        if (job.finishedAt() != null) dto.setFinishedAt(job.finishedAt().atOffset(ZoneOffset.UTC));
+        if (job.expiresAt() != null) dto.setExpiresAt(job.expiresAt().atOffset(ZoneOffset.UTC));
+        if (job.status() == ReportJobService.Status.DONE) {
+            dto.setSizeBytes(job.sizeBytes());
+            dto.setDownloadUrl("/admin/reports/jobs/" + job.id() + "/file");
+        }
+        dto.setError(job.error());
+        return dto;
+    }
+
+    private static MacroDataStatusDto toStatus(MacroSnapshot snapshot, Boolean reloaded) {
+        MacroDataStatusDto dto = new MacroDataStatusDto();
+        dto.setVersion(snapshot.version());
+        dto.setSource(snapshot.source());
+        dto.setActivatedAt(snapshot.activatedAt().atOffset(ZoneOffset.UTC));
+        dto.setReloaded(reloaded);
+        return dto;
+    }
 }
@@ -2,10 +2,14 @@ package com.promptoholics.anonymous.ApiBackend.application;
 
 import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationEntity;
 import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationRepository;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroSnapshot;
 import com.promptoholics.anonymous.ApiBackend.domain.calc.PensionCalculatorService;
+import com.promptoholics.anonymous.ApiBackend.domain.ids.IdGenerator;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PostalCodeUpdateRequestDto;
+import com.promptoholics.anonymous.ApiBackend.services.MacroDataRegistry;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeDirectory;
 import io.micrometer.common.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import org.openapitools.jackson.nullable.JsonNullable;
@@ -24,7 +28,9 @@ import java.util.*;
 public class CalculationFacade {
 
     private final PensionCalculationRepository pensionCalculationRepository;
-    private final PensionCalculatorService calculator = new PensionCalculatorService(); // silnik (miesięczny)
+    private final MacroDataRegistry macroDataRegistry;
+    private final PostalCodeDirectory postalCodeDirectory;
+    private final IdGenerator idGenerator;
 
     public PensionCalculationResponseDto calculatePensions(PensionCalculationRequestDto req) {
         // 1) Parse work breaks from additionalSalaryChanges
@@ -49,10 +55,12 @@ public class CalculationFacade {
                 workBreaks,                                        // przerwy w pracy
                 contractType                                       // rodzaj umowy
         );
-        var out = calculator.calculate(in);
+        // silnik (miesięczny) przypięty do jednej migawki danych makro na całą kalkulację
+        MacroSnapshot snapshot = macroDataRegistry.current();
+        var out = new PensionCalculatorService(snapshot).calculate(in);
 
         // 2) Persist (miesięczne wartości)
-        UUID id = UUID.randomUUID();
+        UUID id = idGenerator.next();
         try {
             PensionCalculationEntity e = new PensionCalculationEntity();
             trySet(e,"id", id);
@@ -64,9 +72,10 @@ public class CalculationFacade {
             if (req.getZusAccountFundsPLN()!=null && req.getZusAccountFundsPLN().isPresent())
                 trySet(e,"accumulatedFundsTotal", dbl(req.getZusAccountFundsPLN().get()));
             if (req.getPostalCode()!=null && req.getPostalCode().isPresent())
-                trySet(e,"postalCode", req.getPostalCode().get());
+                postalCodeDirectory.applyTo(e, req.getPostalCode().get());
             trySet(e,"actualPension", scale2(out.actualMonthly()).doubleValue());
             trySet(e,"inflationAdjustedPension", scale2(out.realMonthly2025()).doubleValue());
+            trySet(e,"dataVersion", snapshot.version());
             pensionCalculationRepository.saveAndFlush(e);
         } catch (Throwable ignore) { /* testy bez bazy */ }
 
@@ -78,6 +87,9 @@ public class CalculationFacade {
             tryInvoke(resp, "setId", new Class[]{String.class}, new Object[]{id.toString()});
         }
 
+        // wersja danych makro
+        tryInvoke(resp, "setDataVersion", new Class[]{String.class}, new Object[]{snapshot.version()});
+
         // requestedAt
         tryInvoke(resp, "setRequestedAt", new Class[]{OffsetDateTime.class},
                 new Object[]{OffsetDateTime.ofInstant(out.requestedAt(), ZoneOffset.UTC)});
@@ -164,7 +176,7 @@ public class CalculationFacade {
         }
         var calc = pensionCalculationRepository.findById(UUID.fromString(calculationId))
                 .orElseThrow(() -> new RuntimeException("Calculation with id = %s not found".formatted(calculationId)));
-        calc.setPostalCode(body.getPostalCode());
+        postalCodeDirectory.applyTo(calc, postalCodeDirectory.encodeStrict(body.getPostalCode()));
         pensionCalculationRepository.saveAndFlush(calc);
     }
 
@@ -2,13 +2,18 @@ package com.promptoholics.anonymous.ApiBackend.application;
 
 import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationEntity;
 import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationRepository;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroSnapshot;
 import com.promptoholics.anonymous.ApiBackend.domain.calc.PensionCalculatorV2;
+import com.promptoholics.anonymous.ApiBackend.domain.ids.IdGenerator;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseDto;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PostalCodeUpdateRequestDto;
+import com.promptoholics.anonymous.ApiBackend.services.MacroDataRegistry;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeDirectory;
 import io.micrometer.common.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import org.openapitools.jackson.nullable.JsonNullable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Constructor;
@@ -24,7 +29,12 @@ import java.util.*;
 public class CalculationFacadeV2 {
 
     private final PensionCalculationRepository pensionCalculationRepository;
-    private final PensionCalculatorV2 calculator = new PensionCalculatorV2();
+    private final MacroDataRegistry macroDataRegistry;
+    private final PostalCodeDirectory postalCodeDirectory;
+    private final IdGenerator idGenerator;
+
+    @Value("${pension.v2.postponement-horizons:1,2,5}")
+    private int[] postponementHorizons;
 
     public PensionCalculationResponseDto calculatePensions(PensionCalculationRequestDto req) {
         // 1) Parse work breaks
@@ -49,11 +59,12 @@ public class CalculationFacadeV2 {
             contractType
         );
 
-        // 4) Calculate
-        var output = calculator.calculate(input);
+        // 4) Calculate – one macro data snapshot pinned for the whole calculation
+        MacroSnapshot snapshot = macroDataRegistry.current();
+        var output = new PensionCalculatorV2(snapshot, postponementHorizons).calculate(input);
 
         // 5) Persist
-        UUID id = UUID.randomUUID();
+        UUID id = idGenerator.next();
         try {
             PensionCalculationEntity e = new PensionCalculationEntity();
             trySet(e, "id", id);
@@ -65,9 +76,10 @@ public class CalculationFacadeV2 {
             if (req.getZusAccountFundsPLN() != null && req.getZusAccountFundsPLN().isPresent())
                 trySet(e, "accumulatedFundsTotal", dbl(req.getZusAccountFundsPLN().get()));
             if (req.getPostalCode() != null && req.getPostalCode().isPresent())
-                trySet(e, "postalCode", req.getPostalCode().get());
+                postalCodeDirectory.applyTo(e, req.getPostalCode().get());
             trySet(e, "actualPension", scale2(output.actualMonthlyPension()).doubleValue());
             trySet(e, "inflationAdjustedPension", scale2(output.realMonthlyPension2025()).doubleValue());
+            trySet(e, "dataVersion", snapshot.version());
             pensionCalculationRepository.saveAndFlush(e);
         } catch (Throwable ignore) { /* testy bez bazy */ }
 
@@ -79,6 +91,9 @@ public class CalculationFacadeV2 {
             tryInvoke(resp, "setId", new Class[]{String.class}, new Object[]{id.toString()});
         }
 
+        // macro data version
+        tryInvoke(resp, "setDataVersion", new Class[]{String.class}, new Object[]{snapshot.version()});
+
         // requestedAt
         tryInvoke(resp, "setRequestedAt", new Class[]{OffsetDateTime.class},
             new Object[]{OffsetDateTime.ofInstant(output.requestedAt(), ZoneOffset.UTC)});
@@ -180,7 +195,7 @@ public class CalculationFacadeV2 {
         }
         var calc = pensionCalculationRepository.findById(UUID.fromString(calculationId))
             .orElseThrow(() -> new RuntimeException("Calculation with id = %s not found".formatted(calculationId)));
-        calc.setPostalCode(body.getPostalCode());
+        postalCodeDirectory.applyTo(calc, postalCodeDirectory.encodeStrict(body.getPostalCode()));
         pensionCalculationRepository.saveAndFlush(calc);
     }
 
@@ -2,24 +2,42 @@ package com.promptoholics.anonymous.ApiBackend.application;
 
 import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationEntity;
 import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationRepository;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataSet;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroSnapshot;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MonteCarloPensionSimulator;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.SalaryChangeSpans;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.Sex;
+import com.promptoholics.anonymous.ApiBackend.domain.ids.IdGenerator;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.*;
+import com.promptoholics.anonymous.ApiBackend.services.CalculationBranchPlanner;
+import com.promptoholics.anonymous.ApiBackend.services.CalculationSnapshotStore;
+import com.promptoholics.anonymous.ApiBackend.services.CalculationSingleFlight;
+import com.promptoholics.anonymous.ApiBackend.services.MacroDataRegistry;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeBatchUpdater;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeDirectory;
 import io.micrometer.common.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 @RequiredArgsConstructor
 public class CalculationFacadeV3 {
 
     private final PensionCalculationRepository pensionCalculationRepository;
+    private final MacroDataRegistry macroDataRegistry;
+    private final CalculationSingleFlight singleFlight;
+    private final CalculationWorkspacePool workspacePool;
+    private final CalculationBranchPlanner branchPlanner;
+    private final PostalCodeDirectory postalCodeDirectory;
+    private final IdGenerator idGenerator;
+    private final CalculationSnapshotStore snapshotStore;
+    private final PostalCodeBatchUpdater postalCodeBatchUpdater;
 
     private static final double EFFECTIVE_PENSION_CONTRIB_RATE = 0.19250; // 12% podstawy składek
     private static final int WORKING_DAYS_PER_YEAR = 252;                // ~dni robocze
@@ -35,14 +53,67 @@ public class CalculationFacadeV3 {
     // Udział realnego wzrostu płac w indeksacji konta (CPI + alpha * real)
     private static final double ACCOUNT_INDEXATION_REAL_SHARE = 1;
 
-    private final MacroPaths macro = new MacroPaths();
+    // Tryb Monte Carlo
+    private static final int MONTE_CARLO_DEFAULT_PATHS = 2000;
+    private static final int MONTE_CARLO_MAX_PATHS = 20_000;
+
     private final LifeTables life = new LifeTables();
+    private final MonteCarloPensionSimulator monteCarlo = new MonteCarloPensionSimulator();
 
     public PensionCalculationResponseDto calculatePensions(PensionCalculationRequestDto req) {
         Objects.requireNonNull(req, "Request cannot be null");
         validate(req);
 
+        // Jeden zestaw danych makro na całą kalkulację – wersja trafia do odpowiedzi i do bazy
+        MacroSnapshot snapshot = macroDataRegistry.current();
         int currentYear = LocalDate.now().getYear();
+
+        // Identyczne równoległe żądania (ten sam formularz, rok i wersja danych) dzielą jedną symulację
+        CalculationOutcome outcome = singleFlight.execute(
+                canonicalKey(req, currentYear, snapshot.version()),
+                () -> compute(req, snapshot, currentYear));
+
+        // Każde żądanie dostaje własne id i własny wiersz w bazie
+        var entity = new PensionCalculationEntity();
+        var id = idGenerator.next();
+        postalCodeDirectory.applyTo(entity, req.getPostalCode().orElse(""));
+        entity.setId(id);
+        entity.setAge(req.getAge());
+        entity.setActualPension(round2(outcome.monthlyPensionNominalActual()));
+        entity.setExpectedPension(req.getExpectedPensionPLN());
+        entity.setGender(req.getSex().getValue());
+        entity.setAccumulatedFundsTotal(Double.valueOf(req.getZusAccountFundsPLN().orElse((float) 0)));
+        entity.setIncludedSicknessPeriods(req.getIncludeSickLeave());
+        entity.setInflationAdjustedPension(round2(outcome.monthlyPensionRealToday()));
+        entity.setSalaryAmount(req.getGrossSalaryPLN());
+        entity.setDataVersion(snapshot.version());
+        pensionCalculationRepository.saveAndFlush(entity);
+
+        PensionCalculationResponseDto response = new PensionCalculationResponseDto();
+        response.setId(id.toString());
+        response.setRequestedAt(OffsetDateTime.now());
+        response.setDataVersion(snapshot.version());
+        response.setResult(outcome.result()); // wynik współdzielony – tylko do odczytu
+        snapshotStore.save(id, req, response);
+        return response;
+    }
+
+    /** Ponowne otwarcie zapisanej kalkulacji (bez przeliczania). */
+    public Optional<PensionCalculationSnapshotDto> getCalculation(String calculationId) {
+        UUID id;
+        try {
+            id = UUID.fromString(calculationId);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return snapshotStore.find(id);
+    }
+
+    // Pełna symulacja – czysta funkcja wejścia, roku bieżącego i migawki danych (bez zapisu do bazy).
+    // Obliczenia pośrednie idą na buforach z CalculationWorkspace – alokowana jest tylko odpowiedź.
+    private CalculationOutcome compute(PensionCalculationRequestDto req, MacroSnapshot snapshot, int currentYear) {
+        MacroPaths macro = new MacroPaths(snapshot.data());
+
         int startYear = req.getStartYear();
         int retireYear = req.getPlannedEndYear();
         int yearsToRetire = Math.max(0, retireYear - currentYear);
@@ -55,153 +126,172 @@ public class CalculationFacadeV3 {
         // Dni chorobowe: bazowe wg płci + dodatkowe
         int baseSickDaysBySex = (req.getSex() == PensionCalculationRequestDto.SexEnum.F)
                 ? DEFAULT_SICK_DAYS_F : DEFAULT_SICK_DAYS_M;
-        int extraSickDays = Optional.ofNullable(req.getAdditionalSickLeaveDaysPerYear()).orElse(0);
+        Integer additionalSickDays = req.getAdditionalSickLeaveDaysPerYear();
+        int extraSickDays = additionalSickDays != null ? additionalSickDays : 0;
         int totalSickDaysForIncl = contract.sickEligible ? Math.max(0, baseSickDaysBySex + extraSickDays) : 0;
 
         // Miesięczna płaca W ROKU BIEŻĄCYM (grossSalaryPLN to płaca TERAZ)
         double monthlyGrossCurrent = asDouble(req.getGrossSalaryPLN());
 
-        // === 1) BUDUJEMY ŚCIEŻKĘ ROCZNĄ bazową od startYear do retireYear, zakotwiczoną w currentYear ===
-        Map<Integer, Double> baseMonthlyByYearExcl = buildYearlyBaseline(
-                startYear, currentYear, retireYear, monthlyGrossCurrent
-        );
-
-        // Wariant "Incl" – współczynnik chorobowy (jeśli umowa daje prawo do chorobowego)
-        double sickFactor = sickAdjustmentFactor(totalSickDaysForIncl, contract.sickReplacementRate);
-        Map<Integer, Double> baseMonthlyByYearIncl = new LinkedHashMap<>();
-        for (int y = startYear; y <= retireYear; y++) {
-            double v = baseMonthlyByYearExcl.get(y);
-            baseMonthlyByYearIncl.put(y, round2(contract.sickEligible ? v * sickFactor : v));
-        }
-
-        // === 2) ROZWINIĘCIE NA SIATKĘ MIESIĘCZNĄ (YearMonth) ===
-        Map<YearMonth, Double> monthlyExcl = new LinkedHashMap<>();
-        Map<YearMonth, Double> monthlyIncl = new LinkedHashMap<>();
-        for (int y = startYear; y <= retireYear; y++) {
-            for (int m = 1; m <= 12; m++) {
-                YearMonth ym = YearMonth.of(y, m);
-                monthlyExcl.put(ym, baseMonthlyByYearExcl.get(y));
-                monthlyIncl.put(ym, baseMonthlyByYearIncl.get(y));
-            }
-        }
-
-        // === 3) OVERRIDES: additionalSalaryChanges (BREAK/WORK z datami i pensją) ===
-        List<ChangeSpan> changes = parseChanges(req.getAdditionalSalaryChanges());
-        applyChangesToMonthlyGrid(changes, monthlyExcl, monthlyIncl, startYear, retireYear,
-                contract.sickEligible, sickFactor);
-
-        // === 4) WYZNACZ PUNKT STARTU AKUMULACJI (snapshot środków z ZUS minimalizuje podwajanie historii) ===
+        // Punkt startu akumulacji (snapshot środków z ZUS minimalizuje podwajanie historii)
         boolean hasSnapshotFunds = req.getZusAccountFundsPLN() != null && req.getZusAccountFundsPLN().isPresent();
         double startingFunds = hasSnapshotFunds ? req.getZusAccountFundsPLN().get() : 0.0;
         int accumulationStartYear = hasSnapshotFunds ? currentYear : startYear;
+        int postponeYears = postponementYears(req);
+
+        // Plan zamykany przed workspace – gałęzie nie mogą przeżyć oddania buforów do puli
+        try (CalculationWorkspace ws = workspacePool.acquire(startYear, retireYear);
+             CalculationBranchPlanner.Plan plan = branchPlanner.plan(
+                     estimateWork(req, retireYear - accumulationStartYear + 1, postponeYears))) {
+            // === 1) BUDUJEMY ŚCIEŻKĘ ROCZNĄ bazową od startYear do retireYear, zakotwiczoną w currentYear ===
+            buildYearlyBaseline(macro, ws, currentYear, monthlyGrossCurrent);
+
+            // Wariant "Incl" – współczynnik chorobowy (jeśli umowa daje prawo do chorobowego)
+            double sickFactor = sickAdjustmentFactor(totalSickDaysForIncl, contract.sickReplacementRate);
+            for (int i = 0; i < ws.years(); i++) {
+                double v = ws.yearlyExcl[i];
+                ws.yearlyIncl[i] = round2(contract.sickEligible ? v * sickFactor : v);
+            }
+
+            // === 2) ROZWINIĘCIE NA SIATKĘ MIESIĘCZNĄ ===
+            for (int i = 0; i < ws.years(); i++) {
+                Arrays.fill(ws.monthlyExcl, i * 12, i * 12 + 12, ws.yearlyExcl[i]);
+                Arrays.fill(ws.monthlyIncl, i * 12, i * 12 + 12, ws.yearlyIncl[i]);
+            }
+
+            // === 3) OVERRIDES: additionalSalaryChanges (BREAK/WORK z datami i pensją) ===
+            applyChangesToMonthlyGrid(StreamedCalculationRequest.salaryChanges(req), ws, contract.sickEligible, sickFactor);
+
+            // === 4) POLICZ DWA SCENARIUSZE PULI I EMERYTURY: EXCL i INCL (od accumulationStartYear) ===
+            // Od tego miejsca siatki są tylko czytane – niezależne gałęzie mogą liczyć się równolegle
+            double[] monthlyChosen = includeSick ? ws.monthlyIncl : ws.monthlyExcl;
+            double[] monthlyOther = includeSick ? ws.monthlyExcl : ws.monthlyIncl;
+            int ageAtRetirement = req.getAge() + yearsToRetire;
+            double payoutYears = life.annuityDivisor(ageAtRetirement, req.getSex()); // w latach
+
+            var otherBranch = plan.fork(() -> accumulateFromMonthly(macro, ws, monthlyOther, accumulationStartYear,
+                    retireYear, startingFunds, contract.pensionBaseFactor, null));
+            var monteCarloBranch = req.getMonteCarlo() == null ? null : plan.fork(() -> simulateMonteCarlo(
+                    macro, ws, req.getMonteCarlo(), accumulationStartYear, retireYear, currentYear, startingFunds,
+                    monthlyChosen, contract.pensionBaseFactor, payoutYears));
+
+            // Oś czasu puli budujemy tylko dla scenariusza „actual” (zgodnie z flagą includeSickLeave)
+            List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> potTimelineActual =
+                    new ArrayList<>(Math.max(0, retireYear - accumulationStartYear + 1));
+            double potActual = accumulateFromMonthly(macro, ws, monthlyChosen, accumulationStartYear, retireYear,
+                    startingFunds, contract.pensionBaseFactor, potTimelineActual);
+
+            // Scenariusz odroczenia – licz na bazie „actual” (osobny bufor kroczący niż szacunek lat)
+            var postponedBranch = postponeYears <= 0 ? null : plan.fork(() -> simulatePostponementMonthly(
+                    macro, ws, ws.rolling, req, currentYear, postponeYears, monthlyChosen, retireYear, potActual,
+                    contract));
+
+            double potOther = otherBranch.join();
+            double potIncl = includeSick ? potActual : potOther;
+            double potExcl = includeSick ? potOther : potActual;
+
+            // Miesięczna emerytura nominalna (obie wersje)
+            double monthlyPensionNominalExcl = (potExcl / Math.max(1e-9, payoutYears)) / 12.0;
+            double monthlyPensionNominalIncl = (potIncl / Math.max(1e-9, payoutYears)) / 12.0;
+
+            // Wybór scenariusza „actual” zgodnie z flagą includeSickLeave
+            double monthlyPensionNominalActual = includeSick ? monthlyPensionNominalIncl : monthlyPensionNominalExcl;
+
+            // Urealnienie do „dzisiejszych płac” – deflator po ścieżce NOMINALNEGO wzrostu wynagrodzeń
+            double wageDeflatorToToday = macro.deflatorByNominalWage(retireYear, currentYear);
+            double monthlyPensionRealToday = monthlyPensionNominalActual / Math.max(1e-9, wageDeflatorToToday);
+
+            // Replacement rate – miesięczna emerytura (actual) / miesięczna płaca bez chorobowego w roku przejścia
+            double wageRetExcl = ws.yearlyExcl[retireYear - startYear];
+            double replacementRatePct = monthlyPensionNominalActual / Math.max(1e-9, wageRetExcl) * 100.0;
+
+            // Relacja do średniej emerytury (miesięcznej) w roku przejścia
+            double avgPensionInYearMonthly = macro.projectAveragePension(retireYear);
+            double vsAvgPct = monthlyPensionNominalActual / Math.max(1e-9, avgPensionInYearMonthly) * 100.0 - 100;
+
+            // === 5) salaryByYear (salaryProjection): od ROKU BIEŻĄCEGO do retireYear ===
+            List<PensionCalculationResponseResultSalaryProjectionInnerDto> salaryByYearList =
+                    buildSalaryByYearList(ws, monthlyChosen, currentYear, retireYear); // <-- START OD currentYear
+
+            // Oczekiwania użytkownika – zakładamy wartości MIESIĘCZNE (nominal)
+            var meets = new PensionCalculationResponseResultMeetsExpectationDto();
+            Float expected = req.getExpectedPensionPLN();
+            if (expected != null) {
+                boolean isMet = monthlyPensionNominalActual + 1e-6 >= expected;
+                meets.setIsMet(isMet);
+                if (!isMet) {
+                    meets.setShortfallPLN(JsonNullable.of((float) round2(expected - monthlyPensionNominalActual)));
+                    int extraYears = estimateExtraYearsToMeetMonthly(
+                            macro, ws, ws.rollingEstimate, req, currentYear, monthlyChosen, retireYear, potActual,
+                            expected, contract
+                    );
+                    meets.setExtraYearsRequiredEstimate(JsonNullable.of(extraYears));
+                }
+            } else {
+                meets.setIsMet(null);
+            }
 
-        // === 5) POLICZ DWA SCENARIUSZE PULI I EMERYTURY: EXCL i INCL (od accumulationStartYear) ===
-        AccumResult accExcl = accumulateFromMonthly(accumulationStartYear, retireYear, startingFunds,
-                monthlyExcl, contract.pensionBaseFactor);
-        AccumResult accIncl = accumulateFromMonthly(accumulationStartYear, retireYear, startingFunds,
-                monthlyIncl, contract.pensionBaseFactor);
-
-        // Miesięczna emerytura nominalna (obie wersje)
-        int ageAtRetirement = req.getAge() + yearsToRetire;
-        double payoutYears = life.annuityDivisor(ageAtRetirement, req.getSex()); // w latach
-        double monthlyPensionNominalExcl = (accExcl.pot / Math.max(1e-9, payoutYears)) / 12.0;
-        double monthlyPensionNominalIncl = (accIncl.pot / Math.max(1e-9, payoutYears)) / 12.0;
-
-        // Wybór scenariusza „actual” zgodnie z flagą includeSickLeave
-        double monthlyPensionNominalActual = includeSick ? monthlyPensionNominalIncl : monthlyPensionNominalExcl;
-        List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> potTimelineActual =
-                includeSick ? accIncl.timeline : accExcl.timeline;
-
-        // Urealnienie do „dzisiejszych płac” – deflator po ścieżce NOMINALNEGO wzrostu wynagrodzeń
-        double wageDeflatorToToday = macro.deflatorByNominalWage(retireYear, currentYear);
-        double monthlyPensionRealToday = monthlyPensionNominalActual / Math.max(1e-9, wageDeflatorToToday);
-
-        // Replacement rate – miesięczna emerytura (actual) / miesięczna płaca bez chorobowego w roku przejścia
-        double wageRetExcl = baseMonthlyByYearExcl.get(retireYear);
-        double replacementRatePct = monthlyPensionNominalActual / Math.max(1e-9, wageRetExcl) * 100.0;
-
-        // Relacja do średniej emerytury (miesięcznej) w roku przejścia
-        double avgPensionInYearMonthly = macro.projectAveragePension(retireYear);
-        double vsAvgPct = monthlyPensionNominalActual / Math.max(1e-9, avgPensionInYearMonthly) * 100.0 - 100;
-
-        // === 6) salaryByYear (salaryProjection): od ROKU BIEŻĄCEGO do retireYear ===
-        Map<YearMonth, Double> monthlyChosen = includeSick ? monthlyIncl : monthlyExcl;
-        List<PensionCalculationResponseResultSalaryProjectionInnerDto> salaryByYearList =
-                buildSalaryByYearList(monthlyChosen, currentYear, retireYear); // <-- START OD currentYear
-
-        // Scenariusz odroczenia – licz na bazie „actual”
-        List<PensionCalculationResponseResultIfPostponedYearsInnerDto> postponed = new ArrayList<>();
-        if (req.getAdditionalWorkYears() != null && req.getAdditionalWorkYears().isPresent()) {
-            int add = Math.max(0, req.getAdditionalWorkYears().get());
-            if (add > 0) {
+            List<PensionCalculationResponseResultIfPostponedYearsInnerDto> postponed = new ArrayList<>(1);
+            if (postponedBranch != null) {
                 var alt = new PensionCalculationResponseResultIfPostponedYearsInnerDto();
-                alt.setPostponedByYears(add);
-                double potAtBase = includeSick ? accIncl.pot : accExcl.pot;
-                double postponedMonthly = simulatePostponementMonthly(
-                        req, add, monthlyChosen, retireYear, potAtBase, contract
-                );
-                alt.setActualAmountPLN((float) round2(postponedMonthly));
+                alt.setPostponedByYears(postponeYears);
+                alt.setActualAmountPLN((float) round2(postponedBranch.join()));
                 postponed.add(alt);
             }
-        }
 
-        // Oczekiwania użytkownika – zakładamy wartości MIESIĘCZNE (nominal)
-        var meets = new PensionCalculationResponseResultMeetsExpectationDto();
-        Float expected = req.getExpectedPensionPLN();
-        if (expected != null) {
-            boolean isMet = monthlyPensionNominalActual + 1e-6 >= expected;
-            meets.setIsMet(isMet);
-            if (!isMet) {
-                meets.setShortfallPLN(JsonNullable.of((float) round2(expected - monthlyPensionNominalActual)));
-                int extraYears = estimateExtraYearsToMeetMonthly(
-                        req, monthlyChosen, retireYear, includeSick ? accIncl.pot : accExcl.pot, expected, contract
-                );
-                meets.setExtraYearsRequiredEstimate(JsonNullable.of(extraYears));
-            }
-        } else {
-            meets.setIsMet(null);
-        }
+            // Tryb stochastyczny (opcjonalny) – pasma percentylowe dla emerytury i puli
+            MonteCarloResultDto monteCarloResult = monteCarloBranch != null ? monteCarloBranch.join() : null;
 
-        var entity = new PensionCalculationEntity();
-        var id = UUID.randomUUID();
-        entity.setPostalCode(req.getPostalCode().orElse(""));
-        entity.setId(id);
-        entity.setAge(req.getAge());
-        entity.setActualPension(round2(monthlyPensionNominalActual));
-        entity.setExpectedPension(req.getExpectedPensionPLN());
-        entity.setGender(req.getSex().getValue());
-        entity.setAccumulatedFundsTotal(Double.valueOf(req.getZusAccountFundsPLN().orElse((float) 0)));
-        entity.setIncludedSicknessPeriods(req.getIncludeSickLeave());
-        entity.setInflationAdjustedPension(round2(monthlyPensionRealToday));
-        entity.setSalaryAmount(req.getGrossSalaryPLN());
-        pensionCalculationRepository.saveAndFlush(entity);
+            // Budowa odpowiedzi
+            PensionCalculationResponseResultDto result = new PensionCalculationResponseResultDto();
 
-        // Budowa odpowiedzi
-        PensionCalculationResponseResultDto result = new PensionCalculationResponseResultDto();
+            // actual = miesięczna emerytura (nominal) zgodna z flagą includeSickLeave
+            result.setActualAmountPLN((float) round2(monthlyPensionNominalActual));
+            result.setRealAmountDeflated((float) round2(monthlyPensionRealToday));
 
-        // actual = miesięczna emerytura (nominal) zgodna z flagą includeSickLeave
-        result.setActualAmountPLN((float) round2(monthlyPensionNominalActual));
-        result.setRealAmountDeflated((float) round2(monthlyPensionRealToday));
+            // „wage*” = miesięczna emerytura z/bez chorobowego
+            result.setWageInclSickLeavePLN((float) round2(monthlyPensionNominalIncl));
+            result.setWageExclSickLeavePLN((float) round2(monthlyPensionNominalExcl));
 
-        // „wage*” = miesięczna emerytura z/bez chorobowego
-        result.setWageInclSickLeavePLN((float) round2(monthlyPensionNominalIncl));
-        result.setWageExclSickLeavePLN((float) round2(monthlyPensionNominalExcl));
+            // Dodatkowe metryki
+            result.setReplacementRatePct((float) round2(replacementRatePct));
+            result.setVsAverageInRetirementYearPct((float) round2(vsAvgPct));
+            result.setIfPostponedYears(postponed);
+            result.setMeetsExpectation(meets);
 
-        // Dodatkowe metryki
-        result.setReplacementRatePct((float) round2(replacementRatePct));
-        result.setVsAverageInRetirementYearPct((float) round2(vsAvgPct));
-        result.setIfPostponedYears(postponed);
-        result.setMeetsExpectation(meets);
+            // Timelines
+            result.setZusAccountFundsByYear(potTimelineActual);               // „actual” pot timeline
+            result.setSalaryProjection(salaryByYearList);                         // salaryProjection: od currentYear
+            result.setMonteCarlo(monteCarloResult);                               // null, gdy tryb wyłączony
 
-        // Timelines
-        result.setZusAccountFundsByYear(potTimelineActual);               // „actual” pot timeline
-        result.setSalaryProjection(salaryByYearList);                         // salaryProjection: od currentYear
+            return new CalculationOutcome(result, monthlyPensionNominalActual, monthlyPensionRealToday);
+        }
+    }
 
-        PensionCalculationResponseDto response = new PensionCalculationResponseDto();
-        response.setId(id.toString());
-        response.setRequestedAt(OffsetDateTime.now());
-        response.setResult(result);
-        return response;
+    /**
+     * Kanoniczny klucz kalkulacji: wszystkie pola wpływające na wynik (bez kodu pocztowego),
+     * rok bieżący i wersja danych makro.
+     */
+    static String canonicalKey(PensionCalculationRequestDto req, int currentYear, String dataVersion) {
+        StringBuilder key = new StringBuilder(128)
+                .append(dataVersion).append('|').append(currentYear)
+                .append('|').append(req.getAge())
+                .append('|').append(req.getSex())
+                .append('|').append(req.getGrossSalaryPLN())
+                .append('|').append(req.getStartYear())
+                .append('|').append(req.getPlannedEndYear())
+                .append('|').append(Boolean.TRUE.equals(req.getIncludeSickLeave()))
+                .append('|').append(req.getZusAccountFundsPLN() != null ? req.getZusAccountFundsPLN().orElse(null) : null)
+                .append('|').append(req.getAdditionalWorkYears() != null ? req.getAdditionalWorkYears().orElse(null) : null)
+                .append('|').append(req.getAdditionalSickLeaveDaysPerYear())
+                .append('|').append(req.getExpectedPensionPLN())
+                .append('|').append(req.getContractType());
+        StreamedCalculationRequest.salaryChanges(req).appendTo(key);
+        if (req.getMonteCarlo() != null) {
+            key.append("|mc:").append(req.getMonteCarlo().getPaths())
+                    .append(',').append(req.getMonteCarlo().getSeed());
+        }
+        return key.toString();
     }
 
     // === Helpers ===
@@ -217,6 +307,27 @@ public class CalculationFacadeV3 {
         if (req.getStartYear() > req.getPlannedEndYear()) {
             throw new IllegalArgumentException("startYear must be <= plannedEndYear");
         }
+        if (req.getStartYear() < MacroDataSet.FIRST_YEAR || req.getPlannedEndYear() > MacroDataSet.LAST_YEAR) {
+            throw new IllegalArgumentException("startYear/plannedEndYear must be within "
+                    + MacroDataSet.FIRST_YEAR + ".." + MacroDataSet.LAST_YEAR);
+        }
+    }
+
+    private static int postponementYears(PensionCalculationRequestDto req) {
+        if (req.getAdditionalWorkYears() == null || !req.getAdditionalWorkYears().isPresent()) return 0;
+        Integer add = req.getAdditionalWorkYears().get();
+        return add != null ? Math.max(0, add) : 0;
+    }
+
+    // Szacunek pracy w krokach miesięcznych: dwa scenariusze puli, odroczenie, szacunek lat, ścieżki Monte Carlo
+    private static long estimateWork(PensionCalculationRequestDto req, int accumulationYears, int postponeYears) {
+        long work = 2L * accumulationYears * 12 + (long) postponeYears * 12;
+        if (req.getExpectedPensionPLN() != null) work += 15 * 12;
+        if (req.getMonteCarlo() != null) {
+            Integer paths = req.getMonteCarlo().getPaths();
+            work += (long) (paths != null ? paths : MONTE_CARLO_DEFAULT_PATHS) * accumulationYears;
+        }
+        return work;
     }
 
     private static double asDouble(Number n) {
@@ -230,21 +341,22 @@ public class CalculationFacadeV3 {
     }
 
     // Buduje roczną ścieżkę miesięcznej płacy EXCL od startYear do retireYear, zakotwiczoną w currentYear
-    private Map<Integer, Double> buildYearlyBaseline(int startYear,
-                                                     int currentYear,
-                                                     int retireYear,
-                                                     double monthlyGrossCurrent) {
-        Map<Integer, Double> base = new LinkedHashMap<>();
+    private void buildYearlyBaseline(MacroPaths macro,
+                                     CalculationWorkspace ws,
+                                     int currentYear,
+                                     double monthlyGrossCurrent) {
+        int startYear = ws.firstYear();
+        int retireYear = ws.lastYear();
 
         // 1) zakotwicz bieżący rok (grossSalaryPLN = płaca TERAZ)
         double m = monthlyGrossCurrent;
-        base.put(currentYear, round2(m));
+        if (currentYear >= startYear) ws.yearlyExcl[currentYear - startYear] = round2(m);
 
         // 2) wstecz do startYear (odwijanie wzrostu)
         for (int y = currentYear - 1; y >= startYear; y--) {
             double g = macro.nominalWageGrowth(y); // growth y->y+1
             m = m / (1.0 + g);
-            base.put(y, round2(m));
+            ws.yearlyExcl[y - startYear] = round2(m);
         }
 
         // 3) w przód do retireYear (projekcja z bieżącej pensji)
@@ -252,182 +364,215 @@ public class CalculationFacadeV3 {
         for (int y = currentYear + 1; y <= retireYear; y++) {
             double g = macro.nominalWageGrowth(y - 1); // growth y-1->y
             m = m * (1.0 + g);
-            base.put(y, round2(m));
+            if (y >= startYear) ws.yearlyExcl[y - startYear] = round2(m);
         }
-        return base;
     }
 
-    // Parsuje listę changes z nową strukturą
-    private List<ChangeSpan> parseChanges(List<PensionCalculationRequestAdditionalSalaryChangesInnerDto> raw) {
-        List<ChangeSpan> out = new ArrayList<>();
-        if (raw == null) return out;
-
-        for (Object ch : raw) {
-            try {
-                Object ct = ch.getClass().getMethod("getChangeType").invoke(ch); // enum lub String
-                String typeStr = String.valueOf(ct);
-                ChangeType type = "BREAK".equalsIgnoreCase(typeStr) ? ChangeType.BREAK : ChangeType.WORK;
-
-                Object sd = ch.getClass().getMethod("getStartDate").invoke(ch);
-                Object ed = ch.getClass().getMethod("getEndDate").invoke(ch);
-                OffsetDateTime start = castToODT(sd);
-                OffsetDateTime end = castToODT(ed);
-                if (start == null || end == null) continue;
-
-                Double salary = null;
-                if (type == ChangeType.WORK) {
-                    Object sal = ch.getClass().getMethod("getSalary").invoke(ch);
-                    if (sal instanceof Number) salary = ((Number) sal).doubleValue();
-                }
-
-                out.add(new ChangeSpan(type, start.toLocalDate(), end.toLocalDate(), salary));
-            } catch (Throwable ignored) {
-                // pomijamy rekord jeśli forma DTO się różni
-            }
-        }
-        return out;
-    }
-
-    private OffsetDateTime castToODT(Object o) {
-        if (o == null) return null;
-        if (o instanceof OffsetDateTime odt) return odt;
-        if (o instanceof String s) {
-            try { return OffsetDateTime.parse(s); } catch (Exception ignored) { return null; }
-        }
-        return null;
-    }
-
-    private void applyChangesToMonthlyGrid(List<ChangeSpan> changes,
-                                           Map<YearMonth, Double> monthlyExcl,
-                                           Map<YearMonth, Double> monthlyIncl,
-                                           int startYear, int retireYear,
+    // Nakłada zmiany (BREAK/WORK) bezpośrednio na siatki miesięczne, przycięte do [startYear..retireYear]
+    private void applyChangesToMonthlyGrid(SalaryChangeSpans changes,
+                                           CalculationWorkspace ws,
                                            boolean sickEligible, double sickFactor) {
-        if (changes == null || changes.isEmpty()) return;
-
-        for (ChangeSpan c : changes) {
-            YearMonth from = YearMonth.from(c.start());
-            YearMonth to = YearMonth.from(c.end());
+        int months = ws.years() * 12;
+        int firstMonth = SalaryChangeSpans.epochMonth(ws.firstYear(), 1);
+        for (int c = 0; c < changes.size(); c++) {
+            boolean isBreak = changes.type(c) == SalaryChangeSpans.BREAK;
+            double salary = changes.salary(c);
+
+            int from = changes.startMonth(c) - firstMonth;
+            int to = changes.endMonth(c) - firstMonth;
             // znormalizuj zakres do [startYear..retireYear]
-            YearMonth min = YearMonth.of(startYear, 1);
-            YearMonth max = YearMonth.of(retireYear, 12);
-            if (to.isBefore(min) || from.isAfter(max)) continue;
-            if (from.isBefore(min)) from = min;
-            if (to.isAfter(max)) to = max;
-
-            YearMonth cursor = from;
-            while (!cursor.isAfter(to)) {
-                if (c.type() == ChangeType.BREAK) {
-                    monthlyExcl.put(cursor, 0.0);
-                    monthlyIncl.put(cursor, 0.0);
-                } else { // WORK
-                    if (c.salary() != null) {
-                        double s = round2(c.salary());
-                        monthlyExcl.put(cursor, s);
-                        monthlyIncl.put(cursor, sickEligible ? round2(s * sickFactor) : s);
-                    }
+            if (to < 0 || from >= months) continue;
+            from = Math.max(0, from);
+            to = Math.min(months - 1, to);
+
+            for (int i = from; i <= to; i++) {
+                if (isBreak) {
+                    ws.monthlyExcl[i] = 0.0;
+                    ws.monthlyIncl[i] = 0.0;
+                } else if (!Double.isNaN(salary)) { // WORK
+                    double s = round2(salary);
+                    ws.monthlyExcl[i] = s;
+                    ws.monthlyIncl[i] = sickEligible ? round2(s * sickFactor) : s;
                 }
-                cursor = cursor.plusMonths(1);
             }
         }
     }
 
-    private AccumResult accumulateFromMonthly(int fromYear,
-                                              int toYear,
-                                              double startingFunds,
-                                              Map<YearMonth, Double> monthly,
-                                              double pensionBaseFactor) {
-        List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> potTimeline = new ArrayList<>();
+    // Akumulacja puli rok po roku; oś czasu (opcjonalna) tylko dla scenariusza zwracanego w odpowiedzi
+    private double accumulateFromMonthly(MacroPaths macro,
+                                         CalculationWorkspace ws,
+                                         double[] monthly,
+                                         int fromYear,
+                                         int toYear,
+                                         double startingFunds,
+                                         double pensionBaseFactor,
+                                         List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> potTimeline) {
         double pot = startingFunds;
         for (int y = fromYear; y <= toYear; y++) {
-            double sumMonths = 0.0;
-            for (int m = 1; m <= 12; m++) {
-                sumMonths += monthly.getOrDefault(YearMonth.of(y, m), 0.0);
-            }
-            double annualBaseRaw = sumMonths * pensionBaseFactor;
-
-            // LIMIT 30-krotności prognozowanego przeciętnego wynagrodzenia miesięcznego
-            double annualBaseCapped = Math.min(annualBaseRaw, macro.annualContributionBaseCapPLN(y));
-
-            double annualContrib = annualBaseCapped * EFFECTIVE_PENSION_CONTRIB_RATE;
+            double annualContrib = annualContribution(macro, ws, monthly, y, pensionBaseFactor);
 
             double cap = macro.accountIndexationYoY(y); // łagodniejsza od pełnego nominalu
             pot = pot * (1.0 + cap) + annualContrib;
 
-            var row = new PensionCalculationResponseResultZusAccountFundsByYearInnerDto();
-            row.setYear(y);
-            row.setZusAccountFundsPLN((float) round2(pot));
-            potTimeline.add(row);
+            if (potTimeline != null) {
+                var row = new PensionCalculationResponseResultZusAccountFundsByYearInnerDto();
+                row.setYear(y);
+                row.setZusAccountFundsPLN((float) round2(pot));
+                potTimeline.add(row);
+            }
         }
-        return new AccumResult(pot, potTimeline);
+        return pot;
     }
 
-    // Odroczenie: rozszerzamy miesięczną siatkę na nowe lata wg wzrostu nominalnego
-    private double simulatePostponementMonthly(PensionCalculationRequestDto req,
-                                               int addYears,
-                                               Map<YearMonth, Double> monthlyChosen, // siatka „actual” (incl/excl)
-                                               int baseRetireYear,
-                                               double potAtBaseRetirement,
-                                               ContractParams contract) {
+    // Roczna składka emerytalna z siatki miesięcznej (po limicie 30-krotności)
+    private double annualContribution(MacroPaths macro,
+                                      CalculationWorkspace ws,
+                                      double[] monthly,
+                                      int year,
+                                      double pensionBaseFactor) {
+        double sumMonths = 0.0;
+        for (int m = 1; m <= 12; m++) {
+            sumMonths += ws.monthly(monthly, year, m);
+        }
+        return contributionFromAnnualBase(macro, year, sumMonths * pensionBaseFactor);
+    }
 
-        int currentYear = LocalDate.now().getYear();
-        int newRetireYear = baseRetireYear + addYears;
+    private double contributionFromAnnualBase(MacroPaths macro, int year, double annualBaseRaw) {
+        // LIMIT 30-krotności prognozowanego przeciętnego wynagrodzenia miesięcznego
+        double annualBaseCapped = Math.min(annualBaseRaw, macro.annualContributionBaseCapPLN(year));
+        return annualBaseCapped * EFFECTIVE_PENSION_CONTRIB_RATE;
+    }
 
-        // sklonuj wartości dla lat > baseRetireYear
-        Map<YearMonth, Double> extended = new LinkedHashMap<>(monthlyChosen);
-        for (int y = baseRetireYear + 1; y <= newRetireYear; y++) {
-            double growth = macro.nominalWageGrowth(y - 1);
-            for (int m = 1; m <= 12; m++) {
-                YearMonth prevYm = YearMonth.of(y - 1, m);
-                YearMonth ym = YearMonth.of(y, m);
-                double prev = extended.getOrDefault(prevYm, 0.0);
-                extended.put(ym, round2(prev * (1.0 + growth)));
-            }
+    // Tryb Monte Carlo: pasma P5/P50/P95 wokół ścieżki „actual” (te same składki, losowa makro od currentYear)
+    private MonteCarloResultDto simulateMonteCarlo(MacroPaths macro,
+                                                   CalculationWorkspace ws,
+                                                   MonteCarloSettingsDto settings,
+                                                   int fromYear,
+                                                   int toYear,
+                                                   int currentYear,
+                                                   double startingFunds,
+                                                   double[] monthlyChosen,
+                                                   double pensionBaseFactor,
+                                                   double payoutYears) {
+        int years = toYear - fromYear + 1;
+        double[] contributions = new double[years];
+        double[] cpi = new double[years];
+        double[] real = new double[years];
+        for (int y = fromYear; y <= toYear; y++) {
+            contributions[y - fromYear] = annualContribution(macro, ws, monthlyChosen, y, pensionBaseFactor);
+            cpi[y - fromYear] = macro.cpiYoY(y);
+            real[y - fromYear] = macro.realWageYoY(y);
         }
+        var input = new MonteCarloPensionSimulator.Input(fromYear, startingFunds, contributions,
+                cpi, real, currentYear - fromYear, payoutYears);
 
-        // policz dodatkowe lata
-        double pot = potAtBaseRetirement;
-        for (int y = baseRetireYear + 1; y <= newRetireYear; y++) {
-            double sumMonths = 0.0;
-            for (int m = 1; m <= 12; m++) {
-                sumMonths += extended.getOrDefault(YearMonth.of(y, m), 0.0);
-            }
-            double annualBaseRaw = sumMonths * contract.pensionBaseFactor;
-
-            // LIMIT 30-krotności prognozowanego przeciętnego wynagrodzenia miesięcznego
-            double annualBaseCapped = Math.min(annualBaseRaw, macro.annualContributionBaseCapPLN(y));
+        int paths = Optional.ofNullable(settings.getPaths()).orElse(MONTE_CARLO_DEFAULT_PATHS);
+        if (paths < 1 || paths > MONTE_CARLO_MAX_PATHS) {
+            throw new IllegalArgumentException("monteCarlo.paths must be in 1.." + MONTE_CARLO_MAX_PATHS);
+        }
+        long seed = settings.getSeed() != null ? settings.getSeed() : ThreadLocalRandom.current().nextLong();
+        var mc = monteCarlo.simulate(input, paths, seed);
+
+        MonteCarloResultDto dto = new MonteCarloResultDto();
+        dto.setPaths(mc.paths());
+        dto.setSeed(mc.seed());
+        dto.setMonthlyPensionPLN(toBandDto(mc.monthlyPension()));
+        List<MonteCarloResultZusAccountFundsByYearInnerDto> timeline = new ArrayList<>(years);
+        for (int i = 0; i < years; i++) {
+            var row = new MonteCarloResultZusAccountFundsByYearInnerDto();
+            row.setYear(mc.firstYear() + i);
+            row.setZusAccountFundsPLN(toBandDto(mc.potByYear()[i]));
+            timeline.add(row);
+        }
+        dto.setZusAccountFundsByYear(timeline);
+        return dto;
+    }
 
-            double annualContrib = annualBaseCapped * EFFECTIVE_PENSION_CONTRIB_RATE;
+    private static PercentileBandDto toBandDto(MonteCarloPensionSimulator.Band band) {
+        PercentileBandDto dto = new PercentileBandDto();
+        dto.setP5((float) round2(band.p5()));
+        dto.setP50((float) round2(band.p50()));
+        dto.setP95((float) round2(band.p95()));
+        return dto;
+    }
 
-            double cap = macro.accountIndexationYoY(y);
-            pot = pot * (1.0 + cap) + annualContrib;
+    // Odroczenie: przedłużamy siatkę „actual” na nowe lata wg wzrostu nominalnego
+    private double simulatePostponementMonthly(MacroPaths macro,
+                                               CalculationWorkspace ws,
+                                               double[] rolling,
+                                               PensionCalculationRequestDto req,
+                                               int currentYear,
+                                               int addYears,
+                                               double[] monthlyChosen, // siatka „actual” (incl/excl)
+                                               int baseRetireYear,
+                                               double potAtBaseRetirement,
+                                               ContractParams contract) {
+        startPostponement(ws, rolling, monthlyChosen, baseRetireYear);
+        double pot = potAtBaseRetirement;
+        for (int y = baseRetireYear + 1; y <= baseRetireYear + addYears; y++) {
+            pot = postponementYear(macro, rolling, y, pot, contract);
         }
-
-        int yearsToRetire = Math.max(0, newRetireYear - currentYear);
-        int ageAtRetire = req.getAge() + yearsToRetire;
-        double payoutYears = life.annuityDivisor(ageAtRetire, req.getSex());
-        return (pot / Math.max(1e-9, payoutYears)) / 12.0;
+        return monthlyPensionAt(req, currentYear, baseRetireYear + addYears, pot);
     }
 
-    private int estimateExtraYearsToMeetMonthly(PensionCalculationRequestDto req,
-                                                Map<YearMonth, Double> monthlyChosen, // incl lub excl
+    // Jeden przebieg rok po roku (zamiast liczenia od nowa dla każdego +N) – pierwszy horyzont spełniający oczekiwanie
+    private int estimateExtraYearsToMeetMonthly(MacroPaths macro,
+                                                CalculationWorkspace ws,
+                                                double[] rolling,
+                                                PensionCalculationRequestDto req,
+                                                int currentYear,
+                                                double[] monthlyChosen, // incl lub excl
                                                 int baseRetireYear,
                                                 double potAtBaseRetirement,
                                                 double expectedMonthly,
                                                 ContractParams contract) {
+        startPostponement(ws, rolling, monthlyChosen, baseRetireYear);
+        double pot = potAtBaseRetirement;
         for (int add = 1; add <= 15; add++) {
-            double p = simulatePostponementMonthly(req, add, monthlyChosen, baseRetireYear, potAtBaseRetirement, contract);
+            pot = postponementYear(macro, rolling, baseRetireYear + add, pot, contract);
+            double p = monthlyPensionAt(req, currentYear, baseRetireYear + add, pot);
             if (p + 1e-6 >= expectedMonthly) return add;
         }
         return 15;
     }
 
+    private static void startPostponement(CalculationWorkspace ws, double[] rolling, double[] monthlyChosen,
+                                          int baseRetireYear) {
+        for (int m = 1; m <= 12; m++) {
+            rolling[m - 1] = ws.monthly(monthlyChosen, baseRetireYear, m);
+        }
+    }
+
+    // Kolejny rok pracy po planowanym przejściu: płace rosną nominalnie, składka + indeksacja puli
+    private double postponementYear(MacroPaths macro, double[] rolling, int year, double pot,
+                                    ContractParams contract) {
+        double growth = macro.nominalWageGrowth(year - 1);
+        double sumMonths = 0.0;
+        for (int m = 0; m < 12; m++) {
+            rolling[m] = round2(rolling[m] * (1.0 + growth));
+            sumMonths += rolling[m];
+        }
+        double annualContrib = contributionFromAnnualBase(macro, year, sumMonths * contract.pensionBaseFactor);
+
+        double cap = macro.accountIndexationYoY(year);
+        return pot * (1.0 + cap) + annualContrib;
+    }
+
+    private double monthlyPensionAt(PensionCalculationRequestDto req, int currentYear, int retireYear, double pot) {
+        int yearsToRetire = Math.max(0, retireYear - currentYear);
+        int ageAtRetire = req.getAge() + yearsToRetire;
+        double payoutYears = life.annuityDivisor(ageAtRetire, req.getSex());
+        return (pot / Math.max(1e-9, payoutYears)) / 12.0;
+    }
+
     private List<PensionCalculationResponseResultSalaryProjectionInnerDto> buildSalaryByYearList(
-            Map<YearMonth, Double> monthlyChosen, int fromYear, int toYear) {
-        List<PensionCalculationResponseResultSalaryProjectionInnerDto> out = new ArrayList<>();
+            CalculationWorkspace ws, double[] monthlyChosen, int fromYear, int toYear) {
+        List<PensionCalculationResponseResultSalaryProjectionInnerDto> out =
+                new ArrayList<>(Math.max(0, toYear - fromYear + 1));
         for (int y = fromYear; y <= toYear; y++) {
             double sum = 0.0;
             for (int m = 1; m <= 12; m++) {
-                sum += monthlyChosen.getOrDefault(YearMonth.of(y, m), 0.0);
+                sum += ws.monthly(monthlyChosen, y, m);
             }
             PensionCalculationResponseResultSalaryProjectionInnerDto row =
                     new PensionCalculationResponseResultSalaryProjectionInnerDto();
@@ -438,13 +583,35 @@ public class CalculationFacadeV3 {
         return out;
     }
 
+    /**
+     * HALF_UP do 2 miejsc jak BigDecimal.valueOf(v).setScale(2, HALF_UP), ale bez alokacji:
+     * remis rozstrzygany porównaniem z najbliższym double do x.xx5.
+     */
     private static double round2(double v) {
-        return BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        if (Double.isNaN(v) || Double.isInfinite(v)) return v;
+        double a = Math.abs(v);
+        double scaled = a * 100.0;
+        double floor = Math.floor(scaled);
+        double frac = scaled - floor;
+        double r = floor;
+        if (frac > 0.5) {
+            r = floor + 1;
+        } else if (frac >= 0.5 - 1e-6) {
+            r = a >= (floor + 0.5) / 100.0 ? floor + 1 : floor;
+        }
+        return Math.copySign(r / 100.0, v);
     }
 
     // === Makro-ścieżki & tablice życia ===
 
+    /** Ścieżki makro na jednym, niezmiennym zestawie danych (CPI i realne płace z pliku macro-paths.csv). */
     public static class MacroPaths {
+        private final MacroDataSet data;
+
+        public MacroPaths(MacroDataSet data) {
+            this.data = data;
+        }
+
         /** Nominalny wzrost płac: CPI + real wage (additive aprox). */
         public double nominalWageGrowth(int year) {
             double cpi = cpiYoY(year);
@@ -453,31 +620,11 @@ public class CalculationFacadeV3 {
         }
 
         public double cpiYoY(int year) {
-            if (year <= 2023) return 0.098;
-            if (year == 2024) return 0.048;
-            if (year == 2025) return 0.031;
-            return 0.025; // 2026+
+            return data.cpiYoY(year);
         }
 
         public double realWageYoY(int year) {
-            if (year <= 2024) return (year == 2023) ? 0.003 : 0.034;
-            if (year <= 2027) return switch (year) {
-                case 2025 -> 0.037;
-                case 2026 -> 0.035;
-                case 2027 -> 0.030;
-                default -> 0.030;
-            };
-            if (year <= 2032) return 0.029;
-            if (year <= 2035) return 0.028;
-            if (year <= 2040) return 0.027;
-            if (year <= 2045) return 0.026;
-            if (year <= 2050) return 0.025;
-            if (year <= 2055) return 0.024;
-            if (year <= 2060) return 0.024;
-            if (year <= 2065) return 0.023;
-            if (year <= 2070) return 0.022;
-            if (year <= 2075) return 0.021;
-            return 0.020;
+            return data.realWageYoY(year);
         }
 
         /** Deflator po ścieżce NOMINALNEGO wzrostu wynagrodzeń (z roku retireYear do todayYear). */
@@ -538,10 +685,33 @@ public class CalculationFacadeV3 {
      * Podniesione wartości bazowe + łagodniejszy spadek na rok → niższa emerytura m/m.
      */
     public static class LifeTables {
+        // Wzór poniżej jest stały dla wieku < 50 (brak skrócenia) i > 80 (dolna granica 15 lat),
+        // więc tablica [płeć][wiek 50..80] z przycięciem wieku daje dokładnie te same wartości
+        private static final int MIN_AGE = 50;
+        private static final int MAX_AGE = 80;
+        private static final double[][] DIVISORS = new double[Sex.values().length][MAX_AGE - MIN_AGE + 1];
+
+        static {
+            for (Sex sex : Sex.values()) {
+                for (int age = MIN_AGE; age <= MAX_AGE; age++) {
+                    DIVISORS[sex.ordinal()][age - MIN_AGE] = formula(age, sex);
+                }
+            }
+        }
+
         public double annuityDivisor(int ageAtRetirement, PensionCalculationRequestDto.SexEnum sex) {
+            return annuityDivisor(ageAtRetirement, sex == PensionCalculationRequestDto.SexEnum.F ? Sex.F : Sex.M);
+        }
+
+        public double annuityDivisor(int ageAtRetirement, Sex sex) {
+            int age = Math.max(MIN_AGE, Math.min(MAX_AGE, ageAtRetirement));
+            return DIVISORS[sex.ordinal()][age - MIN_AGE];
+        }
+
+        private static double formula(int ageAtRetirement, Sex sex) {
             double baseYears;
             int baseAge;
-            if (sex == PensionCalculationRequestDto.SexEnum.F) {
+            if (sex == Sex.F) {
                 baseAge = 60;
                 baseYears = 26.0; // było 24.0
             } else {
@@ -568,25 +738,30 @@ public class CalculationFacadeV3 {
         }
     }
 
+    private static final ContractParams EMPLOYMENT = new ContractParams(1.0, true, 0.80);
+    // Upraszczająco: część zleceń ma pełne składki, część nie – bierzemy 0.80 i 0.80 chorobowe
+    private static final ContractParams MANDATE = new ContractParams(0.80, true, 0.80);
+    // Upraszczająco: składki od ~60% wynagrodzenia; brak chorobowego
+    private static final ContractParams B2B = new ContractParams(0.60, false, 0.00);
+    // Brak składek emerytalnych i chorobowego
+    private static final ContractParams SPECIFIC_WORK = new ContractParams(0.00, false, 0.00);
+
     private ContractParams resolveContractParams(PensionCalculationRequestDto.ContractTypeEnum ct) {
         if (ct == null) {
             // Domyślnie jak umowa o pracę
-            return new ContractParams(1.0, true, 0.80);
+            return EMPLOYMENT;
         }
         switch (ct) {
             case UMOWA_O_PRACE:
-                return new ContractParams(1.0, true, 0.80);
+                return EMPLOYMENT;
             case UMOWA_ZLECENIE:
-                // Upraszczająco: część zleceń ma pełne składki, część nie – bierzemy 0.80 i 0.80 chorobowe
-                return new ContractParams(0.80, true, 0.80);
+                return MANDATE;
             case B2_B:
-                // Upraszczająco: składki od ~60% wynagrodzenia; brak chorobowego
-                return new ContractParams(0.60, false, 0.00);
+                return B2B;
             case UMOWA_O_DZIELO:
-                // Brak składek emerytalnych i chorobowego
-                return new ContractParams(0.00, false, 0.00);
+                return SPECIFIC_WORK;
             default:
-                return new ContractParams(1.0, true, 0.80);
+                return EMPLOYMENT;
         }
     }
 
@@ -596,21 +771,45 @@ public class CalculationFacadeV3 {
         }
         var calc = pensionCalculationRepository.findById(UUID.fromString(calculationId))
                 .orElseThrow(() -> new RuntimeException("Calculation with id = %s not found".formatted(calculationId)));
-        calc.setPostalCode(body.getPostalCode());
+        postalCodeDirectory.applyTo(calc, postalCodeDirectory.encodeStrict(body.getPostalCode()));
         pensionCalculationRepository.saveAndFlush(calc);
     }
 
-    // === Typy pomocnicze do obsługi zmian ===
-
-    private enum ChangeType { BREAK, WORK }
-
-    private record ChangeSpan(ChangeType type, LocalDate start, LocalDate end, Double salary) { }
+    /** Zbiorcza wersja {@link #enterPostalCodeForCalculation} – jeden batch JDBC, wynik per pozycja. */
+    public PostalCodeBatchUpdateResultDto updatePostalCodes(PostalCodeBatchUpdateRequestDto body) {
+        if (body == null || body.getItems() == null) {
+            throw new IllegalArgumentException("items must be provided");
+        }
+        List<PostalCodeBatchUpdater.Item> items = new ArrayList<>(body.getItems().size());
+        for (PostalCodeBatchItemDto item : body.getItems()) {
+            items.add(new PostalCodeBatchUpdater.Item(item.getCalculationId(), item.getPostalCode(), item.getExpectedVersion()));
+        }
 
-    private static class AccumResult {
-        final double pot;
-        final List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> timeline;
-        AccumResult(double pot, List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> timeline) {
-            this.pot = pot; this.timeline = timeline;
+        int updated = 0;
+        int conflicts = 0;
+        List<PostalCodeBatchItemResultDto> results = new ArrayList<>(items.size());
+        for (PostalCodeBatchUpdater.ItemResult r : postalCodeBatchUpdater.update(items)) {
+            if (r.status() == PostalCodeBatchUpdater.Status.UPDATED) updated++;
+            if (r.status() == PostalCodeBatchUpdater.Status.CONFLICT) conflicts++;
+            PostalCodeBatchItemResultDto dto = new PostalCodeBatchItemResultDto();
+            dto.setCalculationId(r.calculationId());
+            dto.setStatus(PostalCodeBatchItemResultDto.StatusEnum.fromValue(r.status().name()));
+            dto.setPostalCode(r.postalCode());
+            dto.setVersion(r.version());
+            dto.setMessage(r.message());
+            results.add(dto);
         }
+
+        PostalCodeBatchUpdateResultDto dto = new PostalCodeBatchUpdateResultDto();
+        dto.setUpdated(updated);
+        dto.setConflicts(conflicts);
+        dto.setItems(results);
+        return dto;
     }
+
+    /** Wynik symulacji współdzielony przez scalone żądania (DTO nie jest później modyfikowane). */
+    private record CalculationOutcome(PensionCalculationResponseResultDto result,
+                                      double monthlyPensionNominalActual,
+                                      double monthlyPensionRealToday) { }
+
 }
@@ -0,0 +1,68 @@
+package com.promptoholics.anonymous.ApiBackend.application;
+
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataSet;
+
+import java.util.Arrays;
+
+/**
+ * Bufory robocze jednej kalkulacji V3 – prymitywne tablice zamiast map rok → płaca.
+ * Rozmiar pokrywa cały zakres danych makro (1960–2100), więc każda kariera się mieści;
+ * instancje są wielokrotnie używane przez {@link CalculationWorkspacePool}.
+ */
+final class CalculationWorkspace implements AutoCloseable {
+
+    static final int MAX_YEARS = MacroDataSet.LAST_YEAR - MacroDataSet.FIRST_YEAR + 1;
+
+    /** Miesięczna płaca bazowa wg roku (bez / z chorobowym), indeks = rok - firstYear. */
+    final double[] yearlyExcl = new double[MAX_YEARS];
+    final double[] yearlyIncl = new double[MAX_YEARS];
+    /** Siatki miesięczne, indeks = (rok - firstYear) * 12 + (miesiąc - 1). */
+    final double[] monthlyExcl = new double[MAX_YEARS * 12];
+    final double[] monthlyIncl = new double[MAX_YEARS * 12];
+    /** Płace miesięczne ostatniego przeliczonego roku – do przedłużania kariery (odroczenie / szacunek lat). */
+    final double[] rolling = new double[12];
+    final double[] rollingEstimate = new double[12];
+
+    private int firstYear;
+    private int years;
+
+    CalculationWorkspacePool owner;
+    boolean threadBound;
+    boolean inUse;
+
+    void reset(int firstYear, int lastYear) {
+        if (firstYear < MacroDataSet.FIRST_YEAR || lastYear > MacroDataSet.LAST_YEAR || lastYear < firstYear) {
+            throw new IllegalArgumentException("Career span " + firstYear + "-" + lastYear + " outside "
+                    + MacroDataSet.FIRST_YEAR + "-" + MacroDataSet.LAST_YEAR);
+        }
+        this.firstYear = firstYear;
+        this.years = lastYear - firstYear + 1;
+        Arrays.fill(yearlyExcl, 0, years, 0.0);
+        Arrays.fill(yearlyIncl, 0, years, 0.0);
+        Arrays.fill(monthlyExcl, 0, years * 12, 0.0);
+        Arrays.fill(monthlyIncl, 0, years * 12, 0.0);
+    }
+
+    int firstYear() {
+        return firstYear;
+    }
+
+    int lastYear() {
+        return firstYear + years - 1;
+    }
+
+    int years() {
+        return years;
+    }
+
+    /** Wartość z siatki miesięcznej; poza zakresem kariery – 0. */
+    double monthly(double[] grid, int year, int month) {
+        int idx = (year - firstYear) * 12 + month - 1;
+        return idx >= 0 && idx < years * 12 ? grid[idx] : 0.0;
+    }
+
+    @Override
+    public void close() {
+        if (owner != null) owner.release(this);
+    }
+}
@@ -0,0 +1,55 @@
+package com.promptoholics.anonymous.ApiBackend.application;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Źródło {@link CalculationWorkspace}:
+ * - wątki platformowe (pula Tomcata) – jeden workspace na wątek (ThreadLocal), bez synchronizacji,
+ * - wątki wirtualne – ograniczona pula współdzielona (ThreadLocal na milionach krótkich wątków
+ *   tylko by mnożył bufory); gdy pula pusta, powstaje workspace jednorazowy.
+ */
+@Component
+public class CalculationWorkspacePool {
+
+    private final ThreadLocal<CalculationWorkspace> perThread = ThreadLocal.withInitial(() -> {
+        CalculationWorkspace ws = new CalculationWorkspace();
+        ws.owner = this;
+        ws.threadBound = true;
+        return ws;
+    });
+    private final ArrayBlockingQueue<CalculationWorkspace> shared;
+
+    public CalculationWorkspacePool(@Value("${pension.v3.workspace-pool-size:64}") int sharedPoolSize) {
+        this.shared = new ArrayBlockingQueue<>(Math.max(1, sharedPoolSize));
+    }
+
+    CalculationWorkspace acquire(int firstYear, int lastYear) {
+        CalculationWorkspace ws;
+        if (!Thread.currentThread().isVirtual()) {
+            ws = perThread.get();
+            if (ws.inUse) ws = detached(); // zagnieżdżone wywołanie na tym samym wątku
+        } else {
+            ws = shared.poll();
+            if (ws == null) ws = detached();
+        }
+        ws.reset(firstYear, lastYear);
+        ws.inUse = true;
+        return ws;
+    }
+
+    void release(CalculationWorkspace ws) {
+        ws.inUse = false;
+        if (!ws.threadBound) {
+            shared.offer(ws); // pełna pula → workspace trafia do GC
+        }
+    }
+
+    private CalculationWorkspace detached() {
+        CalculationWorkspace ws = new CalculationWorkspace();
+        ws.owner = this;
+        return ws;
+    }
+}
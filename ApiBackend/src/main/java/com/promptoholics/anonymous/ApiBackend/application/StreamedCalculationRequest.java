@@ -0,0 +1,220 @@
+package com.promptoholics.anonymous.ApiBackend.application;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.SalaryChangeSpans;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestAdditionalSalaryChangesInnerDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Żądanie kalkulacji czytane z HTTP: additionalSalaryChanges trafia od razu do {@link SalaryChangeSpans}
+ * (parser strumieniowy), zamiast do listy DTO – przy historiach z setkami pozycji nie powstają obiekty
+ * pośrednie. Podstawiane za {@link PensionCalculationRequestDto} przez mixin w konfiguracji Jacksona.
+ */
+public class StreamedCalculationRequest extends PensionCalculationRequestDto {
+
+    private SalaryChangeSpans salaryChangeSpans;
+    private boolean materialized;
+
+    /** Nadpisuje setter DTO dla tej samej właściwości JSON (Jackson wybiera setter z podklasy). */
+    @JsonProperty("additionalSalaryChanges")
+    @JsonDeserialize(using = SpansDeserializer.class)
+    public void setSalaryChangeSpans(SalaryChangeSpans salaryChangeSpans) {
+        this.salaryChangeSpans = salaryChangeSpans;
+        this.materialized = false;
+    }
+
+    /**
+     * Lista DTO odtworzona z buforów – tylko tam, gdzie naprawdę potrzebna: facady V1/V2, serializacja
+     * migawki, equals. Ścieżka HTTP jej nie buduje: walidacja nie schodzi w pozycje
+     * ({@code CalculationRequestValidationConfig}), log pokazuje liczbę pozycji, a silnik V3 czyta bufory
+     * przez {@link #salaryChanges}. Budowana raz i zapisywana w polu DTO (widzą ją metody wygenerowane).
+     * Daty to pierwszy dzień miesiąca (UTC): silnik i tak liczy z dokładnością do miesiąca.
+     */
+    @Override
+    public List<PensionCalculationRequestAdditionalSalaryChangesInnerDto> getAdditionalSalaryChanges() {
+        if (salaryChangeSpans != null && !materialized) {
+            materialized = true;
+            super.setAdditionalSalaryChanges(toDtos(salaryChangeSpans));
+        }
+        return super.getAdditionalSalaryChanges();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        getAdditionalSalaryChanges();
+        if (o instanceof StreamedCalculationRequest other) other.getAdditionalSalaryChanges();
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        getAdditionalSalaryChanges();
+        return super.hashCode();
+    }
+
+    /** Bez budowania listy: pole DTO jest jeszcze puste, więc zamiast niego liczba pozycji z buforów. */
+    @Override
+    public String toString() {
+        if (salaryChangeSpans == null || materialized) return super.toString();
+        return super.toString().replaceFirst("additionalSalaryChanges: (\\[]|null)",
+                "additionalSalaryChanges: " + salaryChangeSpans.size() + " spans");
+    }
+
+    /** Czy lista DTO została już zbudowana z buforów (diagnostyka i testy). */
+    public boolean salaryChangeDtosBuilt() {
+        return materialized;
+    }
+
+    private static List<PensionCalculationRequestAdditionalSalaryChangesInnerDto> toDtos(SalaryChangeSpans spans) {
+        List<PensionCalculationRequestAdditionalSalaryChangesInnerDto> changes = new ArrayList<>(spans.size());
+        for (int i = 0; i < spans.size(); i++) {
+            var change = new PensionCalculationRequestAdditionalSalaryChangesInnerDto();
+            change.setChangeType(spans.type(i) == SalaryChangeSpans.BREAK
+                    ? PensionCalculationRequestAdditionalSalaryChangesInnerDto.ChangeTypeEnum.BREAK
+                    : PensionCalculationRequestAdditionalSalaryChangesInnerDto.ChangeTypeEnum.WORK);
+            change.setStartDate(monthStart(spans.startMonth(i)));
+            change.setEndDate(monthStart(spans.endMonth(i)));
+            double salary = spans.salary(i);
+            change.setSalary(Double.isNaN(salary) ? null : (float) salary);
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    /** Zmiany płacy żądania – z parsera strumieniowego albo (żądania budowane w kodzie) z listy DTO. */
+    static SalaryChangeSpans salaryChanges(PensionCalculationRequestDto req) {
+        if (req instanceof StreamedCalculationRequest streamed && streamed.salaryChangeSpans != null) {
+            return streamed.salaryChangeSpans;
+        }
+        return fromDtos(req.getAdditionalSalaryChanges());
+    }
+
+    static SalaryChangeSpans fromDtos(List<PensionCalculationRequestAdditionalSalaryChangesInnerDto> changes) {
+        if (changes == null || changes.isEmpty()) return SalaryChangeSpans.empty();
+        var spans = new SalaryChangeSpans.Builder(changes.size());
+        for (var c : changes) {
+            if (c == null || c.getStartDate() == null || c.getEndDate() == null) continue;
+            boolean isBreak = "BREAK".equalsIgnoreCase(String.valueOf(c.getChangeType()));
+            spans.add(isBreak ? SalaryChangeSpans.BREAK : SalaryChangeSpans.WORK,
+                    SalaryChangeSpans.epochMonth(c.getStartDate().getYear(), c.getStartDate().getMonthValue()),
+                    SalaryChangeSpans.epochMonth(c.getEndDate().getYear(), c.getEndDate().getMonthValue()),
+                    c.getSalary() != null ? c.getSalary().doubleValue() : Double.NaN);
+        }
+        return spans.build();
+    }
+
+    private static OffsetDateTime monthStart(int epochMonth) {
+        return OffsetDateTime.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Tablica zmian → {@link SalaryChangeSpans} token po tokenie. Semantyka jak przy wiązaniu DTO:
+     * daty ISO-8601 z offsetem (sprowadzane do strefy kontekstu Jacksona), pozycje bez dat pomijane,
+     * brak changeType = WORK, pensja jako float.
+     */
+    public static final class SpansDeserializer extends JsonDeserializer<SalaryChangeSpans> {
+
+        @Override
+        public SalaryChangeSpans deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                return (SalaryChangeSpans) ctxt.handleUnexpectedToken(SalaryChangeSpans.class, p);
+            }
+            ZoneId zone = ctxt.isEnabled(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
+                    ? ctxt.getTimeZone().toZoneId() : null;
+            var spans = new SalaryChangeSpans.Builder();
+            JsonToken t;
+            while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (t == JsonToken.VALUE_NULL) continue;
+                if (t != JsonToken.START_OBJECT) {
+                    ctxt.reportInputMismatch(this, "additionalSalaryChanges items must be objects");
+                }
+                byte type = SalaryChangeSpans.WORK;
+                int start = Integer.MIN_VALUE;
+                int end = Integer.MIN_VALUE;
+                double salary = Double.NaN;
+                String field;
+                while ((field = p.nextFieldName()) != null) {
+                    JsonToken value = p.nextToken();
+                    switch (field) {
+                        case "changeType" -> type = changeType(p, ctxt, value);
+                        case "startDate" -> start = epochMonth(p, ctxt, value, zone);
+                        case "endDate" -> end = epochMonth(p, ctxt, value, zone);
+                        case "salary" -> salary = salary(p, ctxt, value);
+                        default -> p.skipChildren();
+                    }
+                }
+                if (start != Integer.MIN_VALUE && end != Integer.MIN_VALUE) {
+                    spans.add(type, start, end, salary);
+                }
+            }
+            return spans.build();
+        }
+
+        @Override
+        public SalaryChangeSpans getNullValue(DeserializationContext ctxt) {
+            return SalaryChangeSpans.empty();
+        }
+
+        private byte changeType(JsonParser p, DeserializationContext ctxt, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NULL) return SalaryChangeSpans.WORK;
+            String text = p.getValueAsString();
+            if ("BREAK".equals(text)) return SalaryChangeSpans.BREAK;
+            if ("WORK".equals(text)) return SalaryChangeSpans.WORK;
+            return ctxt.reportInputMismatch(this, "changeType must be one of [BREAK, WORK], got: %s", text);
+        }
+
+        private int epochMonth(JsonParser p, DeserializationContext ctxt, JsonToken value, ZoneId zone) throws IOException {
+            if (value == JsonToken.VALUE_NULL) return Integer.MIN_VALUE;
+            if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+                // znacznik czasu w sekundach (domyślne READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                BigDecimal seconds = p.getDecimalValue();
+                Instant instant = Instant.ofEpochSecond(seconds.longValue(),
+                        seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+                ZonedDateTime at = instant.atZone(zone != null ? zone : ZoneId.of("UTC"));
+                return SalaryChangeSpans.epochMonth(at.getYear(), at.getMonthValue());
+            }
+            String text = p.getValueAsString();
+            if (text == null || text.isBlank()) return Integer.MIN_VALUE;
+            try {
+                OffsetDateTime date = OffsetDateTime.parse(text.trim());
+                if (zone != null) {
+                    ZonedDateTime at = date.atZoneSameInstant(zone);
+                    return SalaryChangeSpans.epochMonth(at.getYear(), at.getMonthValue());
+                }
+                return SalaryChangeSpans.epochMonth(date.getYear(), date.getMonthValue());
+            } catch (DateTimeParseException e) {
+                return ctxt.reportInputMismatch(this, "Invalid date-time '%s' in additionalSalaryChanges", text);
+            }
+        }
+
+        private double salary(JsonParser p, DeserializationContext ctxt, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NULL) return Double.NaN;
+            if (value.isNumeric()) return p.getFloatValue();
+            if (value == JsonToken.VALUE_STRING) {
+                try {
+                    return Float.parseFloat(p.getText().trim());
+                } catch (NumberFormatException e) {
+                    // jak przy wiązaniu do Float – błąd formatu zamiast cichego pominięcia
+                }
+            }
+            return ctxt.reportInputMismatch(this, "salary must be a number");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.promptoholics.anonymous.ApiBackend.domain.traffic.Bulkhead;
+import com.promptoholics.anonymous.ApiBackend.domain.traffic.ClientRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Grodzie ruchu: obliczenia (/pensions), raporty admina (/admin/reports), ciekawostki (/facts).
+ * Każda ma własny limit równoczesnych żądań (suma poniżej puli wątków serwera, więc duży eksport
+ * nie zagłodzi obliczeń) i limit częstości per klient. Parametry: traffic.&lt;gródź&gt;.max-concurrent,
+ * .rate-per-second, .burst (rate-per-second=0 wyłącza limit częstości). Klucze API z własnym limitem:
+ * traffic.api-keys (po przecinku); pozostali klienci rozliczani per IP.
+ *
+ * Metryki: traffic.bulkhead.in_flight / max_concurrent / saturation {bulkhead},
+ * traffic.bulkhead.rejected {bulkhead, reason=full|rate}, traffic.bulkhead.clients {bulkhead}
+ * (odrzucenia nowych klientów przy traffic.max-tracked-clients liczą się jako reason=rate).
+ */
+@Slf4j
+@Configuration
+public class BulkheadConfig {
+
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(Environment env, MeterRegistry meterRegistry) {
+        List<BulkheadFilter.Route> routes = List.of(
+                new BulkheadFilter.Route(List.of("/pensions"), bulkhead("calculation", 64, 10, 30, env, meterRegistry)),
+                new BulkheadFilter.Route(List.of("/admin/reports"), bulkhead("reports", 4, 1, 10, env, meterRegistry)),
+                new BulkheadFilter.Route(List.of("/facts"), bulkhead("facts", 32, 20, 40, env, meterRegistry)));
+
+        Set<String> apiKeys = new HashSet<>(List.of(env.getProperty("traffic.api-keys", String[].class, new String[0])));
+        apiKeys.removeIf(String::isBlank);
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(routes, apiKeys));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10); // po CORS – odrzucenia z nagłówkami CORS
+        return registration;
+    }
+
+    /** Usuwa limity częstości klientów bezczynnych (pełny kubełek) – mapa nie rośnie bez końca. */
+    @Scheduled(fixedDelayString = "${traffic.client-eviction-interval-ms:60000}")
+    public void evictIdleClients() {
+        for (Bulkhead bulkhead : bulkheads) {
+            if (bulkhead.rateLimiter() != null) bulkhead.rateLimiter().evictIdle();
+        }
+    }
+
+    private Bulkhead bulkhead(String name, int maxConcurrent, double ratePerSecond, int burst,
+                              Environment env, MeterRegistry meterRegistry) {
+        String prefix = "traffic." + name + ".";
+        int max = env.getProperty(prefix + "max-concurrent", Integer.class, maxConcurrent);
+        double rate = env.getProperty(prefix + "rate-per-second", Double.class, ratePerSecond);
+        int burstSize = env.getProperty(prefix + "burst", Integer.class, burst);
+        int maxClients = env.getProperty("traffic.max-tracked-clients", Integer.class, 100_000);
+
+        ClientRateLimiter limiter = rate > 0 ? new ClientRateLimiter(rate, burstSize, maxClients) : null;
+        Bulkhead bulkhead = new Bulkhead(name, max, limiter);
+        bulkheads.add(bulkhead);
+        log.info("Bulkhead {}: max {} concurrent, {} req/s per client (burst {})", name, max,
+                limiter != null ? rate : "unlimited", burstSize);
+
+        Gauge.builder("traffic.bulkhead.in_flight", bulkhead, Bulkhead::inFlight)
+                .description("Requests currently executing in the bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("traffic.bulkhead.max_concurrent", bulkhead, Bulkhead::maxConcurrent)
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("traffic.bulkhead.saturation", bulkhead, Bulkhead::saturation)
+                .description("in_flight / max_concurrent")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("traffic.bulkhead.rejected", bulkhead, Bulkhead::rejectedFull)
+                .description("Requests rejected with 503 because the bulkhead was full")
+                .tags("bulkhead", name, "reason", "full")
+                .register(meterRegistry);
+        FunctionCounter.builder("traffic.bulkhead.rejected", bulkhead, Bulkhead::rejectedRate)
+                .description("Requests rejected with 429 by the per-client rate limit")
+                .tags("bulkhead", name, "reason", "rate")
+                .register(meterRegistry);
+        if (limiter != null) {
+            Gauge.builder("traffic.bulkhead.clients", limiter, ClientRateLimiter::trackedClients)
+                    .description("Clients with a partially used rate limit")
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+        }
+        return bulkhead;
+    }
+}
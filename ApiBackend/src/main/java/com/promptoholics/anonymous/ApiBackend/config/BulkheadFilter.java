@@ -0,0 +1,128 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.promptoholics.anonymous.ApiBackend.domain.traffic.Bulkhead;
+import com.promptoholics.anonymous.ApiBackend.domain.traffic.ClientRateLimiter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Przydział żądania do grodzi (bulkhead) wg prefiksu ścieżki; poza nimi (actuator, konsola H2, ...) bez limitów.
+ * - najpierw limit częstości klienta → 429 + Retry-After; klient to adres IP, a klucz X-Api-Key tylko wtedy,
+ *   gdy jest na liście traffic.api-keys (niesprawdzony klucz zmieniany co żądanie dawałby co raz pełny kubełek),
+ * - potem limit równoczesnych żądań grodzi → 503 + Retry-After: 1.
+ * Miejsce w grodzi zwalniane po zakończeniu żądania (także asynchronicznego).
+ */
+@Slf4j
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    /** Gródź dla ścieżek zaczynających się od jednego z prefiksów. */
+    public record Route(List<String> pathPrefixes, Bulkhead bulkhead) {}
+
+    private final List<Route> routes;
+    private final Set<String> apiKeys;
+
+    /** @param apiKeys klucze API z własnym limitem częstości; pusty zbiór = limit zawsze per IP */
+    public BulkheadFilter(List<Route> routes, Set<String> apiKeys) {
+        this.routes = List.copyOf(routes);
+        this.apiKeys = Set.copyOf(apiKeys);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = route(request.getRequestURI().substring(request.getContextPath().length()));
+        if (bulkhead == null || "OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ClientRateLimiter.Decision decision = bulkhead.admit(clientKey(request));
+        if (!decision.allowed()) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, seconds, "Rate limit exceeded for " + bulkhead.name());
+            return;
+        }
+        if (!bulkhead.tryEnter()) {
+            log.debug("Bulkhead {} full ({} in flight)", bulkhead.name(), bulkhead.inFlight());
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many concurrent " + bulkhead.name() + " requests");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) bulkhead.exit();
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    Bulkhead route(String path) {
+        for (Route route : routes) {
+            for (String prefix : route.pathPrefixes()) {
+                if (path.startsWith(prefix)) return route.bulkhead();
+            }
+        }
+        return null;
+    }
+
+    /** Znany klucz API; inaczej adres klienta (za nginx – z X-Forwarded-For, server.forward-headers-strategy). */
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey.trim())) return "key:" + apiKey.trim();
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"code\":\"" + status.name() + "\",\"message\":\"" + message + "\"}");
+    }
+
+    private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.promptoholics.anonymous.ApiBackend.application.StreamedCalculationRequest;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CalculationRequestJacksonConfig {
+
+    @Bean
+    public Module calculationRequestModule() {
+        // Żądanie kalkulacji wiązane do podklasy DTO: additionalSalaryChanges czytane strumieniowo do
+        // tablic prymitywów (wygenerowanego DTO nie zmieniamy – stąd mixin)
+        return new SimpleModule("calculation-request")
+                .setMixInAnnotation(PensionCalculationRequestDto.class, StreamedRequestMixin.class);
+    }
+
+    @JsonDeserialize(as = StreamedCalculationRequest.class)
+    abstract static class StreamedRequestMixin {
+    }
+}
@@ -0,0 +1,52 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.promptoholics.anonymous.ApiBackend.application.StreamedCalculationRequest;
+import jakarta.validation.Path;
+import jakarta.validation.TraversableResolver;
+import org.springframework.boot.autoconfigure.validation.ValidationConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.annotation.ElementType;
+
+@Configuration
+public class CalculationRequestValidationConfig {
+
+    @Bean
+    public ValidationConfigurationCustomizer calculationRequestValidation() {
+        // @Valid na additionalSalaryChanges zbudowałby listę DTO z buforów tylko po to, by ją przejść –
+        // pozycje sprawdza już SpansDeserializer (typ zmiany, daty, pensja), więc kaskada jest pomijana
+        return configuration -> configuration.traversableResolver(
+                new SkipStreamedSalaryChanges(configuration.getDefaultTraversableResolver()));
+    }
+
+    /** Nie schodzi w additionalSalaryChanges żądania strumieniowego; resztę decyzji deleguje. */
+    static final class SkipStreamedSalaryChanges implements TraversableResolver {
+
+        private static final String PROPERTY = "additionalSalaryChanges";
+
+        private final TraversableResolver delegate;
+
+        SkipStreamedSalaryChanges(TraversableResolver delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isReachable(Object traversableObject, Path.Node traversableProperty, Class<?> rootBeanType,
+                                   Path pathToTraversableObject, ElementType elementType) {
+            return delegate.isReachable(traversableObject, traversableProperty, rootBeanType,
+                    pathToTraversableObject, elementType);
+        }
+
+        @Override
+        public boolean isCascadable(Object traversableObject, Path.Node traversableProperty, Class<?> rootBeanType,
+                                    Path pathToTraversableObject, ElementType elementType) {
+            if (traversableObject instanceof StreamedCalculationRequest
+                    && PROPERTY.equals(traversableProperty.getName())) {
+                return false;
+            }
+            return delegate.isCascadable(traversableObject, traversableProperty, rootBeanType,
+                    pathToTraversableObject, elementType);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultSalaryProjectionInnerDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultZusAccountFundsByYearInnerDto;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Zwarta postać wyniku kalkulacji (Accept: application/vnd.promptoholics.pension-compact+json).
+ * Serie roczne zamiast [{year, value}, ...] mają postać {"startYear": 2025, "values": [...]},
+ * reszta odpowiedzi bez zmian. Gdy lata nie są kolejne, dochodzi tablica "years".
+ */
+public class CompactPensionResponseConverter extends MappingJackson2HttpMessageConverter {
+
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType("application/vnd.promptoholics.pension-compact+json");
+
+    public CompactPensionResponseConverter(ObjectMapper objectMapper) {
+        super(objectMapper.copy().addMixIn(PensionCalculationResponseResultDto.class, CompactResultMixin.class));
+        setSupportedMediaTypes(List.of(COMPACT_JSON));
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return PensionCalculationResponseDto.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+    }
+
+    /** Podmienia serializację serii rocznych w wyniku (mixin – DTO są generowane). */
+    abstract static class CompactResultMixin {
+        @JsonSerialize(using = FundsSeriesSerializer.class)
+        abstract List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> getZusAccountFundsByYear();
+
+        @JsonSerialize(using = SalarySeriesSerializer.class)
+        abstract List<PensionCalculationResponseResultSalaryProjectionInnerDto> getSalaryProjection();
+    }
+
+    static final class FundsSeriesSerializer extends YearSeriesSerializer<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> {
+        FundsSeriesSerializer() {
+            super(PensionCalculationResponseResultZusAccountFundsByYearInnerDto::getYear,
+                    PensionCalculationResponseResultZusAccountFundsByYearInnerDto::getZusAccountFundsPLN);
+        }
+    }
+
+    static final class SalarySeriesSerializer extends YearSeriesSerializer<PensionCalculationResponseResultSalaryProjectionInnerDto> {
+        SalarySeriesSerializer() {
+            super(PensionCalculationResponseResultSalaryProjectionInnerDto::getYear,
+                    PensionCalculationResponseResultSalaryProjectionInnerDto::getSalary);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    abstract static class YearSeriesSerializer<T> extends StdSerializer<List<T>> {
+        private final Function<T, Integer> year;
+        private final Function<T, Float> value;
+
+        YearSeriesSerializer(Function<T, Integer> year, Function<T, Float> value) {
+            super((Class<List<T>>) (Class) List.class);
+            this.year = year;
+            this.value = value;
+        }
+
+        @Override
+        public void serialize(List<T> rows, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            boolean consecutive = true;
+            for (int i = 1; i < rows.size() && consecutive; i++) {
+                consecutive = year.apply(rows.get(i)) != null && year.apply(rows.get(i - 1)) != null
+                        && year.apply(rows.get(i)) == year.apply(rows.get(i - 1)) + 1;
+            }
+            if (!rows.isEmpty()) gen.writeObjectField("startYear", year.apply(rows.get(0)));
+            if (!consecutive) {
+                gen.writeArrayFieldStart("years");
+                for (T row : rows) gen.writeObject(year.apply(row));
+                gen.writeEndArray();
+            }
+            gen.writeArrayFieldStart("values");
+            for (T row : rows) {
+                Float v = value.apply(row);
+                if (v == null) gen.writeNull(); else gen.writeNumber(v);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Dodatkowe kodowania odpowiedzi negocjowane przez Accept:
+ * - application/vnd.promptoholics.pension-compact+json – zwarte serie roczne,
+ * - application/cbor – binarny odpowiednik JSON (ta sama konfiguracja Jacksona, m.in. JsonNullable).
+ * Kompresja gzip – server.compression.* w application.properties.
+ */
+@Configuration
+public class HttpEncodingConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public HttpEncodingConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Konwerter zwartego JSON nie jest beanem: Boot wstawiłby go (podklasę konwertera Jacksona) przed zwykły JSON,
+     * a przy Accept z samym wieloznacznikiem (curl, klienci bez nagłówka) wygrywa pierwszy pasujący typ – dostawaliby postać zwartą.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        addAfterJson(converters, new CompactPensionResponseConverter(objectMapper));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    /** Wstawia konwerter zaraz za domyślnym konwerterem JSON (na koniec, gdy go brak). */
+    static void addAfterJson(List<HttpMessageConverter<?>> converters, HttpMessageConverter<?> converter) {
+        int json = -1;
+        for (int i = 0; i < converters.size() && json < 0; i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter
+                    && !(converters.get(i) instanceof CompactPensionResponseConverter)) {
+                json = i;
+            }
+        }
+        converters.add(json < 0 ? converters.size() : json + 1, converter);
+    }
+}
@@ -0,0 +1,26 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.promptoholics.anonymous.ApiBackend.domain.ids.IdGenerator;
+import com.promptoholics.anonymous.ApiBackend.domain.ids.UuidV7Generator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Generator kluczy dla nowych kalkulacji: v7 (uporządkowane w czasie, domyślnie) albo v4 (losowe).
+ */
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${pension.id.generator:v7}") String kind) {
+        log.info("Calculation ids: UUID {}", kind);
+        return switch (kind.trim().toLowerCase()) {
+            case "v7" -> new UuidV7Generator();
+            case "v4" -> IdGenerator.random();
+            default -> throw new IllegalStateException("pension.id.generator must be v7 or v4, got: " + kind);
+        };
+    }
+}
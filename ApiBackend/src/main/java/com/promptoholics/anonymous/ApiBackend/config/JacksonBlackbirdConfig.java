@@ -0,0 +1,17 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonBlackbirdConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        // Gettery/settery DTO wołane przez wygenerowane LambdaMetafactory zamiast refleksji
+        // (Spring Boot dołącza każdy bean Module do ObjectMappera – także dla CBOR i compact JSON)
+        return new BlackbirdModule();
+    }
+}
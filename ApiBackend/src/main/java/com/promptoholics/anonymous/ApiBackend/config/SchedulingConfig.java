@@ -0,0 +1,12 @@
+package com.promptoholics.anonymous.ApiBackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Włącza zadania cykliczne (m.in. przeładowanie plików danych bez restartu aplikacji).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -14,7 +14,8 @@ import java.util.UUID;
 @Table(
         name = "pension_calculation",
         indexes = {
-                @Index(name = "idx_pension_usage_date", columnList = "created_at")
+                @Index(name = "idx_pension_usage_date", columnList = "created_at"),
+                @Index(name = "idx_pension_region", columnList = "region_id")
         }
 )
 @EntityListeners(AuditingEntityListener.class)
@@ -58,6 +59,16 @@ public class PensionCalculationEntity {
     @Column(name = "postal_code")
     private String postalCode;
 
+    // Kod pocztowy jako liczba 0..99999 (słownik = sam kod) i region z indeksu PNA – do grupowania w raportach
+    @Column(name = "postal_code_num")
+    private Integer postalCodeNum;
+
+    @Column(name = "region_id")
+    private Short regionId;
+
+    @Column(name = "data_version", length = 32)
+    private String dataVersion;
+
     @Version
     @Column(name = "version")
     private Integer version;
@@ -0,0 +1,255 @@
+package com.promptoholics.anonymous.ApiBackend.domain.calc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Wczytuje wersjonowany zestaw danych makro z katalogu z plikami CSV:
+ * - manifest.properties      – wersja + parametry projekcji,
+ * - zus-account-index.csv    – waloryzacja konta (year,index_pct),
+ * - zus-subaccount-index.csv – waloryzacja subkonta (year,quarter,index_pct),
+ * - avg-wage.csv             – przeciętne wynagrodzenie (year,monthly_pln),
+ * - gus-life-months.csv      – dalsze trwanie życia (sex,year,months),
+ * - macro-paths.csv          – CPI i realny wzrost płac (year_from,year_to,cpi_yoy,real_wage_yoy).
+ *
+ * Zestaw dołączony do aplikacji leży w classpath:macro-data/bundled/.
+ */
+public final class MacroDataLoader {
+
+    public static final String MANIFEST = "manifest.properties";
+    private static final String BUNDLED_LOCATION = "macro-data/bundled/";
+
+    private static volatile MacroDataSet bundled;
+
+    private MacroDataLoader() { }
+
+    /** Zestaw dołączony do aplikacji (wczytywany raz). */
+    public static MacroDataSet bundled() {
+        MacroDataSet b = bundled;
+        if (b == null) {
+            synchronized (MacroDataLoader.class) {
+                b = bundled;
+                if (b == null) {
+                    b = read(name -> {
+                        InputStream in = MacroDataLoader.class.getClassLoader().getResourceAsStream(BUNDLED_LOCATION + name);
+                        if (in == null) throw new IllegalStateException("Missing bundled macro data file " + name);
+                        return in;
+                    });
+                    bundled = b;
+                }
+            }
+        }
+        return b;
+    }
+
+    /** Wczytuje zestaw z katalogu wersji (np. /data/macro/2026.01.15). */
+    public static MacroDataSet load(Path versionDir) {
+        return read(name -> {
+            try {
+                return Files.newInputStream(versionDir.resolve(name));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read macro data file " + versionDir.resolve(name), e);
+            }
+        });
+    }
+
+    /** Najnowszy katalog wersji (z manifestem) w katalogu głównym danych makro. */
+    public static Optional<Path> latestVersionDir(Path root) {
+        if (root == null || !Files.isDirectory(root)) return Optional.empty();
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs.filter(d -> Files.isRegularFile(d.resolve(MANIFEST)))
+                    .max(Comparator.comparing(d -> d.getFileName().toString(), MacroDataLoader::compareVersions));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list macro data directory " + root, e);
+        }
+    }
+
+    /** Porównuje wersje w formacie "2025.10.05" segment po segmencie (numerycznie, jeśli się da). */
+    public static int compareVersions(String a, String b) {
+        String[] pa = a.split("\\.");
+        String[] pb = b.split("\\.");
+        for (int i = 0; i < Math.max(pa.length, pb.length); i++) {
+            String sa = i < pa.length ? pa[i] : "0";
+            String sb = i < pb.length ? pb[i] : "0";
+            int c;
+            try {
+                c = Long.compare(Long.parseLong(sa), Long.parseLong(sb));
+            } catch (NumberFormatException e) {
+                c = sa.compareTo(sb);
+            }
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    /* === Parsowanie === */
+
+    @FunctionalInterface
+    private interface Source {
+        InputStream open(String name);
+    }
+
+    private static MacroDataSet read(Source source) {
+        Properties manifest = new Properties();
+        try (InputStream in = source.open(MANIFEST)) {
+            manifest.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read macro data manifest", e);
+        }
+        String version = required(manifest, "version");
+
+        // --- KONTO ---
+        BigDecimal[] account = new BigDecimal[MacroDataSet.YEARS];
+        for (String[] r : rows(source, "zus-account-index.csv", 2)) {
+            int year = yearIndex(r[0]);
+            account[year] = pctToFactor(r[1]);
+        }
+
+        // --- SUBKONTO ---
+        BigDecimal[] subQuarters = new BigDecimal[MacroDataSet.YEARS * 4];
+        for (String[] r : rows(source, "zus-subaccount-index.csv", 3)) {
+            int q = Integer.parseInt(r[1]);
+            if (q < 1 || q > 4) throw new IllegalArgumentException("Invalid quarter " + q + " in zus-subaccount-index.csv");
+            subQuarters[yearIndex(r[0]) * 4 + q - 1] = pctToFactor(r[2]);
+        }
+
+        // --- PRZECIĘTNE WYNAGRODZENIE (+ projekcja jak dotąd: krok po kroku, zaokrąglenie do grosza) ---
+        BigDecimal[] avgWage = new BigDecimal[MacroDataSet.YEARS];
+        int lastWageYear = -1;
+        for (String[] r : rows(source, "avg-wage.csv", 2)) {
+            int idx = yearIndex(r[0]);
+            avgWage[idx] = new BigDecimal(r[1]);
+            lastWageYear = Math.max(lastWageYear, idx + MacroDataSet.FIRST_YEAR);
+        }
+        if (lastWageYear < 0) throw new IllegalArgumentException("avg-wage.csv contains no data");
+        BigDecimal growth = BigDecimal.ONE.add(new BigDecimal(required(manifest, "avg-wage.projection.cpi")))
+                .multiply(BigDecimal.ONE.add(new BigDecimal(required(manifest, "avg-wage.projection.real"))));
+        int projectTo = Math.min(MacroDataSet.LAST_YEAR, Integer.parseInt(required(manifest, "avg-wage.projection.to-year")));
+        BigDecimal w = avgWage[lastWageYear - MacroDataSet.FIRST_YEAR];
+        for (int y = lastWageYear + 1; y <= projectTo; y++) {
+            w = w.multiply(growth).setScale(2, RoundingMode.HALF_UP);
+            avgWage[y - MacroDataSet.FIRST_YEAR] = w;
+        }
+        int fallbackYear = Integer.parseInt(required(manifest, "avg-wage.fallback-year"));
+        BigDecimal avgWageFallback = avgWage[yearIndex(String.valueOf(fallbackYear))];
+        if (avgWageFallback == null) {
+            throw new IllegalArgumentException("No average wage for fallback year " + fallbackYear);
+        }
+
+        // --- TABLICE GUS ---
+        List<int[]> male = new ArrayList<>();
+        List<int[]> female = new ArrayList<>();
+        for (String[] r : rows(source, "gus-life-months.csv", 3)) {
+            int[] point = {Integer.parseInt(r[1]), Integer.parseInt(r[2])};
+            if ("M".equalsIgnoreCase(r[0])) male.add(point);
+            else if ("F".equalsIgnoreCase(r[0])) female.add(point);
+            else throw new IllegalArgumentException("Invalid sex '" + r[0] + "' in gus-life-months.csv");
+        }
+        int[][] lifeYears = new int[2][];
+        int[][] lifeMonths = new int[2][];
+        splitSorted(male, lifeYears, lifeMonths, MacroDataSet.MALE);
+        splitSorted(female, lifeYears, lifeMonths, MacroDataSet.FEMALE);
+
+        // --- ŚCIEŻKI CPI / REALNE PŁACE ---
+        double[] cpi = MacroDataSet.emptyYearSeries();
+        double[] real = MacroDataSet.emptyYearSeries();
+        for (String[] r : rows(source, "macro-paths.csv", 4)) {
+            int from = MacroDataSet.clamp(Integer.parseInt(r[0]));
+            int to = MacroDataSet.clamp(Integer.parseInt(r[1]));
+            double c = Double.parseDouble(r[2]);
+            double rw = Double.parseDouble(r[3]);
+            for (int y = from; y <= to; y++) {
+                cpi[y - MacroDataSet.FIRST_YEAR] = c;
+                real[y - MacroDataSet.FIRST_YEAR] = rw;
+            }
+        }
+        fillGaps(cpi, "macro-paths.csv");
+        fillGaps(real, "macro-paths.csv");
+
+        return new MacroDataSet(version,
+                account, new BigDecimal(required(manifest, "account.projected-factor")),
+                subQuarters,
+                new BigDecimal(required(manifest, "subaccount.projected-factor")),
+                new BigDecimal(required(manifest, "subaccount.missing-quarter-factor")),
+                avgWage, avgWageFallback,
+                lifeYears, lifeMonths,
+                cpi, real);
+    }
+
+    /** Wiersze CSV bez nagłówka, komentarzy (#) i pustych linii. */
+    private static List<String[]> rows(Source source, String file, int columns) {
+        List<String[]> out = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(source.open(file), StandardCharsets.UTF_8))) {
+            boolean header = true;
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (header) { header = false; continue; }
+                String[] cols = line.split(",");
+                if (cols.length < columns) {
+                    throw new IllegalArgumentException("Expected " + columns + " columns in " + file + " line " + lineNo);
+                }
+                for (int i = 0; i < cols.length; i++) cols[i] = cols[i].trim();
+                out.add(cols);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read macro data file " + file, e);
+        }
+        return out;
+    }
+
+    private static int yearIndex(String year) {
+        int y = Integer.parseInt(year);
+        if (!MacroDataSet.inRange(y)) {
+            throw new IllegalArgumentException("Year " + y + " outside supported range "
+                    + MacroDataSet.FIRST_YEAR + "-" + MacroDataSet.LAST_YEAR);
+        }
+        return y - MacroDataSet.FIRST_YEAR;
+    }
+
+    private static BigDecimal pctToFactor(String pct) {
+        return new BigDecimal(pct).movePointLeft(2); // "114.41" -> 1.1441
+    }
+
+    private static void splitSorted(List<int[]> points, int[][] years, int[][] months, int sex) {
+        points.sort(Comparator.comparingInt(p -> p[0]));
+        years[sex] = points.stream().mapToInt(p -> p[0]).toArray();
+        months[sex] = points.stream().mapToInt(p -> p[1]).toArray();
+    }
+
+    /** Luki w ścieżce: wartość z poprzedniego roku, a na początku – z pierwszego roku z danymi. */
+    private static void fillGaps(double[] series, String file) {
+        int first = -1;
+        for (int i = 0; i < series.length; i++) {
+            if (!Double.isNaN(series[i])) { first = i; break; }
+        }
+        if (first < 0) throw new IllegalArgumentException(file + " contains no data");
+        for (int i = 0; i < first; i++) series[i] = series[first];
+        for (int i = first + 1; i < series.length; i++) {
+            if (Double.isNaN(series[i])) series[i] = series[i - 1];
+        }
+    }
+
+    private static String required(Properties p, String key) {
+        String v = p.getProperty(key);
+        if (v == null || v.isBlank()) throw new IllegalArgumentException("Missing '" + key + "' in " + MANIFEST);
+        return v.trim();
+    }
+}
@@ -0,0 +1,185 @@
+package com.promptoholics.anonymous.ApiBackend.domain.calc;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Niezmienny, wersjonowany zestaw danych makro (wczytany z plików przez {@link MacroDataLoader}).
+ *
+ * Wszystkie serie roczne są rozwinięte do gęstych tablic prymitywów indeksowanych rokiem
+ * w zakresie [{@link #FIRST_YEAR}, {@link #LAST_YEAR}] – odczyt to jedno odwołanie do tablicy.
+ * Brak danych w tablicy = NaN (wtedy obowiązuje projekcja/fallback z manifestu).
+ *
+ * Wskaźniki ZUS i przeciętne wynagrodzenie są też trzymane dokładnie (BigDecimal z tekstu plików) –
+ * kalkulatory V1/V2 liczą na BigDecimal i muszą dostawać te same wartości co przed wczytywaniem z plików.
+ */
+public final class MacroDataSet {
+
+    public static final int FIRST_YEAR = 1960;
+    public static final int LAST_YEAR = 2100;
+    static final int YEARS = LAST_YEAR - FIRST_YEAR + 1;
+
+    static final int MALE = 0;
+    static final int FEMALE = 1;
+
+    private final String version;
+
+    private final double[] accountFactor;          // [rok]
+    private final double accountProjectedFactor;
+
+    private final double[] subaccountQuarterFactor; // [rok * 4 + (q - 1)]
+    private final double[] subaccountYearFactor;    // [rok] – iloczyn Q1..Q4 lub projekcja
+    private final double[] subaccountQuarterResolved; // [rok * 4 + (q - 1)] – zawsze określony, iloczyn = roczny
+
+    private final double[] avgWageMonthly;          // [rok]
+    private final double avgWageFallback;
+
+    private final BigDecimal[] accountFactorExact;       // [rok], null = brak danych
+    private final BigDecimal accountProjectedFactorExact;
+    private final BigDecimal[] subaccountYearFactorExact; // [rok]
+    private final BigDecimal[] avgWageMonthlyExact;      // [rok], null = brak danych
+    private final BigDecimal avgWageFallbackExact;
+
+    private final int[][] lifeYears;                // [płeć][punkt kontrolny]
+    private final int[][] lifeMonths;
+
+    private final double[] cpiYoY;                  // [rok]
+    private final double[] realWageYoY;             // [rok]
+
+    MacroDataSet(String version,
+                 BigDecimal[] accountFactor, BigDecimal accountProjectedFactor,
+                 BigDecimal[] subaccountQuarterFactor, BigDecimal subaccountProjectedFactor, BigDecimal missingQuarterFactor,
+                 BigDecimal[] avgWageMonthly, BigDecimal avgWageFallback,
+                 int[][] lifeYears, int[][] lifeMonths,
+                 double[] cpiYoY, double[] realWageYoY) {
+        this.version = version;
+        this.accountFactorExact = accountFactor;
+        this.accountProjectedFactorExact = accountProjectedFactor;
+        this.avgWageMonthlyExact = avgWageMonthly;
+        this.avgWageFallbackExact = avgWageFallback;
+        this.accountFactor = toDoubles(accountFactor);
+        this.accountProjectedFactor = accountProjectedFactor.doubleValue();
+        this.subaccountQuarterFactor = toDoubles(subaccountQuarterFactor);
+        this.avgWageMonthly = toDoubles(avgWageMonthly);
+        this.avgWageFallback = avgWageFallback.doubleValue();
+        this.lifeYears = lifeYears;
+        this.lifeMonths = lifeMonths;
+        this.cpiYoY = cpiYoY;
+        this.realWageYoY = realWageYoY;
+
+        // Roczny mnożnik subkonta liczony raz: iloczyn kwartałów (brakujący kwartał = Q1 tego roku lub stała)
+        this.subaccountYearFactor = new double[YEARS];
+        this.subaccountYearFactorExact = new BigDecimal[YEARS];
+        this.subaccountQuarterResolved = new double[YEARS * 4];
+        double projectedQuarter = Math.pow(subaccountProjectedFactor.doubleValue(), 0.25);
+        for (int i = 0; i < YEARS; i++) {
+            BigDecimal q1 = subaccountQuarterFactor[i * 4];
+            boolean hasData = false;
+            double f = 1.0;
+            BigDecimal exact = BigDecimal.ONE;
+            for (int q = 0; q < 4; q++) {
+                BigDecimal v = subaccountQuarterFactor[i * 4 + q];
+                if (v != null) hasData = true;
+                BigDecimal resolved = v != null ? v : (q1 != null ? q1 : missingQuarterFactor);
+                subaccountQuarterResolved[i * 4 + q] = resolved.doubleValue();
+                f *= resolved.doubleValue();
+                exact = exact.multiply(resolved);
+            }
+            subaccountYearFactor[i] = hasData ? f : subaccountProjectedFactor.doubleValue();
+            subaccountYearFactorExact[i] = hasData ? exact : subaccountProjectedFactor;
+            if (!hasData) {
+                // rok bez publikacji – projekcja roczna rozłożona równo na kwartały
+                for (int q = 0; q < 4; q++) subaccountQuarterResolved[i * 4 + q] = projectedQuarter;
+            }
+        }
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /** Roczny wskaźnik waloryzacji konta (np. 1.1441); poza danymi – projekcja. */
+    public double accountIndexFactor(int year) {
+        double v = inRange(year) ? accountFactor[year - FIRST_YEAR] : Double.NaN;
+        return Double.isNaN(v) ? accountProjectedFactor : v;
+    }
+
+    /** Kwartalny wskaźnik subkonta lub NaN, gdy nieopublikowany. */
+    public double subaccountQuarterFactor(int year, int quarter) {
+        return inRange(year) ? subaccountQuarterFactor[(year - FIRST_YEAR) * 4 + quarter - 1] : Double.NaN;
+    }
+
+    /** Kwartalny mnożnik subkonta z uzupełnieniem braków – iloczyn Q1..Q4 = {@link #subaccountIndexFactorYear}. */
+    public double subaccountQuarterIndexFactor(int year, int quarter) {
+        return subaccountQuarterResolved[(clamp(year) - FIRST_YEAR) * 4 + quarter - 1];
+    }
+
+    /** Roczny mnożnik subkonta (iloczyn Q1..Q4); poza danymi – projekcja. */
+    public double subaccountIndexFactorYear(int year) {
+        return subaccountYearFactor[clamp(year) - FIRST_YEAR];
+    }
+
+    public double averageMonthlyWage(int year) {
+        double v = inRange(year) ? avgWageMonthly[year - FIRST_YEAR] : Double.NaN;
+        return Double.isNaN(v) ? avgWageFallback : v;
+    }
+
+    /** {@link #accountIndexFactor} bez przejścia przez double (np. dokładnie 1.1441). */
+    public BigDecimal accountIndexFactorExact(int year) {
+        BigDecimal v = inRange(year) ? accountFactorExact[year - FIRST_YEAR] : null;
+        return v == null ? accountProjectedFactorExact : v;
+    }
+
+    /** {@link #subaccountIndexFactorYear} jako dokładny iloczyn kwartałów. */
+    public BigDecimal subaccountIndexFactorYearExact(int year) {
+        return subaccountYearFactorExact[clamp(year) - FIRST_YEAR];
+    }
+
+    /** {@link #averageMonthlyWage} w groszach, tak jak w pliku / projekcji. */
+    public BigDecimal averageMonthlyWageExact(int year) {
+        BigDecimal v = inRange(year) ? avgWageMonthlyExact[year - FIRST_YEAR] : null;
+        return v == null ? avgWageFallbackExact : v;
+    }
+
+    /** Punkty kontrolne GUS (rok → miesiące dalszego trwania życia) dla płci. */
+    int[] lifeYears(boolean male) {
+        return lifeYears[male ? MALE : FEMALE];
+    }
+
+    int[] lifeMonths(boolean male) {
+        return lifeMonths[male ? MALE : FEMALE];
+    }
+
+    public double cpiYoY(int year) {
+        return cpiYoY[clamp(year) - FIRST_YEAR];
+    }
+
+    public double realWageYoY(int year) {
+        return realWageYoY[clamp(year) - FIRST_YEAR];
+    }
+
+    static boolean inRange(int year) {
+        return year >= FIRST_YEAR && year <= LAST_YEAR;
+    }
+
+    static int clamp(int year) {
+        return Math.max(FIRST_YEAR, Math.min(LAST_YEAR, year));
+    }
+
+    static double[] emptyYearSeries() {
+        double[] a = new double[YEARS];
+        Arrays.fill(a, Double.NaN);
+        return a;
+    }
+
+    private static double[] toDoubles(BigDecimal[] values) {
+        double[] a = new double[values.length];
+        for (int i = 0; i < values.length; i++) a[i] = values[i] == null ? Double.NaN : values[i].doubleValue();
+        return a;
+    }
+
+    @Override
+    public String toString() {
+        return "MacroDataSet[" + version + "]";
+    }
+}
@@ -0,0 +1,59 @@
+package com.promptoholics.anonymous.ApiBackend.domain.calc;
+
+import java.time.Instant;
+
+/**
+ * Niezmienna migawka danych makro + tablic GUS publikowana jako całość.
+ * Kalkulacja pobiera jedną migawkę na start i liczy na niej do końca – podmiana wersji
+ * w trakcie nie miesza wskaźników z dwóch różnych zestawów.
+ */
+public final class MacroSnapshot {
+
+    private final MacroDataSet data;
+    private final ZUSMacroSeries series;
+    private final LifeTablesGUS lifeTables;
+    private final String source;
+    private final Instant activatedAt;
+
+    private MacroSnapshot(MacroDataSet data, String source, Instant activatedAt) {
+        this.data = data;
+        this.series = new ZUSMacroSeries(data);
+        this.lifeTables = new LifeTablesGUS(data);
+        this.source = source;
+        this.activatedAt = activatedAt;
+    }
+
+    /** Migawka zestawu; source = katalog wersji lub "bundled". */
+    public static MacroSnapshot of(MacroDataSet data, String source) {
+        return new MacroSnapshot(data, source, Instant.now());
+    }
+
+    public MacroDataSet data() {
+        return data;
+    }
+
+    public ZUSMacroSeries series() {
+        return series;
+    }
+
+    public LifeTablesGUS lifeTables() {
+        return lifeTables;
+    }
+
+    public String version() {
+        return data.version();
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public Instant activatedAt() {
+        return activatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "MacroSnapshot[" + data.version() + " from " + source + "]";
+    }
+}
@@ -0,0 +1,183 @@
+package com.promptoholics.anonymous.ApiBackend.domain.calc;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Projekcja Monte Carlo kapitału emerytalnego (tryb stochastyczny kalkulatora V3).
+ *
+ * Każda ścieżka losuje skorelowane odchylenia CPI i realnego wzrostu płac od ścieżki bazowej
+ * (AR(1) + korelacja przez Cholesky'ego); indeksacja konta = CPI + realny wzrost (min. 0 – ZUS
+ * nie waloryzuje „na minus”), a składki skalują się z losowym wzrostem płac nominalnych
+ * względem ścieżki bazowej (limit 30-krotności rośnie razem z płacami, więc proporcja się zachowuje).
+ *
+ * Wydajność: ścieżki dzielone na paczki liczone równolegle (ForkJoin common pool), każda paczka
+ * ma własny strumień {@link SplittableRandom} wydzielony deterministycznie z ziarna – ten sam seed
+ * daje ten sam wynik niezależnie od liczby rdzeni. Symulacja idzie rok po roku: trzymany jest tylko
+ * stan każdej ścieżki i wycinek jednego roku do percentyli (O(paths) pamięci, nie years × paths);
+ * pasmo roku y liczy się równolegle z krokiem roku y+1.
+ */
+public class MonteCarloPensionSimulator {
+
+    /** Ścieżek na paczkę – wystarczająco dużo, by koszt zadania FJ był pomijalny. */
+    static final int CHUNK = 256;
+
+    private static final double[] QUANTILES = {0.05, 0.50, 0.95};
+
+    /**
+     * Założenia zmienności (roczne odchylenia standardowe odchyleń od ścieżki bazowej).
+     * correlation – korelacja szoków CPI i płac realnych, persistence – współczynnik AR(1).
+     */
+    public record Assumptions(double cpiSigma, double realWageSigma, double correlation, double persistence) {
+        public static final Assumptions DEFAULT = new Assumptions(0.012, 0.015, -0.30, 0.60);
+    }
+
+    /**
+     * Ścieżka deterministyczna, wokół której losujemy (indeks 0 = firstYear).
+     *
+     * @param contribution roczna składka (już po limicie 30-krotności) na ścieżce bazowej
+     * @param cpi          bazowe CPI r/r
+     * @param realWage     bazowy realny wzrost płac r/r
+     * @param stochasticFromIndex pierwszy rok (indeks) z losową makro – lata wcześniejsze są historią
+     * @param payoutYears  dzielnik (lata wypłaty) dla emerytury miesięcznej
+     */
+    public record Input(int firstYear,
+                        double startingPot,
+                        double[] contribution,
+                        double[] cpi,
+                        double[] realWage,
+                        int stochasticFromIndex,
+                        double payoutYears) {
+        public int years() {
+            return contribution.length;
+        }
+    }
+
+    public record Band(double p5, double p50, double p95) { }
+
+    public record Result(int paths, long seed, Band monthlyPension, int firstYear, Band[] potByYear) { }
+
+    private final Assumptions assumptions;
+
+    public MonteCarloPensionSimulator() {
+        this(Assumptions.DEFAULT);
+    }
+
+    public MonteCarloPensionSimulator(Assumptions assumptions) {
+        this.assumptions = assumptions;
+    }
+
+    public Result simulate(Input in, int paths, long seed) {
+        if (paths <= 0) throw new IllegalArgumentException("paths must be > 0");
+        int years = in.years();
+        if (in.cpi().length != years || in.realWage().length != years) {
+            throw new IllegalArgumentException("cpi/realWage must cover the same years as contribution");
+        }
+
+        // stan ścieżek zamiast macierzy [rok][ścieżka]: pamięć O(paths) niezależnie od horyzontu
+        State state = new State(paths, in.startingPot());
+        double[] slice = state.pot.clone();
+
+        int chunks = (paths + CHUNK - 1) / CHUNK;
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int c = 0; c < chunks; c++) streams[c] = root.split();
+
+        Band[] potBands = new Band[years];
+        for (int y = 0; y < years; y++) {
+            final int year = y;
+            // zadanie o indeksie `chunks` liczy pasmo poprzedniego roku równolegle z krokiem bieżącego
+            IntStream.rangeClosed(0, chunks).parallel().forEach(c -> {
+                if (c == chunks) {
+                    if (year > 0) potBands[year - 1] = band(slice);
+                    return;
+                }
+                int from = c * CHUNK;
+                advanceChunk(in, year, streams[c], from, Math.min(paths, from + CHUNK), state);
+            });
+            System.arraycopy(state.pot, 0, slice, 0, paths);
+        }
+        Band last = band(slice);
+        if (years > 0) potBands[years - 1] = last;
+
+        // emerytura = kapitał końcowy / miesiące wypłaty – liniowa, więc percentyle skalują się wprost
+        double payoutMonths = Math.max(1e-9, in.payoutYears()) * 12.0;
+        Band pensionBand = new Band(last.p5() / payoutMonths, last.p50() / payoutMonths, last.p95() / payoutMonths);
+
+        return new Result(paths, seed, pensionBand, in.firstYear(), potBands);
+    }
+
+    /** Stan ścieżek między latami: kapitał, płaca względem bazowej i odchylenia AR(1). */
+    private static final class State {
+        final double[] pot;
+        final double[] wageRatio;
+        final double[] devCpi;
+        final double[] devReal;
+
+        State(int paths, double startingPot) {
+            pot = new double[paths];
+            wageRatio = new double[paths];
+            devCpi = new double[paths];
+            devReal = new double[paths];
+            Arrays.fill(pot, startingPot);
+            Arrays.fill(wageRatio, 1.0);
+        }
+    }
+
+    /** Jeden rok dla ścieżek [from, to) paczki; strumień paczki zużywany rok po roku, ścieżka po ścieżce. */
+    private void advanceChunk(Input in, int y, SplittableRandom rnd, int from, int to, State s) {
+        final double baseCpi = in.cpi()[y];
+        final double baseReal = in.realWage()[y];
+        final double contribution = in.contribution()[y];
+        final boolean stochastic = y >= in.stochasticFromIndex();
+
+        final double sc = assumptions.cpiSigma();
+        final double sr = assumptions.realWageSigma();
+        final double rho = assumptions.correlation();
+        final double rhoC = Math.sqrt(1.0 - rho * rho);
+        final double phi = assumptions.persistence();
+
+        for (int p = from; p < to; p++) {
+            double c = baseCpi;
+            double r = baseReal;
+            if (stochastic) {
+                double z1 = rnd.nextGaussian();
+                double z2 = rho * z1 + rhoC * rnd.nextGaussian();
+                double devCpi = phi * s.devCpi[p] + sc * z1;
+                double devReal = phi * s.devReal[p] + sr * z2;
+                s.devCpi[p] = devCpi;
+                s.devReal[p] = devReal;
+                c += devCpi;
+                r += devReal;
+            }
+            double indexation = Math.max(0.0, c + r);
+            double wageRatio = s.wageRatio[p];
+            s.pot[p] = s.pot[p] * (1.0 + indexation) + contribution * wageRatio;
+            // płaca w roku y+1 rośnie o wzrost nominalny z roku y (jak w ścieżce bazowej V3)
+            if (stochastic) {
+                s.wageRatio[p] = wageRatio * (1.0 + c + r) / (1.0 + baseCpi + baseReal);
+            }
+        }
+    }
+
+    /** Percentyle P5/P50/P95 wycinka roku – wycinek zostaje posortowany w miejscu. */
+    private static Band band(double[] values) {
+        Arrays.sort(values);
+        int n = values.length;
+        return new Band(quantile(values, 0, n, QUANTILES[0]),
+                quantile(values, 0, n, QUANTILES[1]),
+                quantile(values, 0, n, QUANTILES[2]));
+    }
+
+    /** Kwantyl z interpolacją liniową po posortowanym fragmencie. */
+    static double quantile(double[] sorted, int from, int to, double q) {
+        int n = to - from;
+        if (n == 1) return sorted[from];
+        double pos = q * (n - 1);
+        int lo = (int) Math.floor(pos);
+        int hi = Math.min(n - 1, lo + 1);
+        double frac = pos - lo;
+        return sorted[from + lo] + (sorted[from + hi] - sorted[from + lo]) * frac;
+    }
+}
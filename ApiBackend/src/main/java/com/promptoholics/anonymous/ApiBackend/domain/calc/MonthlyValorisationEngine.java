@@ -0,0 +1,84 @@
+package com.promptoholics.anonymous.ApiBackend.domain.calc;
+
+/**
+ * Akumulacja kapitału (konto + subkonto) z dokładnością do miesiąca.
+ *
+ * - Składka trafia na konto w miesiącu, za który jest należna (koniec miesiąca), a nie 1 stycznia.
+ * - Konto: roczny wskaźnik waloryzacji; stan z początku roku dostaje pełny wskaźnik,
+ *   składka z miesiąca m – jego część za pozostałe (12 - m)/12 roku.
+ * - Subkonto: wskaźniki kwartalne stosowane na granicy kwartału; składka z k-tego miesiąca
+ *   kwartału dostaje część (3 - k)/3 wskaźnika danego kwartału.
+ *
+ * Całość na tablicach prymitywów – jeden przebieg, bez BigDecimal i bez map.
+ */
+public final class MonthlyValorisationEngine {
+
+    private MonthlyValorisationEngine() { }
+
+    /**
+     * @param account      stan konta na koniec endYear
+     * @param subaccount   stan subkonta na koniec endYear
+     * @param totalByYear  konto + subkonto na koniec każdego roku (indeks 0 = startYear)
+     */
+    public record Result(double account, double subaccount, double[] totalByYear) { }
+
+    /**
+     * @param monthlyBase podstawa wymiaru składek miesiąc po miesiącu, indeks = (rok - startYear) * 12 + (miesiąc - 1)
+     */
+    public static Result accumulate(MacroDataSet data,
+                                    int startYear,
+                                    int endYear,
+                                    double initialAccount,
+                                    double initialSubaccount,
+                                    double[] monthlyBase,
+                                    double rateAccount,
+                                    double rateSubaccount) {
+        int years = Math.max(0, endYear - startYear + 1);
+        if (monthlyBase.length < years * 12) {
+            throw new IllegalArgumentException("monthlyBase must cover " + years * 12 + " months");
+        }
+        double account = initialAccount;
+        double subaccount = initialSubaccount;
+        double[] totalByYear = new double[years];
+
+        for (int i = 0; i < years; i++) {
+            int year = startYear + i;
+            int m0 = i * 12;
+
+            // --- KONTO: a^((12 - m)/12) liczone od grudnia wstecz, bez Math.pow w pętli ---
+            double a = data.accountIndexFactor(year);
+            double aMonth = Math.pow(a, 1.0 / 12.0);
+            double accrued = 0.0;
+            double weight = 1.0;
+            for (int m = 11; m >= 0; m--) {
+                accrued += monthlyBase[m0 + m] * weight;
+                weight *= aMonth;
+            }
+            account = account * a + accrued * rateAccount;
+
+            // --- SUBKONTO: waloryzacja na koniec każdego kwartału ---
+            for (int q = 0; q < 4; q++) {
+                double f = data.subaccountQuarterIndexFactor(year, q + 1);
+                double fMonth = Math.cbrt(f);
+                int qm = m0 + q * 3;
+                double quarterContrib = monthlyBase[qm] * fMonth * fMonth
+                        + monthlyBase[qm + 1] * fMonth
+                        + monthlyBase[qm + 2];
+                subaccount = subaccount * f + quarterContrib * rateSubaccount;
+            }
+
+            totalByYear[i] = account + subaccount;
+        }
+        return new Result(account, subaccount, totalByYear);
+    }
+
+    /** Roczne podstawy (indeks 0 = startYear) rozłożone równo na miesiące. */
+    public static double[] spreadAnnual(double[] annualBase) {
+        double[] monthly = new double[annualBase.length * 12];
+        for (int i = 0; i < annualBase.length; i++) {
+            double perMonth = annualBase[i] / 12.0;
+            for (int m = 0; m < 12; m++) monthly[i * 12 + m] = perMonth;
+        }
+        return monthly;
+    }
+}
@@ -37,8 +37,20 @@ public class PensionCalculatorService {
     private static final BigDecimal TWELVE = new BigDecimal("12");
     private static final BigDecimal HUNDRED = new BigDecimal("100");
 
-    private final ZUSMacroSeries macro = new ZUSMacroSeries();
-    private final LifeTablesGUS life = new LifeTablesGUS();
+    private final ZUSMacroSeries macro;
+    private final LifeTablesGUS life;
+
+    /** Silnik na danych dołączonych do aplikacji. */
+    public PensionCalculatorService() {
+        this.macro = new ZUSMacroSeries();
+        this.life = new LifeTablesGUS();
+    }
+
+    /** Silnik przypięty do jednej migawki danych – tworzony per kalkulacja (tani: tylko referencje). */
+    public PensionCalculatorService(MacroSnapshot snapshot) {
+        this.macro = snapshot.series();
+        this.life = snapshot.lifeTables();
+    }
 
     /* ======================== WE / WY ======================== */
 
@@ -110,7 +122,7 @@ public class PensionCalculatorService {
         Accum acc = accumulateSplit(nvl(in.zusAccount()), nvl(in.zusSubaccount()), baseIncl, contributionRate);
 
         // 5) Annuitetyzacja w retYear → MIESIĘCZNIE
-        int months = life.months(in.sex(), in.retYear());
+        int months = life.months(Sex.of(in.sex()), in.retYear());
         BigDecimal capital = acc.account.add(acc.subaccount);
         BigDecimal monthlyPension = capital
                 .divide(new BigDecimal(months), 10, RoundingMode.HALF_UP);
@@ -228,7 +240,7 @@ public class PensionCalculatorService {
         Map<Integer, BigDecimal> base = annualBaseWithLimit(wage, sick);
         base = applyWorkBreaks(base, in.workBreaks()); // Apply work breaks for postponed scenarios too
         Accum acc = accumulateSplit(nvl(in.zusAccount()), nvl(in.zusSubaccount()), base, contributionRate);
-        int months = life.months(in.sex(), newYear);
+        int months = life.months(Sex.of(in.sex()), newYear);
         BigDecimal capital = acc.account.add(acc.subaccount);
         return capital.divide(new BigDecimal(months), 10, RoundingMode.HALF_UP);
     }
@@ -11,7 +11,7 @@ import java.util.*;
  * Kluczowe założenia:
  * - System kapitałowy (konto + subkonto)
  * - Składki: 19.52% (konto 15.0% + subkonto 4.52%)
- * - Waloryzacja: konto roczna, subkonto kwartalna
+ * - Waloryzacja: konto roczna, subkonto kwartalna (składki wpływają co miesiąc)
  * - Annuitetyzacja: kapitał / oczekiwana długość życia
  * - B2B: minimalna składka dobrowolna z podstawy 4500 PLN (minimalna krajowa)
  */
@@ -32,8 +32,43 @@ public class PensionCalculatorV2 {
     private static final int BASE_YEAR = 2025;
     private static final BigDecimal CPI_ANNUAL = new BigDecimal("0.025"); // 2.5% inflacji
 
-    private final ZUSMacroSeries macro = new ZUSMacroSeries();
-    private final LifeTablesGUS life = new LifeTablesGUS();
+    /** Domyślne horyzonty odroczenia emerytury (lata). */
+    public static final int[] DEFAULT_POSTPONEMENT_HORIZONS = {1, 2, 5};
+
+    private final MacroDataSet data;
+    private final ZUSMacroSeries macro;
+    private final LifeTablesGUS life;
+    private final int[] postponementHorizons;
+
+    /** Silnik na danych dołączonych do aplikacji. */
+    public PensionCalculatorV2() {
+        this.data = MacroDataLoader.bundled();
+        this.macro = new ZUSMacroSeries(data);
+        this.life = new LifeTablesGUS(data);
+        this.postponementHorizons = DEFAULT_POSTPONEMENT_HORIZONS;
+    }
+
+    /** Silnik przypięty do jednej migawki danych – tworzony per kalkulacja (tani: tylko referencje). */
+    public PensionCalculatorV2(MacroSnapshot snapshot) {
+        this(snapshot, DEFAULT_POSTPONEMENT_HORIZONS);
+    }
+
+    /** Jak wyżej, z własnym zestawem horyzontów odroczenia (dodatnie, bez powtórzeń po normalizacji). */
+    public PensionCalculatorV2(MacroSnapshot snapshot, int[] postponementHorizons) {
+        this.data = snapshot.data();
+        this.macro = snapshot.series();
+        this.life = snapshot.lifeTables();
+        this.postponementHorizons = normalizeHorizons(postponementHorizons);
+    }
+
+    private static int[] normalizeHorizons(int[] horizons) {
+        if (horizons == null) return DEFAULT_POSTPONEMENT_HORIZONS;
+        int[] sorted = Arrays.stream(horizons).distinct().sorted().toArray();
+        if (sorted.length > 0 && sorted[0] <= 0) {
+            throw new IllegalArgumentException("Postponement horizons must be positive: " + Arrays.toString(horizons));
+        }
+        return sorted;
+    }
 
     public record Input(
         BigDecimal expectedPensionMonthly,
@@ -104,7 +139,7 @@ public class PensionCalculatorV2 {
         );
 
         // 6. Annuitetyzacja - oblicz miesięczną emeryturę
-        int lifeExpectancyMonths = life.months(input.sex, input.plannedEndYear);
+        int lifeExpectancyMonths = life.months(Sex.of(input.sex), input.plannedEndYear);
         BigDecimal totalCapital = capital.account.add(capital.subaccount);
         BigDecimal monthlyPension = totalCapital.divide(
             new BigDecimal(lifeExpectancyMonths),
@@ -132,17 +167,14 @@ public class PensionCalculatorV2 {
             .divide(avgPension, 6, RoundingMode.HALF_UP)
             .multiply(new BigDecimal("100"));
 
-        // 11. Emerytury odroczone (+1, +2, +5 lat)
-        Map<Integer, BigDecimal> postponed = new LinkedHashMap<>();
-        for (int years : new int[]{1, 2, 5}) {
-            postponed.put(years, calculatePostponed(
-                input,
-                capital,
-                wagesByYear,
-                sickReduction,
-                years
-            ));
-        }
+        // 11. Emerytury odroczone (domyślnie +1, +2, +5 lat) – jeden przebieg do najdalszego horyzontu
+        Map<Integer, BigDecimal> postponed = calculatePostponed(
+            input,
+            capital,
+            wagesByYear,
+            sickReduction,
+            postponementHorizons
+        );
 
         // 12. Konto ZUS po latach (dla wykresu)
         Map<Integer, BigDecimal> accountByYear = capital.accountByYear;
@@ -286,52 +318,58 @@ public class PensionCalculatorV2 {
             rateSubaccount = CONTRIBUTION_TO_SUBACCOUNT;
         }
 
-        List<Integer> years = new ArrayList<>(bases.keySet());
-        Collections.sort(years);
-
-        for (int year : years) {
-            BigDecimal base = bases.get(year);
-
-            // Dodaj składki
-            account = account.add(base.multiply(rateAccount));
-            subaccount = subaccount.add(base.multiply(rateSubaccount));
-
-            // Waloryzacja
-            account = account.multiply(macro.accountIndexFactor(year));
-            subaccount = subaccount.multiply(macro.subaccountIndexFactorYear(year));
+        // Składki miesiąc po miesiącu, konto – waloryzacja roczna, subkonto – kwartalna (MonthlyValorisationEngine)
+        double[] annualBases = new double[Math.max(0, endYear - startYear + 1)];
+        for (int year = startYear; year <= endYear; year++) {
+            annualBases[year - startYear] = bases.getOrDefault(year, BigDecimal.ZERO).doubleValue();
+        }
+        MonthlyValorisationEngine.Result result = MonthlyValorisationEngine.accumulate(
+            data,
+            startYear,
+            endYear,
+            account.doubleValue(),
+            subaccount.doubleValue(),
+            MonthlyValorisationEngine.spreadAnnual(annualBases),
+            rateAccount.doubleValue(),
+            rateSubaccount.doubleValue()
+        );
 
-            // Zapisz stan konta
-            accountByYear.put(year, account.add(subaccount));
+        // Zapisz stan konta
+        for (int i = 0; i < result.totalByYear().length; i++) {
+            accountByYear.put(startYear + i, BigDecimal.valueOf(result.totalByYear()[i]));
         }
 
-        return new CapitalAccumulation(account, subaccount, accountByYear);
+        return new CapitalAccumulation(
+            BigDecimal.valueOf(result.account()),
+            BigDecimal.valueOf(result.subaccount()),
+            accountByYear
+        );
     }
 
     /**
-     * Oblicz emeryturę odroczoną o X lat
+     * Emerytury odroczone dla wszystkich horyzontów w jednym przebiegu:
+     * ścieżka płac i kapitał są przedłużane raz – do największego horyzontu – a po drodze
+     * zapamiętujemy stan dla horyzontów pośrednich (koszt liniowy w max horyzoncie).
      */
-    private BigDecimal calculatePostponed(
+    private Map<Integer, BigDecimal> calculatePostponed(
         Input input,
         CapitalAccumulation baseCapital,
         Map<Integer, BigDecimal> wages,
         BigDecimal sickReduction,
-        int additionalYears
+        int[] horizons
     ) {
-        int newRetirementYear = input.plannedEndYear + additionalYears;
+        Map<Integer, BigDecimal> postponed = new LinkedHashMap<>();
+        if (horizons.length == 0) return postponed;
+        int maxYears = horizons[horizons.length - 1];
 
-        // Rozbuduj ścieżkę wynagrodzeń
-        Map<Integer, BigDecimal> extendedWages = new HashMap<>(wages);
-        for (int year = input.plannedEndYear + 1; year <= newRetirementYear; year++) {
-            BigDecimal prevWage = extendedWages.get(year - 1);
+        // Rozbuduj ścieżkę wynagrodzeń i podstawy składek raz, do najdalszego horyzontu
+        double[] extraBases = new double[maxYears];
+        BigDecimal monthlyWage = wages.get(input.plannedEndYear);
+        for (int year = input.plannedEndYear + 1; year <= input.plannedEndYear + maxYears; year++) {
             BigDecimal growthFactor = macro.averageMonthlyWage(year)
                 .divide(macro.averageMonthlyWage(year - 1), 10, RoundingMode.HALF_UP);
-            extendedWages.put(year, prevWage.multiply(growthFactor));
-        }
+            monthlyWage = monthlyWage.multiply(growthFactor);
 
-        // Dodatkowe podstawy składek
-        Map<Integer, BigDecimal> additionalBases = new HashMap<>();
-        for (int year = input.plannedEndYear + 1; year <= newRetirementYear; year++) {
-            BigDecimal monthlyWage = extendedWages.get(year);
             BigDecimal annualBase = monthlyWage
                 .multiply(new BigDecimal("12"))
                 .multiply(BigDecimal.ONE.subtract(sickReduction));
@@ -345,27 +383,29 @@ public class PensionCalculatorV2 {
             }
 
             BigDecimal limit = macro.limit30k(year);
-            annualBase = annualBase.min(limit);
-            additionalBases.put(year, annualBase);
+            extraBases[year - input.plannedEndYear - 1] = annualBase.min(limit).doubleValue();
         }
 
-        // Akumuluj dodatkowy kapitał
-        BigDecimal account = baseCapital.account;
-        BigDecimal subaccount = baseCapital.subaccount;
-
-        for (int year = input.plannedEndYear + 1; year <= newRetirementYear; year++) {
-            BigDecimal base = additionalBases.get(year);
-            account = account.add(base.multiply(CONTRIBUTION_TO_ACCOUNT));
-            subaccount = subaccount.add(base.multiply(CONTRIBUTION_TO_SUBACCOUNT));
+        // Akumuluj dodatkowy kapitał (ten sam silnik miesięczny co lata bazowe); totalByYear = migawki roczne
+        MonthlyValorisationEngine.Result extended = MonthlyValorisationEngine.accumulate(
+            data,
+            input.plannedEndYear + 1,
+            input.plannedEndYear + maxYears,
+            baseCapital.account.doubleValue(),
+            baseCapital.subaccount.doubleValue(),
+            MonthlyValorisationEngine.spreadAnnual(extraBases),
+            CONTRIBUTION_TO_ACCOUNT.doubleValue(),
+            CONTRIBUTION_TO_SUBACCOUNT.doubleValue()
+        );
 
-            account = account.multiply(macro.accountIndexFactor(year));
-            subaccount = subaccount.multiply(macro.subaccountIndexFactorYear(year));
+        // Annuitetyzacja dla każdego horyzontu
+        Sex sex = Sex.of(input.sex);
+        for (int years : horizons) {
+            int lifeMonths = life.months(sex, input.plannedEndYear + years);
+            BigDecimal total = BigDecimal.valueOf(extended.totalByYear()[years - 1]);
+            postponed.put(years, total.divide(new BigDecimal(lifeMonths), 10, RoundingMode.HALF_UP));
         }
-
-        // Annuitetyzacja
-        int lifeMonths = life.months(input.sex, newRetirementYear);
-        BigDecimal total = account.add(subaccount);
-        return total.divide(new BigDecimal(lifeMonths), 10, RoundingMode.HALF_UP);
+        return postponed;
     }
 
     /**
@@ -0,0 +1,111 @@
+package com.promptoholics.anonymous.ApiBackend.domain.calc;
+
+import java.util.Arrays;
+
+/**
+ * Zmiany płacy (additionalSalaryChanges) w postaci kolumn prymitywów: typ, miesiąc początku i końca
+ * (epoch-month = rok * 12 + miesiąc - 1), pensja (NaN = brak). Kolejność jak w żądaniu – późniejsza
+ * zmiana nadpisuje wcześniejszą. Wypełniane wprost z parsera JSON, bez list obiektów DTO.
+ */
+public final class SalaryChangeSpans {
+
+    public static final byte WORK = 0;
+    public static final byte BREAK = 1;
+
+    private static final SalaryChangeSpans EMPTY = new SalaryChangeSpans(new byte[0], new int[0], new int[0], new double[0], 0);
+
+    private final byte[] type;
+    private final int[] startMonth;
+    private final int[] endMonth;
+    private final double[] salary;
+    private final int size;
+
+    private SalaryChangeSpans(byte[] type, int[] startMonth, int[] endMonth, double[] salary, int size) {
+        this.type = type;
+        this.startMonth = startMonth;
+        this.endMonth = endMonth;
+        this.salary = salary;
+        this.size = size;
+    }
+
+    public static SalaryChangeSpans empty() {
+        return EMPTY;
+    }
+
+    public static int epochMonth(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte type(int i) {
+        return type[i];
+    }
+
+    public int startMonth(int i) {
+        return startMonth[i];
+    }
+
+    public int endMonth(int i) {
+        return endMonth[i];
+    }
+
+    /** Pensja miesięczna dla WORK; NaN, gdy nie podano (zmiana bez efektu). */
+    public double salary(int i) {
+        return salary[i];
+    }
+
+    /** Zapis do klucza single-flight – ta sama zawartość daje ten sam tekst. */
+    public void appendTo(StringBuilder key) {
+        for (int i = 0; i < size; i++) {
+            key.append("|ch:").append(type[i] == BREAK ? 'B' : 'W')
+                    .append(',').append(startMonth[i])
+                    .append(',').append(endMonth[i])
+                    .append(',').append(salary[i]);
+        }
+    }
+
+    /** Builder jednorazowy – build() przekazuje tablice bez kopiowania. */
+    public static final class Builder {
+
+        private byte[] type;
+        private int[] startMonth;
+        private int[] endMonth;
+        private double[] salary;
+        private int size;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int expected) {
+            int capacity = Math.max(4, expected);
+            type = new byte[capacity];
+            startMonth = new int[capacity];
+            endMonth = new int[capacity];
+            salary = new double[capacity];
+        }
+
+        public Builder add(byte changeType, int start, int end, double salaryValue) {
+            if (size == type.length) {
+                int capacity = size + (size >> 1);
+                type = Arrays.copyOf(type, capacity);
+                startMonth = Arrays.copyOf(startMonth, capacity);
+                endMonth = Arrays.copyOf(endMonth, capacity);
+                salary = Arrays.copyOf(salary, capacity);
+            }
+            type[size] = changeType;
+            startMonth[size] = start;
+            endMonth[size] = end;
+            salary[size] = salaryValue;
+            size++;
+            return this;
+        }
+
+        public SalaryChangeSpans build() {
+            return size == 0 ? EMPTY : new SalaryChangeSpans(type, startMonth, endMonth, salary, size);
+        }
+    }
+}
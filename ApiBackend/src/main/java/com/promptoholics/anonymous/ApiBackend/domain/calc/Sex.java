@@ -0,0 +1,25 @@
+package com.promptoholics.anonymous.ApiBackend.domain.calc;
+
+/**
+ * Płeć w tablicach trwania życia; ordinal() = indeks wiersza w tablicach gęstych.
+ */
+public enum Sex {
+    M(65),
+    F(60);
+
+    /** Ustawowy wiek emerytalny – wiek, dla którego podawane są punkty kontrolne GUS. */
+    private final int statutoryRetirementAge;
+
+    Sex(int statutoryRetirementAge) {
+        this.statutoryRetirementAge = statutoryRetirementAge;
+    }
+
+    public int statutoryRetirementAge() {
+        return statutoryRetirementAge;
+    }
+
+    /** "M" (bez względu na wielkość liter) = mężczyzna, każda inna wartość = kobieta – jak dotychczasowe API tekstowe. */
+    public static Sex of(String code) {
+        return "M".equalsIgnoreCase(code) ? M : F;
+    }
+}
@@ -0,0 +1,250 @@
+package com.promptoholics.anonymous.ApiBackend.domain.facts;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Niezmienny katalog ciekawostek wczytany z pliku danych (TSV, UTF-8).
+ *
+ * Format pliku:
+ * <pre>
+ * #facts-catalogue	version=2025.10.1	default=pl
+ * # komentarz
+ * pl	1	pl-01	Treść faktu...
+ * </pre>
+ * Kolumny: locale, waga (względna częstość losowania), stabilne id, treść.
+ *
+ * Treści NIE są trzymane na stercie – katalog przechowuje jedynie indeks offsetów
+ * do bufora (zwykle zmapowanego z pliku), a tekst dekoduje dopiero przy odczycie.
+ * Dzięki temu kolejne locale zwiększają zużycie sterty tylko o kilka tablic int.
+ */
+public final class FactsCatalogue {
+
+    private static final String HEADER = "#facts-catalogue";
+
+    private final String version;
+    private final long contentHash;
+    private final Instant loadedAt;
+    private final ByteBuffer data;
+    private final Map<String, LocaleIndex> byLocale;
+    private final LocaleIndex defaultLocale;
+
+    private FactsCatalogue(String version, long contentHash, Instant loadedAt, ByteBuffer data,
+                           Map<String, LocaleIndex> byLocale, LocaleIndex defaultLocale) {
+        this.version = version;
+        this.contentHash = contentHash;
+        this.loadedAt = loadedAt;
+        this.data = data;
+        this.byLocale = byLocale;
+        this.defaultLocale = defaultLocale;
+    }
+
+    /** Buduje indeks dla bufora z zawartością pliku. Bufor nie jest kopiowany ani modyfikowany. */
+    public static FactsCatalogue parse(ByteBuffer data, Instant loadedAt) {
+        ByteBuffer buf = data.asReadOnlyBuffer();
+        int limit = buf.limit();
+
+        String version = null;
+        String defaultLanguage = null;
+        Map<String, IndexBuilder> builders = new HashMap<>();
+
+        int lineNo = 0;
+        int pos = 0;
+        while (pos < limit) {
+            int end = indexOf(buf, (byte) '\n', pos, limit);
+            int lineEnd = end;
+            if (lineEnd > pos && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            lineNo++;
+
+            if (lineNo == 1) {
+                String header = decode(buf, pos, lineEnd - pos);
+                if (!header.startsWith(HEADER)) {
+                    throw new IllegalArgumentException("Facts catalogue must start with '" + HEADER + "' header");
+                }
+                for (String attr : header.split("\t")) {
+                    if (attr.startsWith("version=")) version = attr.substring("version=".length()).trim();
+                    if (attr.startsWith("default=")) defaultLanguage = attr.substring("default=".length()).trim();
+                }
+            } else if (lineEnd > pos && buf.get(pos) != '#') {
+                int t1 = indexOf(buf, (byte) '\t', pos, lineEnd);
+                int t2 = indexOf(buf, (byte) '\t', t1 + 1, lineEnd);
+                int t3 = indexOf(buf, (byte) '\t', t2 + 1, lineEnd);
+                if (t3 >= lineEnd) {
+                    throw new IllegalArgumentException("Malformed facts catalogue line " + lineNo);
+                }
+                String locale = decode(buf, pos, t1 - pos).trim().toLowerCase(Locale.ROOT);
+                double weight = Double.parseDouble(decode(buf, t1 + 1, t2 - t1 - 1).trim());
+                if (weight > 0) { // waga 0 = fakt wyłączony
+                    builders.computeIfAbsent(locale, IndexBuilder::new)
+                            .add(t2 + 1, t3 - t2 - 1, t3 + 1, lineEnd - t3 - 1, weight);
+                }
+            }
+            pos = end + 1;
+        }
+
+        if (version == null || version.isBlank()) {
+            throw new IllegalArgumentException("Facts catalogue header has no version");
+        }
+        if (builders.isEmpty()) {
+            throw new IllegalArgumentException("Facts catalogue " + version + " contains no facts");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buf.duplicate().position(0));
+        long contentHash = crc.getValue();
+
+        Map<String, LocaleIndex> byLocale = new HashMap<>();
+        for (IndexBuilder b : builders.values()) {
+            byLocale.put(b.locale, b.build(version, contentHash));
+        }
+        LocaleIndex def = defaultLanguage != null ? byLocale.get(defaultLanguage) : null;
+        if (def == null) def = byLocale.values().iterator().next();
+
+        return new FactsCatalogue(version, contentHash, loadedAt, buf, Collections.unmodifiableMap(byLocale), def);
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /** Suma kontrolna (CRC32C) całej zawartości pliku – zmienia się przy każdej edycji, także bez zmiany version=. */
+    public long contentHash() {
+        return contentHash;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public Set<String> locales() {
+        return byLocale.keySet();
+    }
+
+    /** Indeks dla języka (np. "pl"); dla nieznanego języka – indeks domyślny z nagłówka. */
+    public LocaleIndex localeOrDefault(String language) {
+        if (language == null) return defaultLocale;
+        LocaleIndex idx = byLocale.get(language);
+        return idx != null ? idx : defaultLocale;
+    }
+
+    public String id(LocaleIndex idx, int i) {
+        return decode(data, idx.idOffset[i], idx.idLength[i]);
+    }
+
+    public String text(LocaleIndex idx, int i) {
+        return decode(data, idx.textOffset[i], idx.textLength[i]);
+    }
+
+    /** Indeks faktów jednego locale – wyłącznie tablice prymitywów. */
+    public static final class LocaleIndex {
+        private final String locale;
+        private final String etag;
+        private final int[] idOffset;
+        private final int[] idLength;
+        private final int[] textOffset;
+        private final int[] textLength;
+        private final double[] weight;
+        private final double[] cumulativeWeight;
+
+        private LocaleIndex(String locale, String etag, int[] idOffset, int[] idLength,
+                            int[] textOffset, int[] textLength, double[] weight) {
+            this.locale = locale;
+            this.etag = etag;
+            this.idOffset = idOffset;
+            this.idLength = idLength;
+            this.textOffset = textOffset;
+            this.textLength = textLength;
+            this.weight = weight;
+            this.cumulativeWeight = new double[weight.length];
+            double sum = 0.0;
+            for (int i = 0; i < weight.length; i++) {
+                sum += weight[i];
+                cumulativeWeight[i] = sum;
+            }
+        }
+
+        public String locale() {
+            return locale;
+        }
+
+        /** ETag puli – wersja, locale i suma kontrolna treści, więc zmienia się przy każdej zmianie pliku. */
+        public String etag() {
+            return etag;
+        }
+
+        public int size() {
+            return weight.length;
+        }
+
+        public double weight(int i) {
+            return weight[i];
+        }
+
+        /** Losowanie ważone: u z przedziału [0, 1). */
+        public int pickWeighted(double u) {
+            double target = u * cumulativeWeight[cumulativeWeight.length - 1];
+            int i = Arrays.binarySearch(cumulativeWeight, target);
+            i = i >= 0 ? i + 1 : -i - 1;
+            return Math.min(i, cumulativeWeight.length - 1);
+        }
+    }
+
+    /* === Helpers === */
+
+    private static int indexOf(ByteBuffer buf, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == b) return i;
+        }
+        return to;
+    }
+
+    private static String decode(ByteBuffer buf, int offset, int length) {
+        return StandardCharsets.UTF_8.decode(buf.slice(offset, length)).toString();
+    }
+
+    private static final class IndexBuilder {
+        private final String locale;
+        private int size;
+        private int[] idOffset = new int[16];
+        private int[] idLength = new int[16];
+        private int[] textOffset = new int[16];
+        private int[] textLength = new int[16];
+        private double[] weight = new double[16];
+
+        IndexBuilder(String locale) {
+            this.locale = locale;
+        }
+
+        void add(int idOff, int idLen, int textOff, int textLen, double w) {
+            if (size == weight.length) {
+                int n = size * 2;
+                idOffset = Arrays.copyOf(idOffset, n);
+                idLength = Arrays.copyOf(idLength, n);
+                textOffset = Arrays.copyOf(textOffset, n);
+                textLength = Arrays.copyOf(textLength, n);
+                weight = Arrays.copyOf(weight, n);
+            }
+            idOffset[size] = idOff;
+            idLength[size] = idLen;
+            textOffset[size] = textOff;
+            textLength[size] = textLen;
+            weight[size] = w;
+            size++;
+        }
+
+        LocaleIndex build(String version, long contentHash) {
+            return new LocaleIndex(locale, "\"" + version + "-" + locale + "-" + Long.toHexString(contentHash) + "\"",
+                    Arrays.copyOf(idOffset, size), Arrays.copyOf(idLength, size),
+                    Arrays.copyOf(textOffset, size), Arrays.copyOf(textLength, size),
+                    Arrays.copyOf(weight, size));
+        }
+    }
+}
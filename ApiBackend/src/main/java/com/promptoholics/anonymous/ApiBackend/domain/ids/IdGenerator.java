@@ -0,0 +1,18 @@
+package com.promptoholics.anonymous.ApiBackend.domain.ids;
+
+import java.util.UUID;
+
+/**
+ * Źródło kluczy głównych dla nowych wierszy (pension_calculation.id).
+ * Implementacja wybierana w konfiguracji: pension.id.generator=v7 (domyślnie) | v4.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    UUID next();
+
+    /** Losowe UUID v4 (SecureRandom) – dotychczasowe zachowanie. */
+    static IdGenerator random() {
+        return UUID::randomUUID;
+    }
+}
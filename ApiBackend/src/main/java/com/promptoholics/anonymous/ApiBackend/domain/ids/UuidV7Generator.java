@@ -0,0 +1,83 @@
+package com.promptoholics.anonymous.ApiBackend.domain.ids;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * UUID v7 (RFC 9562): 48 bitów czasu unix w ms, 12 bitów licznika (rand_a), 62 bity losowe.
+ *
+ * Kolejne wartości rosną – inserty trafiają na koniec indeksu PK zamiast w losowe strony B-drzewa.
+ * Monotoniczność bez blokad: stan (ms << 12 | licznik) w jednym AtomicLong, aktualizowany CAS-em.
+ * W nowej milisekundzie licznik startuje od losowej wartości z dolnej połowy zakresu (zostaje zapas
+ * na inkrementy); przepełnienie licznika przenosi się na czas (RFC 9562, 6.2 metoda 1) – przy cofnięciu
+ * zegara identyfikatory dalej rosną od ostatniej wydanej wartości.
+ *
+ * 62 bity rand_b pochodzą z SecureRandom: identyfikator otwiera zapisane obliczenie (GET /pensions/calculations/{id}),
+ * więc kolejnych nie może dać się przewidzieć – wyjście ThreadLocalRandom da się odwrócić do ziarna wątku.
+ * SecureRandom czytany porcjami do bufora per wątek (jedno wywołanie na {@value #RANDOM_BUFFER_IDS} identyfikatory).
+ * Start licznika (rand_a) nie jest sekretem – dalej z ThreadLocalRandom.
+ */
+public final class UuidV7Generator implements IdGenerator {
+
+    private static final long COUNTER_BITS = 12;
+    private static final long COUNTER_SEED_MASK = (1L << (COUNTER_BITS - 1)) - 1; // 11 bitów
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC = 0x8000_0000_0000_0000L;
+    private static final long RAND_B_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+    private static final int RANDOM_BUFFER_IDS = 64;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final ThreadLocal<ByteBuffer> RANDOM_BUFFER = ThreadLocal.withInitial(
+            () -> ByteBuffer.allocate(RANDOM_BUFFER_IDS * Long.BYTES).position(RANDOM_BUFFER_IDS * Long.BYTES));
+
+    private final LongSupplier clock;
+    private final AtomicLong state = new AtomicLong();
+
+    public UuidV7Generator() {
+        this(System::currentTimeMillis);
+    }
+
+    /** @param clock czas unix w ms (wstrzykiwany w testach) */
+    public UuidV7Generator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = clock.getAsLong();
+        long prev;
+        long next;
+        do {
+            prev = state.get();
+            next = (prev >>> COUNTER_BITS) < now
+                    ? (now << COUNTER_BITS) | (random.nextLong() & COUNTER_SEED_MASK)
+                    : prev + 1;
+        } while (!state.compareAndSet(prev, next));
+
+        long millis = next >>> COUNTER_BITS;
+        long counter = next & ((1L << COUNTER_BITS) - 1);
+        long msb = (millis << 16) | VERSION_7 | counter;
+        long lsb = VARIANT_RFC | (secureRandomLong() & RAND_B_MASK);
+        return new UUID(msb, lsb);
+    }
+
+    private static long secureRandomLong() {
+        ByteBuffer buffer = RANDOM_BUFFER.get();
+        if (!buffer.hasRemaining()) {
+            SECURE_RANDOM.nextBytes(buffer.array());
+            buffer.clear();
+        }
+        return buffer.getLong();
+    }
+
+    /** Czas utworzenia (unix ms) zapisany w UUID v7. */
+    public static long timestampOf(UUID uuid) {
+        if (uuid.version() != 7) throw new IllegalArgumentException("Not a UUIDv7: " + uuid);
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,179 @@
+package com.promptoholics.anonymous.ApiBackend.domain.postal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indeks kodów pocztowych (PNA) → region (województwo + opcjonalnie powiat).
+ *
+ * Kod "NN-NNN" to liczba 0..99 999, więc indeks to jedna gęsta tablica short[100 000]
+ * (ok. 200 KB): odczyt regionu to jedno odwołanie do tablicy. Ta sama liczba służy jako
+ * kod słownikowy kodu pocztowego w bazie (postal_code_num), a id regionu – do grupowania.
+ * Region 0 / województwo 0 = nieznane.
+ */
+public final class PostalCodeIndex {
+
+    public static final int CODES = 100_000;
+    public static final int UNKNOWN = 0;
+    public static final String UNKNOWN_NAME = "nieznane";
+
+    public record Region(int id, int voivodeshipId, String voivodeship, String powiat) {
+        /** "śląskie / Tychy" albo samo województwo. */
+        public String label() {
+            return powiat == null ? voivodeship : voivodeship + " / " + powiat;
+        }
+    }
+
+    private static final PostalCodeIndex EMPTY = new PostalCodeIndex("empty", new short[CODES],
+            new Region[]{new Region(UNKNOWN, UNKNOWN, UNKNOWN_NAME, null)}, new String[]{UNKNOWN_NAME});
+
+    private final String version;
+    private final short[] regionByCode;
+    private final Region[] regions;           // [id regionu]
+    private final String[] voivodeships;      // [id województwa]
+
+    private PostalCodeIndex(String version, short[] regionByCode, Region[] regions, String[] voivodeships) {
+        this.version = version;
+        this.regionByCode = regionByCode;
+        this.regions = regions;
+        this.voivodeships = voivodeships;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Normalizacja wejścia użytkownika: "43-100", "43100", " 43 100 ", "43–100" → 43100.
+     *
+     * @return kod 0..99 999 albo -1, gdy to nie jest polski kod pocztowy
+     */
+    public static int normalize(CharSequence raw) {
+        if (raw == null) return -1;
+        int value = 0;
+        int digits = 0;
+        int separators = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 5) return -1;
+                value = value * 10 + (c - '0');
+            } else if (c == ' ' || c == '\t') {
+                continue;
+            } else if ((c == '-' || c == '–' || c == '—') && digits == 2 && separators == 0) {
+                separators++;
+            } else {
+                return -1;
+            }
+        }
+        return digits == 5 ? value : -1;
+    }
+
+    /** 43100 → "43-100". */
+    public static String format(int code) {
+        if (code < 0 || code >= CODES) throw new IllegalArgumentException("Postal code out of range: " + code);
+        char[] out = new char[6];
+        int v = code;
+        for (int i = 5; i >= 3; i--) {
+            out[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        out[2] = '-';
+        out[1] = (char) ('0' + v % 10);
+        out[0] = (char) ('0' + v / 10);
+        return new String(out);
+    }
+
+    /** Id regionu dla znormalizowanego kodu (0 = nieznany / poza indeksem). */
+    public int regionId(int code) {
+        return code >= 0 && code < CODES ? regionByCode[code] : UNKNOWN;
+    }
+
+    public Region region(int regionId) {
+        return regionId > 0 && regionId < regions.length ? regions[regionId] : regions[UNKNOWN];
+    }
+
+    public int regionCount() {
+        return regions.length;
+    }
+
+    public int voivodeshipCount() {
+        return voivodeships.length;
+    }
+
+    public String voivodeship(int voivodeshipId) {
+        return voivodeshipId > 0 && voivodeshipId < voivodeships.length ? voivodeships[voivodeshipId] : UNKNOWN_NAME;
+    }
+
+    /** Województwo każdego regionu ([id regionu] → id województwa) – do grupowania po województwie. */
+    public int[] voivodeshipByRegion() {
+        int[] out = new int[regions.length];
+        for (int i = 0; i < regions.length; i++) out[i] = regions[i].voivodeshipId();
+        return out;
+    }
+
+    /** Etykiety regionów ([id regionu] → "województwo / powiat"). */
+    public String[] regionLabels() {
+        String[] out = new String[regions.length];
+        for (int i = 0; i < regions.length; i++) out[i] = regions[i].label();
+        return out;
+    }
+
+    /** Pusty indeks – każdy kod trafia do regionu 0. */
+    public static PostalCodeIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Wczytuje zakresy "from,to,voivodeship,powiat" (nagłówek, komentarze # i puste linie pomijane).
+     * Wiersze późniejsze nadpisują wcześniejsze – najpierw ogólne zakresy, potem szczegółowe.
+     */
+    public static PostalCodeIndex parse(String version, Reader source) {
+        short[] byCode = new short[CODES];
+        List<Region> regions = new ArrayList<>();
+        List<String> voivodeships = new ArrayList<>();
+        regions.add(new Region(UNKNOWN, UNKNOWN, UNKNOWN_NAME, null));
+        voivodeships.add(UNKNOWN_NAME);
+        Map<String, Integer> regionIds = new HashMap<>();
+        Map<String, Integer> voivodeshipIds = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(source)) {
+            boolean header = true;
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (header) { header = false; continue; }
+                String[] cols = line.split(",", -1);
+                if (cols.length < 3) throw new IllegalArgumentException("Expected from,to,voivodeship[,powiat] in line " + lineNo);
+                int from = normalize(cols[0]);
+                int to = normalize(cols[1]);
+                if (from < 0 || to < from) throw new IllegalArgumentException("Invalid postal code range in line " + lineNo);
+                String voivodeship = cols[2].trim();
+                String powiat = cols.length > 3 && !cols[3].isBlank() ? cols[3].trim() : null;
+
+                int vid = voivodeshipIds.computeIfAbsent(voivodeship, k -> {
+                    voivodeships.add(k);
+                    return voivodeships.size() - 1;
+                });
+                int rid = regionIds.computeIfAbsent(voivodeship + "|" + powiat, k -> {
+                    regions.add(new Region(regions.size(), vid, voivodeship, powiat));
+                    return regions.size() - 1;
+                });
+                if (rid > Short.MAX_VALUE) throw new IllegalArgumentException("Too many regions (max " + Short.MAX_VALUE + ")");
+                for (int code = from; code <= to; code++) byCode[code] = (short) rid;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read postal code regions", e);
+        }
+        return new PostalCodeIndex(version, byCode, regions.toArray(new Region[0]), voivodeships.toArray(new String[0]));
+    }
+}
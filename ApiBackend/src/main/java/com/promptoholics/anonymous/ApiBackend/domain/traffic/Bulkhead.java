@@ -0,0 +1,80 @@
+package com.promptoholics.anonymous.ApiBackend.domain.traffic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limit równoczesnych żądań jednej klasy endpointów (obliczenia, raporty, ciekawostki) – licznik CAS
+ * zamiast semafora: przy pełnym limicie żądanie jest od razu odrzucane, nie czeka w kolejce,
+ * więc jedna klasa ruchu nie zajmie wątków pozostałych.
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejectedFull = new LongAdder();
+    private final LongAdder rejectedRate = new LongAdder();
+    private final ClientRateLimiter rateLimiter;
+
+    /** @param rateLimiter limit per klient; null = bez limitu częstości */
+    public Bulkhead(String name, int maxConcurrent, ClientRateLimiter rateLimiter) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be >= 1");
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public boolean tryEnter() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxConcurrent) {
+                rejectedFull.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /** Limit częstości klienta; przy odmowie zlicza odrzucenie. */
+    public ClientRateLimiter.Decision admit(String client) {
+        if (rateLimiter == null) return ClientRateLimiter.Decision.ALLOWED;
+        ClientRateLimiter.Decision decision = rateLimiter.tryAcquire(client);
+        if (!decision.allowed()) rejectedRate.increment();
+        return decision;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /** Zajętość 0..1. */
+    public double saturation() {
+        return inFlight.get() / (double) maxConcurrent;
+    }
+
+    public long rejectedFull() {
+        return rejectedFull.sum();
+    }
+
+    public long rejectedRate() {
+        return rejectedRate.sum();
+    }
+
+    public ClientRateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+}
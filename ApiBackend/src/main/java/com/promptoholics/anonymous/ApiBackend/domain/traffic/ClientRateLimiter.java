@@ -0,0 +1,79 @@
+package com.promptoholics.anonymous.ApiBackend.domain.traffic;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per klient (IP albo klucz API) w postaci GCRA: stan kubełka to jedna liczba –
+ * teoretyczny czas nadejścia następnego żądania (TAT, ns) – w AtomicLong, aktualizowana CAS-em, bez blokad.
+ * Równoważne kubełkowi o pojemności {@code burst} uzupełnianemu {@code ratePerSecond} żetonami na sekundę.
+ *
+ * Kubełki bezczynnych klientów (pełne) usuwa {@link #evictIdle()}; przy maxClients śledzonych klientów
+ * nowy klient jest odrzucany (do najbliższego sprzątania), zamiast dzielić kubełek z innymi –
+ * wspólny kubełek pozwoliłby jednemu klientowi zablokować wszystkich nowych.
+ */
+public final class ClientRateLimiter {
+
+    /** Wynik próby: dozwolone albo czas (ns) do chwili, gdy żądanie zmieściłoby się w limicie. */
+    public record Decision(boolean allowed, long retryAfterNanos) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public ClientRateLimiter(double ratePerSecond, int burst, int maxClients) {
+        this(ratePerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    /** @param nanoClock monotoniczny czas w ns (wstrzykiwany w testach) */
+    public ClientRateLimiter(double ratePerSecond, int burst, int maxClients, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0) throw new IllegalArgumentException("ratePerSecond must be > 0");
+        if (burst < 1) throw new IllegalArgumentException("burst must be >= 1");
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000d / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    public Decision tryAcquire(String client) {
+        AtomicLong tat = bucket(client);
+        if (tat == null) return new Decision(false, intervalNanos);
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long current = tat.get();
+            long start = current - now > 0 ? current : now;
+            long next = start + intervalNanos;
+            long ahead = start - now; // ile „w przyszłości” jest już zarezerwowane
+            if (ahead > toleranceNanos) {
+                return new Decision(false, ahead - toleranceNanos);
+            }
+            if (tat.compareAndSet(current, next)) return Decision.ALLOWED;
+        }
+    }
+
+    /** Usuwa kubełki klientów, którzy mają już pełny limit (TAT w przeszłości). */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(e -> e.getValue().get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    /** Kubełek klienta; null, gdy to nowy klient, a limit śledzonych klientów jest wyczerpany. */
+    private AtomicLong bucket(String client) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) return bucket;
+        if (buckets.size() >= maxClients) return null;
+        // nowy kubełek jest „pełny”: TAT = teraz (różnice czasu liczone z przepełnieniem, jak System.nanoTime)
+        return buckets.computeIfAbsent(client, k -> new AtomicLong(nanoClock.getAsLong()));
+    }
+}
@@ -0,0 +1,193 @@
+package com.promptoholics.anonymous.ApiBackend.domain.usage;
+
+import com.promptoholics.anonymous.ApiBackend.domain.postal.PostalCodeIndex;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Niezmienny, kolumnowy obraz tabeli pension_calculation do zapytań analitycznych.
+ *
+ * Każda kolumna to osobna tablica prymitywów (wiersz = indeks), posortowana po created_at –
+ * filtr zakresu dat to dwa wyszukiwania binarne. Płeć jest słownikowana (kod int), kod pocztowy
+ * trzymany jako liczba 0..99 999 (-1 = brak), region jako id z {@link PostalCodeIndex}.
+ * Brak wartości w kolumnach liczbowych = NaN.
+ */
+public final class UsageColumns {
+
+    /** Strefa, w której liczone są miesiące/kwartały i granice dat (jak w raporcie JSON). */
+    public static final ZoneId ZONE = ZoneId.of("Europe/Warsaw");
+
+    /** Kod prefiksu dla pustego lub nieczytelnego kodu pocztowego. */
+    public static final int UNKNOWN_PREFIX = 100;
+
+    final long[] createdAt;        // epoch millis, rosnąco
+    final int[] month;             // rok * 12 + (miesiąc - 1) w strefie ZONE
+    final byte[] age;
+    final int[] gender;            // kod słownika genderDict
+    final double[] salary;
+    final double[] expectedPension;
+    final double[] actualPension;
+    final int[] postalCode;        // 0..99 999, -1 = brak / niepoprawny
+    final short[] region;          // id regionu z indeksu kodów
+    final String[] genderDict;
+    final String[] regionLabels;   // [id regionu]
+    final int[] voivodeshipOfRegion;
+    final String[] voivodeships;   // [id województwa]
+    final int rows;
+    final Instant asOf;
+
+    private UsageColumns(Builder b, Instant asOf) {
+        this.rows = b.rows;
+        this.createdAt = Arrays.copyOf(b.createdAt, rows);
+        this.month = Arrays.copyOf(b.month, rows);
+        this.age = Arrays.copyOf(b.age, rows);
+        this.gender = Arrays.copyOf(b.gender, rows);
+        this.salary = Arrays.copyOf(b.salary, rows);
+        this.expectedPension = Arrays.copyOf(b.expectedPension, rows);
+        this.actualPension = Arrays.copyOf(b.actualPension, rows);
+        this.postalCode = Arrays.copyOf(b.postalCode, rows);
+        this.region = Arrays.copyOf(b.region, rows);
+        this.genderDict = new String[b.genderCodes.size()];
+        for (Map.Entry<String, Integer> e : b.genderCodes.entrySet()) genderDict[e.getValue()] = e.getKey();
+        this.regionLabels = b.regions.regionLabels();
+        this.voivodeshipOfRegion = b.regions.voivodeshipByRegion();
+        this.voivodeships = new String[b.regions.voivodeshipCount()];
+        for (int i = 0; i < voivodeships.length; i++) voivodeships[i] = b.regions.voivodeship(i);
+        this.asOf = asOf;
+    }
+
+    public static UsageColumns empty() {
+        return new Builder(0).build(Instant.now());
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public Instant asOf() {
+        return asOf;
+    }
+
+    /** Pierwszy wiersz z created_at >= epochMillis. */
+    int lowerBound(long epochMillis) {
+        int lo = 0;
+        int hi = rows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (createdAt[mid] < epochMillis) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Dwie pierwsze cyfry kodu (okręg pocztowy); brak kodu – {@link #UNKNOWN_PREFIX}. */
+    static int prefixOf(int postalCode) {
+        return postalCode < 0 ? UNKNOWN_PREFIX : postalCode / 1000;
+    }
+
+    /**
+     * Buduje kolumny wiersz po wierszu (np. z kursora JDBC). Wiersze muszą przychodzić po created_at rosnąco.
+     */
+    public static final class Builder {
+
+        private long[] createdAt;
+        private int[] month;
+        private byte[] age;
+        private int[] gender;
+        private double[] salary;
+        private double[] expectedPension;
+        private double[] actualPension;
+        private int[] postalCode;
+        private short[] region;
+        private final Map<String, Integer> genderCodes = new HashMap<>();
+        private final PostalCodeIndex regions;
+        private int rows;
+
+        // miesiąc liczymy raz na dobę lokalną – kolejne wiersze zwykle leżą w tym samym dniu
+        private long cachedDayStart = Long.MIN_VALUE;
+        private long cachedDayEnd = Long.MIN_VALUE;
+        private int cachedMonth;
+
+        public Builder(int expectedRows) {
+            this(expectedRows, PostalCodeIndex.empty());
+        }
+
+        public Builder(int expectedRows, PostalCodeIndex regions) {
+            this.regions = regions;
+            int capacity = Math.max(16, expectedRows);
+            createdAt = new long[capacity];
+            month = new int[capacity];
+            age = new byte[capacity];
+            gender = new int[capacity];
+            salary = new double[capacity];
+            expectedPension = new double[capacity];
+            actualPension = new double[capacity];
+            postalCode = new int[capacity];
+            region = new short[capacity];
+        }
+
+        /** Wiersz z kodem pocztowym w postaci tekstowej (normalizowany tutaj). */
+        public Builder add(Instant created, int ageValue, String genderValue, double salaryValue,
+                           double expectedValue, Double actualValue, String postal) {
+            int code = PostalCodeIndex.normalize(postal);
+            return add(created, ageValue, genderValue, salaryValue, expectedValue, actualValue,
+                    code, regions.regionId(code));
+        }
+
+        /** Wiersz ze słownikowanym kodem pocztowym (postal_code_num, region_id z bazy). */
+        public Builder add(Instant created, int ageValue, String genderValue, double salaryValue,
+                           double expectedValue, Double actualValue, int postal, int regionId) {
+            long millis = created.toEpochMilli();
+            if (rows > 0 && millis < createdAt[rows - 1]) {
+                throw new IllegalArgumentException("Rows must be added in created_at order");
+            }
+            if (rows == createdAt.length) grow();
+            createdAt[rows] = millis;
+            month[rows] = monthOf(created);
+            age[rows] = (byte) Math.max(0, Math.min(120, ageValue));
+            gender[rows] = genderCodes.computeIfAbsent(genderValue == null ? "" : genderValue, k -> genderCodes.size());
+            salary[rows] = salaryValue;
+            expectedPension[rows] = expectedValue;
+            actualPension[rows] = actualValue != null ? actualValue : Double.NaN;
+            postalCode[rows] = postal >= 0 && postal < PostalCodeIndex.CODES ? postal : -1;
+            region[rows] = (short) (regionId > 0 && regionId < regions.regionCount() ? regionId : PostalCodeIndex.UNKNOWN);
+            rows++;
+            return this;
+        }
+
+        public UsageColumns build(Instant asOf) {
+            return new UsageColumns(this, asOf);
+        }
+
+        private int monthOf(Instant created) {
+            long millis = created.toEpochMilli();
+            if (millis < cachedDayStart || millis >= cachedDayEnd) {
+                ZonedDateTime local = created.atZone(ZONE);
+                cachedMonth = local.getYear() * 12 + local.getMonthValue() - 1;
+                // przedział, w którym miesiąc na pewno się nie zmienia: do północy lokalnej
+                ZonedDateTime dayStart = local.toLocalDate().atStartOfDay(ZONE);
+                cachedDayStart = dayStart.toInstant().toEpochMilli();
+                cachedDayEnd = dayStart.plusDays(1).toInstant().toEpochMilli();
+            }
+            return cachedMonth;
+        }
+
+        private void grow() {
+            int capacity = createdAt.length + (createdAt.length >> 1);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            month = Arrays.copyOf(month, capacity);
+            age = Arrays.copyOf(age, capacity);
+            gender = Arrays.copyOf(gender, capacity);
+            salary = Arrays.copyOf(salary, capacity);
+            expectedPension = Arrays.copyOf(expectedPension, capacity);
+            actualPension = Arrays.copyOf(actualPension, capacity);
+            postalCode = Arrays.copyOf(postalCode, capacity);
+            region = Arrays.copyOf(region, capacity);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.promptoholics.anonymous.ApiBackend.domain.usage;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Zapytanie agregujące po danych użycia: filtr (zakres dat, płeć, prefiks kodu, wiek) → grupowanie → metryki.
+ *
+ * @param from         początek zakresu created_at (włącznie) lub null
+ * @param to           koniec zakresu created_at (wyłącznie) lub null
+ * @param ageBandWidth szerokość przedziału wieku dla {@link Dimension#AGE_BAND}
+ * @param postalPrefix początek kodu pocztowego (same cyfry, np. "4", "43" lub "43-1") lub null
+ */
+public record UsageQuery(Instant from,
+                         Instant to,
+                         List<Dimension> groupBy,
+                         int ageBandWidth,
+                         String gender,
+                         String postalPrefix,
+                         Integer ageFrom,
+                         Integer ageTo,
+                         List<Metric> metrics) {
+
+    public enum Dimension { POSTAL_PREFIX, AGE_BAND, GENDER, MONTH, QUARTER, VOIVODESHIP, REGION }
+
+    public enum Measure { SALARY, EXPECTED_PENSION, ACTUAL_PENSION, SHORTFALL }
+
+    public enum Aggregation { COUNT, SUM, AVG, MIN, MAX }
+
+    /** Metryka, np. AVG(SHORTFALL); COUNT bez miary liczy wiersze, z miarą – wiersze z wartością. */
+    public record Metric(Aggregation aggregation, Measure measure) {
+        public String label() {
+            return measure == null ? aggregation.name() : aggregation.name() + "(" + measure.name() + ")";
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.promptoholics.anonymous.ApiBackend.domain.usage;
+
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery.Dimension;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery.Measure;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery.Metric;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Wykonanie {@link UsageQuery} na {@link UsageColumns}.
+ *
+ * Zakres dat → wyszukiwanie binarne; pozostałe filtry i wymiary to odczyty z tablic prymitywów
+ * (kod pocztowy i region są liczbami – grupowanie regionalne nie parsuje tekstu).
+ * Klucz grupy to liczba w systemie mieszanym (kod wymiaru × mnożnik), agregaty trzymane są
+ * w tablicy z adresowaniem otwartym. Duże zakresy dzielone na paczki liczone równolegle
+ * i scalane na końcu – bez obiektów na wiersz.
+ */
+public final class UsageQueryEngine {
+
+    static final int CHUNK = 1 << 16;
+    private static final int MAX_AGE = 120;
+
+    private UsageQueryEngine() { }
+
+    public record Group(List<String> keys, long count, double[] values) { }
+
+    /**
+     * @param groups wyniki posortowane wg wymiarów w kolejności groupBy; wartości w kolejności metryk (NaN = brak danych)
+     */
+    public record Result(int rowsScanned, int rowsMatched, Instant dataAsOf, List<Group> groups) { }
+
+    public static Result execute(UsageColumns c, UsageQuery q) {
+        List<Dimension> dims = q.groupBy() != null ? q.groupBy() : List.of();
+        List<Metric> metrics = q.metrics() != null && !q.metrics().isEmpty()
+                ? q.metrics() : List.of(new Metric(UsageQuery.Aggregation.COUNT, null));
+        int ageBand = Math.max(1, q.ageBandWidth());
+
+        int from = q.from() != null ? c.lowerBound(q.from().toEpochMilli()) : 0;
+        int to = q.to() != null ? c.lowerBound(q.to().toEpochMilli()) : c.rows;
+        if (from >= to) return new Result(0, 0, c.asOf, List.of());
+
+        // --- filtry słownikowe rozwiązywane raz, nie per wiersz ---
+        int genderCode = -1;
+        if (q.gender() != null) {
+            for (int i = 0; i < c.genderDict.length; i++) {
+                if (c.genderDict[i].equalsIgnoreCase(q.gender())) genderCode = i;
+            }
+            if (genderCode < 0) return new Result(to - from, 0, c.asOf, List.of());
+        }
+        // prefiks kodu → przedział liczb [postalFrom, postalTo): "43" → 43000..43999
+        int postalFrom = Integer.MIN_VALUE;
+        int postalTo = Integer.MAX_VALUE;
+        if (q.postalPrefix() != null && !q.postalPrefix().isBlank()) {
+            String wanted = digitsOnly(q.postalPrefix());
+            if (wanted.isEmpty() || wanted.length() > 5) return new Result(to - from, 0, c.asOf, List.of());
+            int scale = (int) Math.pow(10, 5 - wanted.length());
+            postalFrom = Integer.parseInt(wanted) * scale;
+            postalTo = postalFrom + scale;
+        }
+        int ageFrom = q.ageFrom() != null ? q.ageFrom() : 0;
+        int ageTo = q.ageTo() != null ? q.ageTo() : MAX_AGE;
+
+        // --- wymiary: kod w [0, card) i mnożnik w kluczu ---
+        int d = dims.size();
+        int[] kind = new int[d];
+        long[] base = new long[d];
+        long[] card = new long[d];
+        long[] mult = new long[d];
+        int monthBase = c.month[from];
+        int monthLast = c.month[to - 1];
+        long m = 1;
+        for (int i = d - 1; i >= 0; i--) {
+            Dimension dim = dims.get(i);
+            kind[i] = dim.ordinal();
+            switch (dim) {
+                case POSTAL_PREFIX -> card[i] = UsageColumns.UNKNOWN_PREFIX + 1;
+                case AGE_BAND -> card[i] = MAX_AGE / ageBand + 1;
+                case GENDER -> card[i] = Math.max(1, c.genderDict.length);
+                case VOIVODESHIP -> card[i] = c.voivodeships.length;
+                case REGION -> card[i] = c.regionLabels.length;
+                case MONTH -> {
+                    base[i] = monthBase;
+                    card[i] = monthLast - monthBase + 1;
+                }
+                case QUARTER -> {
+                    base[i] = monthBase / 3;
+                    card[i] = monthLast / 3 - monthBase / 3 + 1;
+                }
+            }
+            mult[i] = m;
+            m = Math.multiplyExact(m, card[i]);
+        }
+
+        // --- miary potrzebne metrykom (każda liczona raz, nawet gdy występuje w kilku metrykach) ---
+        Measure[] measures = metrics.stream().map(Metric::measure).filter(Objects::nonNull)
+                .distinct().toArray(Measure[]::new);
+
+        final int genderFilter = genderCode;
+        final int postalFilterFrom = postalFrom;
+        final int postalFilterTo = postalTo;
+        int chunks = (to - from + CHUNK - 1) / CHUNK;
+        GroupTable total = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(k -> {
+                    int lo = from + k * CHUNK;
+                    int hi = Math.min(to, lo + CHUNK);
+                    GroupTable t = new GroupTable(measures.length);
+                    scan(c, lo, hi, t, genderFilter, postalFilterFrom, postalFilterTo, ageFrom, ageTo, ageBand,
+                            kind, base, mult, measures);
+                    return t;
+                })
+                .reduce(GroupTable::mergeFrom)
+                .orElseGet(() -> new GroupTable(measures.length));
+
+        return new Result(to - from, (int) total.matched, c.asOf,
+                toGroups(c, total, dims, kind, base, card, mult, ageBand, metrics, measures));
+    }
+
+    private static void scan(UsageColumns c, int lo, int hi, GroupTable t,
+                             int genderCode, int postalFrom, int postalTo, int ageFrom, int ageTo, int ageBand,
+                             int[] kind, long[] base, long[] mult, Measure[] measures) {
+        double[] values = new double[measures.length];
+        for (int r = lo; r < hi; r++) {
+            int age = c.age[r];
+            if (age < ageFrom || age > ageTo) continue;
+            if (genderCode >= 0 && c.gender[r] != genderCode) continue;
+            int postal = c.postalCode[r];
+            if (postal < postalFrom || postal >= postalTo) continue;
+
+            long key = 0;
+            for (int i = 0; i < kind.length; i++) {
+                long code = switch (kind[i]) {
+                    case 0 -> UsageColumns.prefixOf(postal);       // POSTAL_PREFIX
+                    case 1 -> age / ageBand;                       // AGE_BAND
+                    case 2 -> c.gender[r];                         // GENDER
+                    case 3 -> c.month[r] - base[i];                // MONTH
+                    case 4 -> c.month[r] / 3 - base[i];            // QUARTER
+                    case 5 -> c.voivodeshipOfRegion[c.region[r]];  // VOIVODESHIP
+                    default -> c.region[r];                        // REGION
+                };
+                key += code * mult[i];
+            }
+            for (int j = 0; j < measures.length; j++) {
+                values[j] = measure(c, r, measures[j]);
+            }
+            t.add(key, values);
+        }
+    }
+
+    private static double measure(UsageColumns c, int r, Measure measure) {
+        return switch (measure) {
+            case SALARY -> c.salary[r];
+            case EXPECTED_PENSION -> c.expectedPension[r];
+            case ACTUAL_PENSION -> c.actualPension[r];
+            // niedobór względem oczekiwań: 0, gdy prognoza spełnia oczekiwanie; NaN, gdy brak prognozy
+            case SHORTFALL -> Double.isNaN(c.actualPension[r])
+                    ? Double.NaN : Math.max(0.0, c.expectedPension[r] - c.actualPension[r]);
+        };
+    }
+
+    private static List<Group> toGroups(UsageColumns c, GroupTable t, List<Dimension> dims,
+                                        int[] kind, long[] base, long[] card, long[] mult, int ageBand,
+                                        List<Metric> metrics, Measure[] measures) {
+        Integer[] order = new Integer[t.size];
+        for (int s = 0; s < t.size; s++) order[s] = s;
+        Arrays.sort(order, (a, b) -> Long.compare(t.slotKeys[a], t.slotKeys[b]));
+
+        List<Group> out = new ArrayList<>(t.size);
+        for (int s : order) {
+            long key = t.slotKeys[s];
+            List<String> keys = new ArrayList<>(dims.size());
+            for (int i = 0; i < dims.size(); i++) {
+                int code = (int) ((key / mult[i]) % card[i]);
+                keys.add(label(c, kind[i], code, base[i], ageBand));
+            }
+            double[] values = new double[metrics.size()];
+            for (int k = 0; k < metrics.size(); k++) {
+                Metric metric = metrics.get(k);
+                if (metric.measure() == null) {
+                    values[k] = metric.aggregation() == UsageQuery.Aggregation.COUNT ? t.counts[s] : Double.NaN;
+                    continue;
+                }
+                int j = Arrays.asList(measures).indexOf(metric.measure());
+                double n = t.acc[s * t.width + j * 4];
+                double sum = t.acc[s * t.width + j * 4 + 1];
+                values[k] = switch (metric.aggregation()) {
+                    case COUNT -> n;
+                    case SUM -> n > 0 ? sum : Double.NaN;
+                    case AVG -> n > 0 ? sum / n : Double.NaN;
+                    case MIN -> n > 0 ? t.acc[s * t.width + j * 4 + 2] : Double.NaN;
+                    case MAX -> n > 0 ? t.acc[s * t.width + j * 4 + 3] : Double.NaN;
+                };
+            }
+            out.add(new Group(keys, t.counts[s], values));
+        }
+        return out;
+    }
+
+    private static String label(UsageColumns c, int kind, int code, long base, int ageBand) {
+        switch (kind) {
+            case 0:
+                return code == UsageColumns.UNKNOWN_PREFIX ? "unknown" : String.format("%02d", code);
+            case 1:
+                int lo = code * ageBand;
+                return ageBand == 1 ? String.valueOf(lo) : lo + "-" + (lo + ageBand - 1);
+            case 2:
+                return c.genderDict.length == 0 ? "" : c.genderDict[code];
+            case 3:
+                int month = (int) (base + code);
+                return String.format("%04d-%02d", month / 12, month % 12 + 1);
+            case 4:
+                int quarter = (int) (base + code);
+                return (quarter / 4) + "-Q" + (quarter % 4 + 1);
+            case 5:
+                return c.voivodeships[code];
+            default:
+                return c.regionLabels[code];
+        }
+    }
+
+    private static String digitsOnly(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch >= '0' && ch <= '9') sb.append(ch);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Agregaty grup z adresowaniem otwartym po kluczu long.
+     * Na miarę: [liczba wartości, suma, min, max]; osobno liczba wierszy w grupie.
+     */
+    static final class GroupTable {
+
+        final int width;
+        long[] slotKeys = new long[16];
+        long[] counts = new long[16];
+        double[] acc;
+        int size;
+        long matched;
+
+        private long[] hashKeys = new long[64];
+        private int[] hashSlots = new int[64]; // slot + 1, 0 = puste
+
+        GroupTable(int measures) {
+            this.width = measures * 4;
+            this.acc = new double[16 * Math.max(1, width)];
+        }
+
+        void add(long key, double[] values) {
+            int s = slot(key);
+            counts[s]++;
+            matched++;
+            int o = s * width;
+            for (int j = 0; j < values.length; j++, o += 4) {
+                double v = values[j];
+                if (Double.isNaN(v)) continue;
+                acc[o]++;
+                acc[o + 1] += v;
+                if (v < acc[o + 2]) acc[o + 2] = v;
+                if (v > acc[o + 3]) acc[o + 3] = v;
+            }
+        }
+
+        GroupTable mergeFrom(GroupTable other) {
+            for (int so = 0; so < other.size; so++) {
+                int s = slot(other.slotKeys[so]);
+                counts[s] += other.counts[so];
+                int o = s * width;
+                int oo = so * width;
+                for (int j = 0; j < width; j += 4) {
+                    acc[o + j] += other.acc[oo + j];
+                    acc[o + j + 1] += other.acc[oo + j + 1];
+                    acc[o + j + 2] = Math.min(acc[o + j + 2], other.acc[oo + j + 2]);
+                    acc[o + j + 3] = Math.max(acc[o + j + 3], other.acc[oo + j + 3]);
+                }
+            }
+            matched += other.matched;
+            return this;
+        }
+
+        private int slot(long key) {
+            int mask = hashKeys.length - 1;
+            int h = (int) mix(key) & mask;
+            while (hashSlots[h] != 0) {
+                if (hashKeys[h] == key) return hashSlots[h] - 1;
+                h = (h + 1) & mask;
+            }
+            int s = size++;
+            if (s == slotKeys.length) growSlots();
+            slotKeys[s] = key;
+            for (int o = s * width; o < (s + 1) * width; o += 4) {
+                acc[o + 2] = Double.POSITIVE_INFINITY;
+                acc[o + 3] = Double.NEGATIVE_INFINITY;
+            }
+            hashKeys[h] = key;
+            hashSlots[h] = s + 1;
+            if (size * 2 > hashKeys.length) rehash();
+            return s;
+        }
+
+        private void growSlots() {
+            int n = slotKeys.length * 2;
+            slotKeys = Arrays.copyOf(slotKeys, n);
+            counts = Arrays.copyOf(counts, n);
+            acc = Arrays.copyOf(acc, n * Math.max(1, width));
+        }
+
+        private void rehash() {
+            long[] keys = new long[hashKeys.length * 2];
+            int[] slots = new int[keys.length];
+            int mask = keys.length - 1;
+            for (int s = 0; s < size; s++) {
+                int h = (int) mix(slotKeys[s]) & mask;
+                while (slots[h] != 0) h = (h + 1) & mask;
+                keys[h] = slotKeys[s];
+                slots[h] = s + 1;
+            }
+            hashKeys = keys;
+            hashSlots = slots;
+        }
+
+        private static long mix(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        }
+    }
+}
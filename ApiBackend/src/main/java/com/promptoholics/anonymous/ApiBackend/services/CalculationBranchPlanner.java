@@ -0,0 +1,115 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Planer niezależnych gałęzi jednej kalkulacji (scenariusz z/bez chorobowego, odroczenie, Monte Carlo).
+ *
+ * Poniżej progu pracy gałęzie liczą się sekwencyjnie na wątku żądania (dopiero przy {@link Branch#join()}),
+ * powyżej – trafiają do wspólnej puli ForkJoin, a wątek żądania liczy w tym czasie swoją część.
+ * Próg jest w „krokach miesięcznych”: typowa kariera (~45 lat) to kilka tysięcy, więc zwykłe żądania
+ * zostają sekwencyjne, a równoległość włącza się dla Monte Carlo i bardzo długich przebiegów.
+ *
+ * Metryki: pension.calculation.plan{mode=parallel|sequential}, pension.calculation.branches.forked,
+ * pension.calculation.branches.active.
+ */
+@Component
+public class CalculationBranchPlanner {
+
+    private final ForkJoinPool pool;
+    private final long parallelThreshold;
+    private final Counter parallelPlans;
+    private final Counter sequentialPlans;
+    private final Counter forkedBranches;
+
+    public CalculationBranchPlanner(MeterRegistry meterRegistry,
+                                    @Value("${pension.v3.parallel.threshold:50000}") long parallelThreshold,
+                                    @Value("${pension.v3.parallel.parallelism:0}") int parallelism) {
+        this.parallelThreshold = parallelThreshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.parallelPlans = Counter.builder("pension.calculation.plan")
+                .description("Calculations whose independent branches ran on the fork-join pool")
+                .tag("mode", "parallel")
+                .register(meterRegistry);
+        this.sequentialPlans = Counter.builder("pension.calculation.plan")
+                .description("Calculations below the parallel threshold, computed on the request thread")
+                .tag("mode", "sequential")
+                .register(meterRegistry);
+        this.forkedBranches = Counter.builder("pension.calculation.branches.forked")
+                .description("Scenario branches submitted to the fork-join pool")
+                .register(meterRegistry);
+        Gauge.builder("pension.calculation.branches.active", pool, ForkJoinPool::getActiveThreadCount)
+                .description("Fork-join workers currently computing scenario branches")
+                .register(meterRegistry);
+    }
+
+    /** @param estimatedWork szacowana liczba kroków miesięcznych wszystkich gałęzi kalkulacji */
+    public Plan plan(long estimatedWork) {
+        boolean parallel = estimatedWork >= parallelThreshold;
+        (parallel ? parallelPlans : sequentialPlans).increment();
+        return new Plan(parallel);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /** Plan jednej kalkulacji; {@link #close()} czeka na gałęzie, których wynik nie został odebrany (np. po wyjątku). */
+    public final class Plan implements AutoCloseable {
+
+        private final boolean parallel;
+        private final List<ForkJoinTask<?>> forked = new ArrayList<>(4);
+
+        private Plan(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        /** Gałąź niezależna od reszty kalkulacji; może czytać wspólne dane, ale nie zmienia danych używanych przez inne gałęzie. */
+        public <T> Branch<T> fork(Supplier<T> work) {
+            if (!parallel) return new Branch<>(null, work);
+            forkedBranches.increment();
+            ForkJoinTask<T> task = pool.submit(work::get);
+            forked.add(task);
+            return new Branch<>(task, null);
+        }
+
+        @Override
+        public void close() {
+            for (ForkJoinTask<?> task : forked) {
+                task.quietlyJoin();
+            }
+        }
+    }
+
+    public static final class Branch<T> {
+
+        private final ForkJoinTask<T> task;
+        private final Supplier<T> deferred;
+
+        private Branch(ForkJoinTask<T> task, Supplier<T> deferred) {
+            this.task = task;
+            this.deferred = deferred;
+        }
+
+        /** Wynik gałęzi; w trybie sekwencyjnym liczony dopiero tutaj, na wątku wywołującym. */
+        public T join() {
+            return task != null ? task.join() : deferred.get();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight dla kalkulacji: równoległe żądania z tym samym kluczem czekają na jedno
+ * liczenie zamiast liczyć to samo N razy (np. domyślny formularz w trakcie kampanii).
+ * To nie jest cache – po zakończeniu liczenia wpis znika, kolejne żądanie liczy od nowa.
+ *
+ * Metryki: pension.calculation.singleflight{result=executed|coalesced}, pension.calculation.inflight.
+ */
+@Component
+public class CalculationSingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public CalculationSingleFlight(MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("pension.calculation.singleflight")
+                .description("Calculations computed by the request that started them")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("pension.calculation.singleflight")
+                .description("Requests served by joining an identical in-flight calculation")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("pension.calculation.inflight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct calculations currently in flight")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> work) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return (T) join(running);
+        }
+
+        executed.increment();
+        try {
+            T value = work.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // ten sam wyjątek co u żądania, które liczyło
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationSnapshotDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Zapis pełnej kalkulacji (żądanie + wynik z osiami czasu) do ponownego otwarcia po id.
+ * - Tabela boczna pension_calculation_snapshot: CBOR (ta sama konfiguracja Jacksona co API) skompresowany deflate –
+ *   typowy wynik 45 lat to kilka KB JSON → ok. 1 KB w bazie.
+ * - Przed bazą cache LRU zdekodowanych migawek; świeżo policzone wyniki trafiają do niego od razu (write-through),
+ *   więc otwarcie linku zaraz po kalkulacji nie dotyka bazy.
+ *
+ * Metryki: pension.snapshot.cache{result=hit|miss}.
+ */
+@Slf4j
+@Service
+public class CalculationSnapshotStore {
+
+    /** Wersja formatu payloadu (kolumna format) – pozwala zmienić kodowanie bez migracji starych wierszy. */
+    static final short FORMAT_CBOR_DEFLATE = 1;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO pension_calculation_snapshot (calculation_id, format, payload) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT format, payload FROM pension_calculation_snapshot WHERE calculation_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper cbor;
+    private final Map<UUID, PensionCalculationSnapshotDto> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CalculationSnapshotStore(JdbcTemplate jdbcTemplate,
+                                    Jackson2ObjectMapperBuilder builder,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${pension.snapshot.cache-size:2000}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cbor = builder.createXmlMapper(false).factory(new CBORFactory()).build();
+        this.cache = new LinkedHashMap<>(Math.max(16, cacheSize * 4 / 3 + 1), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, PensionCalculationSnapshotDto> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.hits = Counter.builder("pension.snapshot.cache")
+                .description("Calculation re-opens served from the in-memory cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("pension.snapshot.cache")
+                .description("Calculation re-opens read from the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /** Zapis migawki; błąd nie przerywa kalkulacji (wynik i tak wraca do klienta). */
+    public void save(UUID id, PensionCalculationRequestDto request, PensionCalculationResponseDto response) {
+        PensionCalculationSnapshotDto snapshot = new PensionCalculationSnapshotDto();
+        snapshot.setRequest(request);
+        snapshot.setResponse(response);
+        try {
+            jdbcTemplate.update(INSERT_SQL, id, FORMAT_CBOR_DEFLATE, encode(snapshot));
+            synchronized (cache) {
+                cache.put(id, snapshot);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Calculation snapshot {} not stored", id, e);
+        }
+    }
+
+    public Optional<PensionCalculationSnapshotDto> find(UUID id) {
+        synchronized (cache) {
+            PensionCalculationSnapshotDto cached = cache.get(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        misses.increment();
+        List<PensionCalculationSnapshotDto> rows = jdbcTemplate.query(SELECT_SQL,
+                (rs, i) -> decode(rs.getShort(1), rs.getBytes(2)), id);
+        if (rows.isEmpty()) return Optional.empty();
+        PensionCalculationSnapshotDto snapshot = rows.get(0);
+        synchronized (cache) {
+            cache.put(id, snapshot);
+        }
+        return Optional.of(snapshot);
+    }
+
+    byte[] encode(PensionCalculationSnapshotDto snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2048);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            cbor.writeValue(out, snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode calculation snapshot", e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    PensionCalculationSnapshotDto decode(short format, byte[] payload) {
+        if (format != FORMAT_CBOR_DEFLATE) {
+            throw new IllegalStateException("Unknown calculation snapshot format: " + format);
+        }
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(payload))) {
+            return cbor.readValue(in, PensionCalculationSnapshotDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decode calculation snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Kolumnowy eksport danych użycia (format PCOL) – dane grupowane w bloki wierszy, w bloku każda kolumna
+ * osobno kompresowana deflate; narzędzia analityczne czytają tylko potrzebne kolumny.
+ *
+ * Układ pliku (big-endian):
+ * <pre>
+ * "PCOL" u8 wersja=1
+ * u16 liczba kolumn; dla każdej: nazwa (DataOutput.writeUTF), u8 typ
+ * bloki: i32 liczba wierszy (&gt; 0), potem dla każdej kolumny: i32 długość, deflate(bitmapa nulli + wartości)
+ * i32 0 – koniec pliku
+ * </pre>
+ * Bitmapa nulli: ceil(n/8) bajtów, bit (LSB pierwszy) = 1 → null. Wartości tylko dla wierszy nie-null:
+ * TIMESTAMP – zigzag varint różnicy mikrosekund epoki do poprzedniej wartości w bloku (pierwsza od 0),
+ * FLOAT64 – 8 bajtów IEEE 754, INT32 – 4 bajty, BOOL – 1 bajt, STRING – varint długości + UTF-8.
+ */
+public final class ColumnarReportWriter implements AutoCloseable {
+
+    public enum Type {
+        TIMESTAMP(1), FLOAT64(2), INT32(3), BOOL(4), STRING(5);
+
+        private final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        public int code() {
+            return code;
+        }
+    }
+
+    public record Column(String name, Type type) {}
+
+    static final byte[] MAGIC = {'P', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final Column[] columns;
+    private final ColumnBuffer[] buffers;
+    private final int rowGroupSize;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private int rows;
+    private int column;
+
+    public ColumnarReportWriter(OutputStream out, List<Column> columns, int rowGroupSize) throws IOException {
+        if (columns.isEmpty() || columns.size() > 0xFFFF) throw new IllegalArgumentException("1..65535 columns expected");
+        if (rowGroupSize <= 0) throw new IllegalArgumentException("rowGroupSize must be > 0");
+        this.out = new DataOutputStream(out);
+        this.columns = columns.toArray(Column[]::new);
+        this.rowGroupSize = rowGroupSize;
+        this.buffers = new ColumnBuffer[this.columns.length];
+        for (int i = 0; i < buffers.length; i++) buffers[i] = new ColumnBuffer(rowGroupSize);
+
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeShort(this.columns.length);
+        for (Column c : this.columns) {
+            this.out.writeUTF(c.name());
+            this.out.writeByte(c.type().code());
+        }
+    }
+
+    public ColumnarReportWriter putTimestamp(Instant value) throws IOException {
+        ColumnBuffer buffer = next(Type.TIMESTAMP, value == null);
+        if (value != null) {
+            long micros = Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000L), value.getNano() / 1_000);
+            writeVarLong(buffer.values, zigzag(micros - buffer.previous));
+            buffer.previous = micros;
+        }
+        return this;
+    }
+
+    public ColumnarReportWriter putDouble(double value) throws IOException {
+        next(Type.FLOAT64, false).values.writeDouble(value);
+        return this;
+    }
+
+    public ColumnarReportWriter putInt(int value) throws IOException {
+        next(Type.INT32, false).values.writeInt(value);
+        return this;
+    }
+
+    public ColumnarReportWriter putBoolean(boolean value) throws IOException {
+        next(Type.BOOL, false).values.writeByte(value ? 1 : 0);
+        return this;
+    }
+
+    public ColumnarReportWriter putString(String value) throws IOException {
+        ColumnBuffer buffer = next(Type.STRING, value == null);
+        if (value != null) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(buffer.values, utf8.length);
+            buffer.values.write(utf8);
+        }
+        return this;
+    }
+
+    /** Null w bieżącej kolumnie (dowolnego typu). */
+    public ColumnarReportWriter putNull() {
+        next(null, true);
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        if (column != columns.length) {
+            throw new IllegalStateException("Row has " + column + " values, expected " + columns.length);
+        }
+        column = 0;
+        if (++rows == rowGroupSize) flushRowGroup();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (column != 0) throw new IllegalStateException("Unfinished row");
+            if (rows > 0) flushRowGroup();
+            out.writeInt(0);
+            out.flush();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private ColumnBuffer next(Type type, boolean isNull) {
+        if (column == columns.length) throw new IllegalStateException("Row already complete, call endRow()");
+        if (type != null && columns[column].type() != type) {
+            throw new IllegalStateException("Column " + columns[column].name() + " is " + columns[column].type() + ", got " + type);
+        }
+        ColumnBuffer buffer = buffers[column++];
+        if (isNull) buffer.nulls[rows >>> 3] |= (byte) (1 << (rows & 7));
+        return buffer;
+    }
+
+    private void flushRowGroup() throws IOException {
+        out.writeInt(rows);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        for (ColumnBuffer buffer : buffers) {
+            compressed.reset();
+            deflater.reset();
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater, 8192)) {
+                deflate.write(buffer.nulls, 0, (rows + 7) >>> 3);
+                buffer.bytes.writeTo(deflate);
+            }
+            out.writeInt(compressed.size());
+            compressed.writeTo(out);
+            buffer.reset();
+        }
+        rows = 0;
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static final class ColumnBuffer {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 14);
+        final DataOutputStream values = new DataOutputStream(bytes);
+        final byte[] nulls;
+        long previous;
+
+        ColumnBuffer(int rowGroupSize) {
+            nulls = new byte[(rowGroupSize + 7) >>> 3];
+        }
+
+        void reset() {
+            bytes.reset();
+            Arrays.fill(nulls, (byte) 0);
+            previous = 0;
+        }
+    }
+}
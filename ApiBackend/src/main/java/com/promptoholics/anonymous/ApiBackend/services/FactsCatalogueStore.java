@@ -0,0 +1,97 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import com.promptoholics.anonymous.ApiBackend.domain.facts.FactsCatalogue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Źródło katalogu ciekawostek.
+ * - Plik z dysku (facts.catalogue.path) jest mapowany do pamięci (mmap) – treści nie trafiają na stertę.
+ * - Brak pliku → katalog dołączony do aplikacji (classpath).
+ * - Zmiana pliku → nowy katalog budowany w tle i publikowany atomowo; czytelnicy nigdy nie czekają.
+ *
+ * Plik należy podmieniać atomowo (zapis do pliku tymczasowego + mv), a nie nadpisywać w miejscu.
+ */
+@Slf4j
+@Service
+public class FactsCatalogueStore {
+
+    private static final String BUNDLED_CATALOGUE = "facts/facts-catalogue.tsv";
+
+    private final Path cataloguePath;
+    private final AtomicReference<FactsCatalogue> current = new AtomicReference<>();
+    private volatile FileTime loadedModifiedTime;
+
+    public FactsCatalogueStore(@Value("${facts.catalogue.path:}") String cataloguePath) {
+        this.cataloguePath = cataloguePath == null || cataloguePath.isBlank() ? null : Path.of(cataloguePath);
+        current.set(load());
+        log.info("Facts catalogue {} loaded (locales: {})", current.get().version(), current.get().locales());
+    }
+
+    public FactsCatalogue current() {
+        return current.get();
+    }
+
+    @Scheduled(fixedDelayString = "${facts.catalogue.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (cataloguePath == null || !Files.isRegularFile(cataloguePath)) return;
+        try {
+            FileTime modified = Files.getLastModifiedTime(cataloguePath);
+            if (modified.equals(loadedModifiedTime)) return;
+
+            FactsCatalogue previous = current.get();
+            FactsCatalogue reloaded = load();
+            if (reloaded.contentHash() == previous.contentHash()) {
+                // ta sama treść (np. touch) – zostaje poprzedni katalog, ETagi i talie sesji bez zmian
+                log.debug("Facts catalogue {} touched but unchanged", previous.version());
+                return;
+            }
+            current.set(reloaded);
+            log.info("Facts catalogue reloaded: {} -> {}", previous.version(), reloaded.version());
+        } catch (IOException | RuntimeException e) {
+            // zostajemy przy poprzedniej wersji – uszkodzony plik nie może wyłączyć endpointu
+            log.warn("Facts catalogue reload from {} failed, keeping {}", cataloguePath, current.get().version(), e);
+        }
+    }
+
+    private FactsCatalogue load() {
+        try {
+            if (cataloguePath != null && Files.isRegularFile(cataloguePath)) {
+                FileTime modified = Files.getLastModifiedTime(cataloguePath);
+                FactsCatalogue catalogue = FactsCatalogue.parse(map(cataloguePath), Instant.now());
+                loadedModifiedTime = modified;
+                return catalogue;
+            }
+            if (cataloguePath != null) {
+                log.warn("Facts catalogue {} not found, using bundled catalogue", cataloguePath);
+            }
+            try (InputStream in = new ClassPathResource(BUNDLED_CATALOGUE).getInputStream()) {
+                return FactsCatalogue.parse(ByteBuffer.wrap(in.readAllBytes()), Instant.now());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load facts catalogue", e);
+        }
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // mapowanie pozostaje ważne po zamknięciu kanału
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
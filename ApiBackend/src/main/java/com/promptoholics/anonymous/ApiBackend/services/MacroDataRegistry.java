@@ -0,0 +1,102 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataLoader;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Aktywna migawka danych makro i tablic GUS ({@link MacroSnapshot}).
+ * - macro-data.path wskazuje katalog z podkatalogami wersji (np. 2025.10.05/, 2026.01.15/),
+ *   aktywna jest najwyższa wersja; brak katalogu → zestaw dołączony do aplikacji.
+ * - Nowa wersja jest wczytywana w tle i podmieniana atomowo – odczyt nie bierze żadnej blokady,
+ *   a kalkulacja w toku liczy dalej na migawce pobranej na starcie.
+ * - Przeładowania (harmonogram + endpoint admina) są serializowane między sobą.
+ * - Katalog wersji jest parsowany tylko wtedy, gdy zmienił się on sam albo jego pliki (ścieżka, mtime, rozmiar);
+ *   poprawiony zestaw z tą samą wersją w manifeście zastępuje aktywny.
+ */
+@Slf4j
+@Service
+public class MacroDataRegistry {
+
+    static final String BUNDLED = "bundled";
+
+    private final Path root;
+    private final AtomicReference<MacroSnapshot> current = new AtomicReference<>();
+    /** Ostatnio wczytywany katalog wersji (także nieudanie – uszkodzony zestaw czeka na zmianę plików). */
+    private volatile DirStamp lastLoaded;
+
+    public MacroDataRegistry(@Value("${macro-data.path:}") String root) {
+        this.root = root == null || root.isBlank() ? null : Path.of(root);
+        current.set(loadLatest().orElseGet(() -> MacroSnapshot.of(MacroDataLoader.bundled(), BUNDLED)));
+        log.info("Macro data {} active", current.get());
+    }
+
+    public MacroSnapshot current() {
+        return current.get();
+    }
+
+    @Scheduled(fixedDelayString = "${macro-data.reload-interval-ms:60000}")
+    public void reloadIfNewer() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // uszkodzony zestaw nie może zatrzymać kalkulacji – zostajemy przy aktywnej wersji
+            log.warn("Macro data reload from {} failed, keeping {}", root, current.get().version(), e);
+        }
+    }
+
+    /**
+     * Wczytuje najnowszy katalog wersji, jeśli zmienił się od ostatniego wczytania, i aktywuje go,
+     * jeśli ma wersję nie starszą od bieżącej (ta sama wersja = poprawiony zestaw).
+     * Błąd wczytania jest propagowany (aktywna migawka pozostaje bez zmian).
+     *
+     * @return true, jeśli migawka została podmieniona
+     */
+    public synchronized boolean reload() {
+        Optional<MacroSnapshot> candidate = loadLatest();
+        if (candidate.isEmpty()) return false;
+        MacroSnapshot active = current.get();
+        if (MacroDataLoader.compareVersions(candidate.get().version(), active.version()) < 0) return false;
+        current.set(candidate.get());
+        log.info("Macro data swapped: {} -> {}", active.version(), candidate.get().version());
+        return true;
+    }
+
+    private Optional<MacroSnapshot> loadLatest() {
+        Optional<Path> latest = MacroDataLoader.latestVersionDir(root);
+        if (latest.isEmpty()) return Optional.empty();
+        DirStamp stamp = DirStamp.of(latest.get());
+        if (stamp.equals(lastLoaded)) return Optional.empty();
+        lastLoaded = stamp;
+        return Optional.of(MacroSnapshot.of(MacroDataLoader.load(latest.get()), latest.get().toString()));
+    }
+
+    /** Stan katalogu wersji: ścieżka, najpóźniejszy mtime i łączny rozmiar plików. */
+    private record DirStamp(Path dir, long lastModifiedMillis, long totalBytes) {
+        static DirStamp of(Path dir) {
+            long lastModified = 0;
+            long bytes = 0;
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    lastModified = Math.max(lastModified, Files.getLastModifiedTime(file).toMillis());
+                    bytes += Files.isRegularFile(file) ? Files.size(file) : 0;
+                }
+                lastModified = Math.max(lastModified, Files.getLastModifiedTime(dir).toMillis());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read macro data directory " + dir, e);
+            }
+            return new DirStamp(dir.toAbsolutePath().normalize(), lastModified, bytes);
+        }
+    }
+}
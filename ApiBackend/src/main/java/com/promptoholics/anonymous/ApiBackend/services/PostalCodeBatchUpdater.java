@@ -0,0 +1,180 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Zbiorcza zmiana kodów pocztowych bez ładowania encji.
+ * - Od razu jeden batch UPDATE ... WHERE id = ? AND (expectedVersion IS NULL OR version = expectedVersion) –
+ *   ta sama kontrola wersji co @Version w JPA; bez oczekiwanej wersji zmiana wygrywa (ostatni zapis).
+ * - Ponowny odczyt (id, version, postal_code) tylko dla pozycji, których wyniku nie rozstrzyga liczba wierszy:
+ *   0 (NOT_FOUND czy CONFLICT z aktualną wersją), SUCCESS_NO_INFO i zmiany bez expectedVersion (nowa wersja).
+ * - Wynik per pozycja: UPDATED / CONFLICT (wiersz zmienił się w międzyczasie) / NOT_FOUND / INVALID.
+ */
+@Slf4j
+@Service
+public class PostalCodeBatchUpdater {
+
+    private static final String UPDATE_SQL =
+            "UPDATE pension_calculation SET postal_code = ?, postal_code_num = ?, region_id = ?, version = version + 1 "
+                    + "WHERE id = ? AND (CAST(? AS INTEGER) IS NULL OR version = ?)";
+
+    public enum Status { UPDATED, CONFLICT, NOT_FOUND, INVALID }
+
+    public record Item(String calculationId, String postalCode, Integer expectedVersion) { }
+
+    /** version – wersja wiersza po zmianie (UPDATED) albo aktualna wersja w bazie (CONFLICT). */
+    public record ItemResult(String calculationId, Status status, String postalCode, Integer version, String message) { }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostalCodeDirectory postalCodeDirectory;
+    private final int maxItems;
+
+    public PostalCodeBatchUpdater(JdbcTemplate jdbcTemplate,
+                                  PostalCodeDirectory postalCodeDirectory,
+                                  @Value("${postal.batch.max-items:1000}") int maxItems) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postalCodeDirectory = postalCodeDirectory;
+        this.maxItems = maxItems;
+    }
+
+    @Transactional
+    public List<ItemResult> update(List<Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("items must not be empty");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most %d items per request".formatted(maxItems));
+        }
+
+        ItemResult[] results = new ItemResult[items.size()];
+        UUID[] ids = new UUID[items.size()];
+        PostalCodeDirectory.Encoded[] encoded = new PostalCodeDirectory.Encoded[items.size()];
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            UUID id = parseId(item.calculationId());
+            if (id == null) {
+                results[i] = invalid(item, "calculationId must be a UUID");
+                continue;
+            }
+            if (!seen.add(id)) {
+                results[i] = invalid(item, "Duplicate calculationId in batch");
+                continue;
+            }
+            PostalCodeDirectory.Encoded e = postalCodeDirectory.encode(item.postalCode());
+            if (!e.valid()) {
+                results[i] = invalid(item, "postalCode must be a Polish postal code (NN-NNN)");
+                continue;
+            }
+            ids[i] = id;
+            encoded[i] = e;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        int[] batchIndex = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) continue;
+            Integer expected = items.get(i).expectedVersion();
+            batchIndex[batch.size()] = i;
+            batch.add(new Object[]{encoded[i].postalCode(), encoded[i].code(), encoded[i].regionId(), ids[i], expected, expected});
+        }
+
+        if (!batch.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            // odczyt tylko tam, gdzie liczba wierszy nie wystarcza: 0 (brak czy konflikt?), SUCCESS_NO_INFO
+            // i zmiana bez expectedVersion (nowej wersji nie znamy)
+            Set<UUID> reread = new HashSet<>();
+            for (int b = 0; b < counts.length; b++) {
+                int i = batchIndex[b];
+                if (counts[b] <= 0 || items.get(i).expectedVersion() == null) reread.add(ids[i]);
+            }
+            Map<UUID, Row> after = reread.isEmpty() ? Collections.emptyMap() : currentRows(reread);
+            for (int b = 0; b < counts.length; b++) {
+                int i = batchIndex[b];
+                results[i] = outcome(items.get(i), counts[b], after.get(ids[i]), encoded[i].postalCode());
+            }
+        }
+
+        List<ItemResult> out = List.of(results);
+        if (log.isDebugEnabled()) {
+            log.debug("Postal code batch: {} items, {} updated", out.size(),
+                    out.stream().filter(r -> r.status() == Status.UPDATED).count());
+        }
+        return out;
+    }
+
+    /** Wynik pozycji z liczby zmienionych wierszy i (gdy potrzebny) wiersza odczytanego po batchu. */
+    private static ItemResult outcome(Item item, int count, Row row, String postalCode) {
+        Integer expected = item.expectedVersion();
+        boolean updated;
+        if (count == Statement.SUCCESS_NO_INFO) {
+            // sterownik nie podał liczby wierszy – bez kontroli wersji UPDATE trafia w każdy istniejący wiersz
+            updated = row != null && (expected == null || row.isUpdatedTo(expected + 1, postalCode));
+        } else {
+            updated = count > 0;
+        }
+        if (updated) {
+            return new ItemResult(item.calculationId(), Status.UPDATED, postalCode,
+                    expected != null ? expected + 1 : row.version(), null);
+        }
+        if (row == null) {
+            return new ItemResult(item.calculationId(), Status.NOT_FOUND, null, null,
+                    "Calculation with id = %s not found".formatted(item.calculationId()));
+        }
+        return conflict(item, row.version());
+    }
+
+    /**
+     * Wiersze po batchu. Nasz UPDATE trzyma blokadę wiersza do końca transakcji, więc wersja o 1 wyższa
+     * i nasz kod oznaczają naszą zmianę; inna wersja albo inny kod – zmianę równoległą przed batchem.
+     * Brak wiersza – NOT_FOUND.
+     */
+    private Map<UUID, Row> currentRows(Set<UUID> ids) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<UUID, Row> rows = new HashMap<>(ids.size() * 2);
+        jdbcTemplate.query("SELECT id, version, postal_code FROM pension_calculation WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    rows.put(rs.getObject(1, UUID.class), new Row(rs.getInt(2), rs.getString(3)));
+                },
+                ids.toArray());
+        return rows;
+    }
+
+    private record Row(int version, String postalCode) {
+        boolean isUpdatedTo(int expectedVersion, String expectedPostalCode) {
+            return version == expectedVersion && expectedPostalCode.equals(postalCode);
+        }
+    }
+
+    private static UUID parseId(String raw) {
+        if (raw == null) return null;
+        try {
+            return UUID.fromString(raw.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ItemResult invalid(Item item, String message) {
+        return new ItemResult(item.calculationId(), Status.INVALID, null, null, message);
+    }
+
+    private static ItemResult conflict(Item item, Integer currentVersion) {
+        return new ItemResult(item.calculationId(), Status.CONFLICT, null, currentVersion,
+                "Calculation was modified concurrently");
+    }
+}
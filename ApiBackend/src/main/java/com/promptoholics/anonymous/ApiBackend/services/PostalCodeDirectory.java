@@ -0,0 +1,134 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationEntity;
+import com.promptoholics.anonymous.ApiBackend.domain.postal.PostalCodeIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kody pocztowe: normalizacja, słownikowanie i region (województwo / powiat).
+ * - Indeks wczytywany z postal.regions.path (CSV zakresów PNA) lub z zestawu dołączonego do aplikacji.
+ * - Przy zapisie kalkulacji kod trafia do bazy w postaci kanonicznej ("43-100") razem z liczbą
+ *   (postal_code_num) i id regionu (region_id) – raporty grupują po liczbach, bez parsowania tekstu.
+ * - Po starcie uzupełniane są wiersze zapisane przed wprowadzeniem słownikowania – z kontrolą wersji
+ *   (jak każda zmiana kodu), więc równoległa edycja nie ginie, a odciski raportów widzą zmianę.
+ *   Kody nie do sparsowania dostają postal_code_num = {@value #UNPARSEABLE}, żeby nie wracały przy każdym starcie.
+ */
+@Slf4j
+@Service
+public class PostalCodeDirectory {
+
+    private static final String BUNDLED_REGIONS = "postal/postal-regions.csv";
+    private static final String BACKFILL_SELECT =
+            "SELECT id, version, postal_code FROM pension_calculation "
+                    + "WHERE postal_code_num IS NULL AND postal_code IS NOT NULL AND postal_code <> ''";
+    private static final String BACKFILL_UPDATE =
+            "UPDATE pension_calculation SET postal_code = ?, postal_code_num = ?, region_id = ?, version = version + 1 "
+                    + "WHERE id = ? AND version = ?";
+
+    /** postal_code_num kodu, którego nie da się sparsować (NULL = jeszcze nie słownikowany). */
+    public static final int UNPARSEABLE = -1;
+
+    /** Kod po normalizacji: postalCode kanoniczny (lub oryginał, gdy niepoprawny), code/regionId null, gdy niepoprawny. */
+    public record Encoded(String postalCode, Integer code, Short regionId) {
+        public boolean valid() {
+            return code != null;
+        }
+    }
+
+    private final PostalCodeIndex index;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostalCodeDirectory(@Value("${postal.regions.path:}") String regionsPath, JdbcTemplate jdbcTemplate) {
+        this.index = load(regionsPath);
+        this.jdbcTemplate = jdbcTemplate;
+        log.info("Postal code index {} loaded ({} regions)", index.version(), index.regionCount());
+    }
+
+    public PostalCodeIndex index() {
+        return index;
+    }
+
+    public Encoded encode(String raw) {
+        if (raw == null || raw.isBlank()) return new Encoded(raw == null ? null : "", null, null);
+        int code = PostalCodeIndex.normalize(raw);
+        if (code < 0) return new Encoded(raw.trim(), null, null);
+        return new Encoded(PostalCodeIndex.format(code), code, (short) index.regionId(code));
+    }
+
+    /** Jak {@link #encode}, ale niepoprawny kod to błąd (edycja kodu przez użytkownika). */
+    public Encoded encodeStrict(String raw) {
+        Encoded encoded = encode(raw);
+        if (!encoded.valid()) {
+            throw new IllegalArgumentException("postalCode must be a Polish postal code (NN-NNN)");
+        }
+        return encoded;
+    }
+
+    /** Ustawia kod w encji (tekst kanoniczny + kod słownikowy + region). */
+    public void applyTo(PensionCalculationEntity entity, String raw) {
+        applyTo(entity, encode(raw));
+    }
+
+    public void applyTo(PensionCalculationEntity entity, Encoded encoded) {
+        entity.setPostalCode(encoded.postalCode());
+        entity.setPostalCodeNum(codeColumn(encoded));
+        entity.setRegionId(encoded.regionId());
+    }
+
+    /** Wartość postal_code_num: kod, {@value #UNPARSEABLE} dla niepoprawnego tekstu, NULL bez kodu. */
+    static Integer codeColumn(Encoded encoded) {
+        if (encoded.valid()) return encoded.code();
+        return encoded.postalCode() == null || encoded.postalCode().isEmpty() ? null : UNPARSEABLE;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLegacyRows() {
+        try {
+            List<Object[]> updates = new ArrayList<>();
+            jdbcTemplate.query(BACKFILL_SELECT, rs -> {
+                Encoded e = encode(rs.getString(3));
+                updates.add(new Object[]{e.postalCode(), codeColumn(e), e.regionId(), rs.getObject(1), rs.getInt(2)});
+            });
+            if (updates.isEmpty()) return;
+            int updated = 0;
+            for (int count : jdbcTemplate.batchUpdate(BACKFILL_UPDATE, updates)) {
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) updated++;
+            }
+            // wiersze zmienione w międzyczasie pomijamy – edycja i tak zapisała kod w postaci kanonicznej
+            log.info("Postal codes encoded for {} of {} existing calculations", updated, updates.size());
+        } catch (RuntimeException e) {
+            // brak słownikowania starszych wierszy nie blokuje aplikacji – trafią do regionu „nieznane”
+            log.warn("Postal code backfill failed", e);
+        }
+    }
+
+    private static PostalCodeIndex load(String regionsPath) {
+        try {
+            if (regionsPath != null && !regionsPath.isBlank()) {
+                Path path = Path.of(regionsPath);
+                return PostalCodeIndex.parse(path.getFileName().toString(),
+                        Files.newBufferedReader(path, StandardCharsets.UTF_8));
+            }
+            return PostalCodeIndex.parse("bundled",
+                    new InputStreamReader(new ClassPathResource(BUNDLED_REGIONS).getInputStream(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read postal code regions", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raporty XLS (/admin/reports/xls) jako pliki na dysku zamiast tablic bajtów na stercie.
+ * - Nazwa pliku zawiera odcisk danych zakresu – dopóki dane się nie zmieniły, ponowne pobranie
+ *   nie generuje raportu od nowa, tylko serwuje istniejący plik (sendfile / X-Accel-Redirect).
+ * - Zapis do unikalnego *.part i atomowe przemianowanie – czytelnik nigdy nie widzi niedokończonego pliku,
+ *   a dwa równoległe generowania nie piszą do tego samego pliku tymczasowego.
+ * - Pliki nieużywane dłużej niż reports.files.ttl usuwane cyklicznie: TTL liczony od ostatniego wydania
+ *   pliku (nie od utworzenia, a mtime zostaje – ETag/Last-Modified i wznowienia Range nadal pasują),
+ *   i nigdy krótszy niż jeden cykl sprzątania – plik właśnie zwrócony do wysłania nie znika przed otwarciem.
+ */
+@Slf4j
+@Service
+public class ReportFileStore {
+
+    private final ReportService reportService;
+    private final Path directory;
+    private final Duration retention;
+    private final ConcurrentHashMap<String, Object> generating = new ConcurrentHashMap<>();
+    /** Nazwa pliku → ostatnie wydanie; zmiany i decyzja o usunięciu pod kluczem (compute), bez wyścigu. */
+    private final ConcurrentHashMap<String, Instant> lastServed = new ConcurrentHashMap<>();
+
+    public ReportFileStore(ReportService reportService,
+                           @Value("${reports.files.dir:${java.io.tmpdir}/pension-reports/xls}") String directory,
+                           @Value("${reports.files.ttl:PT1H}") Duration ttl,
+                           @Value("${reports.files.cleanup-interval-ms:60000}") long cleanupIntervalMs) {
+        this.reportService = reportService;
+        this.directory = Path.of(directory);
+        Duration interval = Duration.ofMillis(cleanupIntervalMs);
+        this.retention = ttl.compareTo(interval) >= 0 ? ttl : interval;
+        prepareDirectory();
+    }
+
+    /** Plik raportu XLS dla zakresu – istniejący, jeśli dane od tamtej pory się nie zmieniły. */
+    public Path xlsReport(LocalDate dateFrom, LocalDate dateTo) throws IOException {
+        String name = "admin-report-" + dateFrom + "_" + dateTo + "-"
+                + digest(reportService.fingerprint(dateFrom, dateTo)) + ".xls";
+        Path target = directory.resolve(name);
+        if (reuse(name, target)) return target;
+
+        // jedno generowanie na plik; równoległe żądania tego samego zakresu czekają na wynik
+        Object lock = generating.computeIfAbsent(name, k -> new Object());
+        try {
+            synchronized (lock) {
+                if (reuse(name, target)) return target;
+                long started = System.nanoTime();
+                // unikalny plik tymczasowy: po błędzie kolejny wywołujący może generować obok czekającego
+                Path part = directory.resolve(name + "." + UUID.randomUUID() + ".part");
+                try (OutputStream out = new BufferedOutputStream(
+                        Files.newOutputStream(part, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024)) {
+                    reportService.writeXls(dateFrom, dateTo, out);
+                } catch (IOException | RuntimeException e) {
+                    deleteQuietly(part);
+                    throw e;
+                }
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                lastServed.put(name, Instant.now());
+                log.info("XLS report {} written: {} bytes in {} ms", name, Files.size(target),
+                        (System.nanoTime() - started) / 1_000_000);
+                return target;
+            }
+        } finally {
+            generating.remove(name, lock);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reports.files.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.xls")) {
+            for (Path file : files) {
+                lastServed.compute(file.getFileName().toString(), (name, served) -> {
+                    Instant used = lastModified(file);
+                    if (served != null && served.isAfter(used)) used = served;
+                    if (!used.isBefore(cutoff)) return served;
+                    deleteQuietly(file);
+                    return null;
+                });
+            }
+        } catch (IOException e) {
+            log.warn("Report files cleanup failed in {}", directory, e);
+        }
+    }
+
+    /** Istniejący plik – zapamiętuje wydanie (pod kluczem, więc sprzątanie nie usunie go w tej chwili). */
+    private boolean reuse(String name, Path target) {
+        return lastServed.compute(name, (k, served) -> Files.exists(target) ? Instant.now() : null) != null;
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH; // plik zniknął – i tak do usunięcia
+        }
+    }
+
+    private void prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*.part")) {
+                for (Path file : stale) deleteQuietly(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare report directory " + directory, e);
+        }
+    }
+
+    private static String digest(String fingerprint) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete report file {}", file, e);
+        }
+    }
+}
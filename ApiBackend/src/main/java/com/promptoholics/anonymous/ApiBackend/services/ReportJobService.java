@@ -0,0 +1,246 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchroniczne generowanie raportów admina.
+ * - Ograniczona pula wątków z ograniczoną kolejką – przy pełnej kolejce zgłoszenie jest odrzucane
+ *   (zamiast wiązać wątki HTTP na czas generowania, jak w /admin/reports/xls).
+ * - Raport zapisywany strumieniowo do pliku tymczasowego (*.part), po sukcesie atomowo przemianowany.
+ * - Ten sam zakres i format → to samo zadanie, dopóki nie wygasło (i nie zakończyło się błędem).
+ * - Gotowe pliki usuwane po reports.jobs.ttl od zakończenia; stan zadań tylko w pamięci – pliki
+ *   z poprzedniego uruchomienia są czyszczone na starcie.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    public enum Format {
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        /** RFC 4180 CSV, gzip. */
+        CSV_GZIP("csv.gz", "application/gzip"),
+        /** Format kolumnowy PCOL ({@link ColumnarReportWriter}). */
+        COLUMNAR("pcol", "application/vnd.promptoholics.pension-columnar");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+    }
+
+    /** Stan zadania; pola zmieniane tylko przez wątek roboczy, czytane przez żądania statusu. */
+    public static final class Job {
+        private final UUID id;
+        private final String key;
+        private final LocalDate dateFrom;
+        private final LocalDate dateTo;
+        private final Format format;
+        private final Instant createdAt = Instant.now();
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private volatile Status status = Status.QUEUED;
+        private volatile long rowsTotal = -1;
+        private volatile long sizeBytes = -1;
+        private volatile Instant finishedAt;
+        private volatile Instant expiresAt;
+        private volatile Path file;
+        private volatile String error;
+
+        private Job(String key, LocalDate dateFrom, LocalDate dateTo, Format format) {
+            this.id = UUID.randomUUID();
+            this.key = key;
+            this.dateFrom = dateFrom;
+            this.dateTo = dateTo;
+            this.format = format;
+        }
+
+        public UUID id() { return id; }
+        public LocalDate dateFrom() { return dateFrom; }
+        public LocalDate dateTo() { return dateTo; }
+        public Format format() { return format; }
+        public Instant createdAt() { return createdAt; }
+        public Status status() { return status; }
+        public long rowsWritten() { return rowsWritten.get(); }
+        /** -1, dopóki liczba wierszy nie jest znana. */
+        public long rowsTotal() { return rowsTotal; }
+        public long sizeBytes() { return sizeBytes; }
+        public Instant finishedAt() { return finishedAt; }
+        public Instant expiresAt() { return expiresAt; }
+        public String error() { return error; }
+        /** Plik raportu; tylko dla DONE. */
+        public Path file() { return file; }
+
+        public double progress() {
+            if (status == Status.DONE) return 1.0;
+            long total = rowsTotal;
+            return total <= 0 ? 0.0 : Math.min(1.0, rowsWritten.get() / (double) total);
+        }
+
+        boolean expired(Instant now) {
+            Instant expires = expiresAt;
+            return expires != null && !now.isBefore(expires);
+        }
+    }
+
+    private final ReportService reportService;
+    private final Path directory;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Job> jobsByKey = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportService reportService,
+                            @Value("${reports.jobs.dir:${java.io.tmpdir}/pension-reports/jobs}") String directory,
+                            @Value("${reports.jobs.workers:2}") int workers,
+                            @Value("${reports.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${reports.jobs.ttl:PT1H}") Duration ttl) {
+        this.reportService = reportService;
+        this.directory = Path.of(directory);
+        this.ttl = ttl;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "report-worker-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        prepareDirectory();
+    }
+
+    /** Nowe zadanie albo istniejące dla tego samego zakresu i formatu. */
+    public Job submit(LocalDate dateFrom, LocalDate dateTo, Format format) {
+        if (dateFrom == null || dateTo == null) throw new IllegalArgumentException("dateFrom and dateTo are required");
+        if (dateFrom.isAfter(dateTo)) throw new IllegalArgumentException("dateFrom must be <= dateTo");
+
+        String key = format + "|" + dateFrom + "|" + dateTo;
+        Instant now = Instant.now();
+        Job[] created = new Job[1];
+        Job job = jobsByKey.compute(key, (k, existing) -> {
+            if (existing != null && existing.status != Status.FAILED && !existing.expired(now)) return existing;
+            created[0] = new Job(k, dateFrom, dateTo, format);
+            return created[0];
+        });
+        if (created[0] == null) return job;
+
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            jobsByKey.remove(key, job);
+            throw new IllegalStateException("Report queue is full, try again later", e);
+        }
+        log.info("Report job {} queued: {} {}..{}", job.id, format, dateFrom, dateTo);
+        return job;
+    }
+
+    public Optional<Job> find(UUID id) {
+        Job job = jobs.get(id);
+        return job == null || job.expired(Instant.now()) ? Optional.empty() : Optional.of(job);
+    }
+
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        long started = System.nanoTime();
+        Path part = directory.resolve(job.id + "." + job.format.extension() + ".part");
+        Path target = directory.resolve(job.id + "." + job.format.extension());
+        try {
+            job.rowsTotal = reportService.countRows(job.dateFrom, job.dateTo);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                switch (job.format) {
+                    case XLSX -> reportService.writeXlsx(job.dateFrom, job.dateTo, out, job.rowsWritten::set);
+                    case CSV_GZIP -> reportService.writeCsvGzip(job.dateFrom, job.dateTo, out, job.rowsWritten::set);
+                    case COLUMNAR -> reportService.writeColumnar(job.dateFrom, job.dateTo, out, job.rowsWritten::set);
+                }
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.sizeBytes = Files.size(target);
+            job.file = target;
+            job.status = Status.DONE;
+            log.info("Report job {} done: {} rows, {} bytes in {} ms", job.id, job.rowsWritten(), job.sizeBytes,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.status = Status.FAILED;
+            deleteQuietly(part);
+            log.warn("Report job {} failed", job.id, e);
+        } finally {
+            job.finishedAt = Instant.now();
+            job.expiresAt = job.finishedAt.plus(ttl);
+        }
+    }
+
+    /** Usuwa wygasłe zadania i ich pliki. */
+    @Scheduled(fixedDelayString = "${reports.jobs.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        for (Job job : jobs.values()) {
+            if (!job.expired(now)) continue;
+            jobs.remove(job.id, job);
+            jobsByKey.remove(job.key, job);
+            if (job.file != null) deleteQuietly(job.file);
+            log.debug("Report job {} expired", job.id);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory)) {
+                for (Path file : stale) deleteQuietly(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare report directory " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete report file {}", file, e);
+        }
+    }
+}
@@ -4,19 +4,34 @@ import com.promptoholics.anonymous.ApiBackend.adapters.repository.PostgresPensio
 import com.promptoholics.anonymous.ApiBackend.domain.PensionCalculationEntity;
 import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationReportJsonDto;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.openapitools.jackson.nullable.JsonNullable;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +39,38 @@ public class ReportService {
     private static final ZoneId ZONE_POLAND = ZoneId.of("Europe/Warsaw");
     private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm:ss");
     private final PostgresPensionCalculationRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final int FETCH_SIZE = 5_000;
+    private static final int XLS_MAX_ROWS_PER_SHEET = 65_535; // bez wiersza nagłówka
+    private static final int XLSX_MAX_ROWS_PER_SHEET = 1_048_575;
+    private static final int[] COLUMN_WIDTHS = {12, 10, 14, 6, 6, 14, 8, 14, 14, 14, 10}; // w znakach
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM pension_calculation WHERE created_at >= ? AND created_at < ?";
+    private static final String FINGERPRINT_SQL =
+            "SELECT COUNT(*), MAX(created_at), COALESCE(SUM(version), 0) FROM pension_calculation "
+                    + "WHERE created_at >= ? AND created_at < ?"; // ten sam zakres co EXPORT_SQL
+    private static final String EXPORT_SQL =
+            "SELECT created_at, expected_pension, age, gender, salary_amount, included_sickness_periods, "
+                    + "accumulated_funds_total, actual_pension, inflation_adjusted_pension, postal_code "
+                    + "FROM pension_calculation WHERE created_at >= ? AND created_at < ? ORDER BY created_at";
+
+    private static final int COLUMNAR_ROW_GROUP = 65_536;
+    private static final String[] EXPORT_COLUMNS = {
+            "created_at", "expected_pension", "age", "gender", "salary_amount", "included_sickness_periods",
+            "accumulated_funds_total", "actual_pension", "inflation_adjusted_pension", "postal_code"
+    };
+    private static final List<ColumnarReportWriter.Column> COLUMNAR_COLUMNS = List.of(
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[0], ColumnarReportWriter.Type.TIMESTAMP),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[1], ColumnarReportWriter.Type.FLOAT64),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[2], ColumnarReportWriter.Type.INT32),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[3], ColumnarReportWriter.Type.STRING),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[4], ColumnarReportWriter.Type.FLOAT64),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[5], ColumnarReportWriter.Type.BOOL),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[6], ColumnarReportWriter.Type.FLOAT64),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[7], ColumnarReportWriter.Type.FLOAT64),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[8], ColumnarReportWriter.Type.FLOAT64),
+            new ColumnarReportWriter.Column(EXPORT_COLUMNS[9], ColumnarReportWriter.Type.STRING));
 
     private static final String[] HEADERS = {
             "Data użycia", "Godzina użycia", "Emerytura oczekiwana",
@@ -33,54 +80,227 @@ public class ReportService {
             "Kod pocztowy"
     };
 
-    public ByteArrayResource generateReportInMemory(LocalDate dateFrom, LocalDate dateTo) throws IOException {
-        Instant from = dateFrom.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        Instant to = dateTo.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+    /**
+     * Raport XLS (HSSF) zapisany do strumienia – np. prosto do pliku, bez kopii w tablicy bajtów. Wiersze z tego
+     * samego kursora co XLSX (bez encji); sam skoroszyt HSSF i tak żyje w pamięci, więc szerokości kolumn są stałe
+     * (autoSizeColumn przechodziłby po każdym wierszu), a powyżej limitu formatu – kolejny arkusz.
+     */
+    public void writeXls(LocalDate dateFrom, LocalDate dateTo, OutputStream out) throws IOException {
+        try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
+            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+            Sheet[] sheet = {newSheet(workbook, 1)};
+            int[] rowNum = {1};
 
-        return generateReport(repository.findAllByCreatedAtBetween(from, to));
-    }
+            streamRows(dateFrom, dateTo, rs -> {
+                if (rowNum[0] > XLS_MAX_ROWS_PER_SHEET) {
+                    sheet[0] = newSheet(workbook, workbook.getNumberOfSheets() + 1);
+                    rowNum[0] = 1;
+                }
+                writeRow(sheet[0].createRow(rowNum[0]++), rs, dateFormatter, timeFormatter);
+            });
 
-    private ByteArrayResource generateReport(List<PensionCalculationEntity> data) {
-        try (HSSFWorkbook workbook = new HSSFWorkbook();
-             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            workbook.write(out);
+        }
+    }
 
-            HSSFSheet sheet = workbook.createSheet("Raport");
+    /**
+     * Tani „odcisk” danych zakresu (liczba wierszy, max created_at, suma wersji – zmienia się także
+     * przy edycji kodu pocztowego); ten sam odcisk = ten sam raport.
+     */
+    public String fingerprint(LocalDate dateFrom, LocalDate dateTo) {
+        return jdbcTemplate.queryForObject(FINGERPRINT_SQL, (rs, i) ->
+                        rs.getLong(1) + "|" + rs.getTimestamp(2) + "|" + rs.getLong(3),
+                Timestamp.from(startOf(dateFrom)), Timestamp.from(startOf(dateTo.plusDays(1))));
+    }
 
-            HSSFRow headerRow = sheet.createRow(0);
-            for (int i = 0; i < HEADERS.length; i++) {
-                headerRow.createCell(i).setCellValue(HEADERS[i]);
-            }
+    public long countRows(LocalDate dateFrom, LocalDate dateTo) {
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class,
+                Timestamp.from(startOf(dateFrom)), Timestamp.from(startOf(dateTo.plusDays(1))));
+        return count != null ? count : 0;
+    }
 
+    /**
+     * Raport XLSX zapisywany strumieniowo: wiersze czytane kursorem JDBC (bez encji), arkusz przez SXSSF –
+     * w pamięci tylko okno ostatnich wierszy, reszta od razu na dysk. Szerokości kolumn stałe
+     * (autoSizeColumn wymagałby trzymania wszystkich wierszy). Powyżej limitu wierszy – kolejny arkusz.
+     *
+     * @param rowsWritten wołane co {@value #FETCH_SIZE} wierszy i na końcu (postęp zadania)
+     */
+    public long writeXlsx(LocalDate dateFrom, LocalDate dateTo, OutputStream out, LongConsumer rowsWritten) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(200);
+        workbook.setCompressTempFiles(true);
+        try {
             DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
             DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+            long[] written = {0};
+            Sheet[] sheet = {newSheet(workbook, 1)};
+            int[] rowNum = {1};
 
-            int rowNum = 1;
-            for (PensionCalculationEntity dto : data) {
-                HSSFRow row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(dateFormatter.format(dto.getCreatedAt()));
-                row.createCell(1).setCellValue(timeFormatter.format(dto.getCreatedAt()));
-                row.createCell(2).setCellValue(dto.getExpectedPension());
-                row.createCell(3).setCellValue(dto.getAge());
-                row.createCell(4).setCellValue(dto.getGender() != null ? dto.getGender() : "");
-                row.createCell(5).setCellValue(dto.getSalaryAmount());
-                row.createCell(6).setCellValue(Boolean.TRUE.equals(dto.isIncludedSicknessPeriods()) ? "TAK" : "NIE");
-                row.createCell(7).setCellValue(dto.getAccumulatedFundsTotal() != null ? dto.getAccumulatedFundsTotal() : 0);
-                row.createCell(8).setCellValue(dto.getActualPension() != null ? dto.getActualPension() : 0);
-                row.createCell(9).setCellValue(dto.getInflationAdjustedPension() != null ? dto.getInflationAdjustedPension() : 0);
-                row.createCell(10).setCellValue(dto.getPostalCode() != null ? dto.getPostalCode() : "");
-            }
-
-            for (int i = 0; i < HEADERS.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(bos);
-            return new ByteArrayResource(bos.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Błąd generowania raportu XLS", e);
+            streamRows(dateFrom, dateTo, rs -> {
+                if (rowNum[0] > XLSX_MAX_ROWS_PER_SHEET) {
+                    sheet[0] = newSheet(workbook, workbook.getNumberOfSheets() + 1);
+                    rowNum[0] = 1;
+                }
+                writeRow(sheet[0].createRow(rowNum[0]++), rs, dateFormatter, timeFormatter);
+                if (++written[0] % FETCH_SIZE == 0) rowsWritten.accept(written[0]);
+            });
+
+            workbook.write(out);
+            rowsWritten.accept(written[0]);
+            return written[0];
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
+    /**
+     * CSV (RFC 4180: przecinki, CRLF, cudzysłowy tylko gdy potrzebne) skompresowany gzip, z tego samego kursora
+     * co XLSX. Kolumny dla narzędzi analitycznych: created_at jako ISO-8601 UTC, liczby bez formatowania,
+     * NULL jako puste pole (XLS wpisuje 0).
+     */
+    public long writeCsvGzip(LocalDate dateFrom, LocalDate dateTo, OutputStream out, LongConsumer rowsWritten) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        Writer csv = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+        csv.write(String.join(",", EXPORT_COLUMNS));
+        csv.write("\r\n");
+        long[] written = {0};
+        try {
+            streamRows(dateFrom, dateTo, rs -> {
+                try {
+                    csv.write(rs.getTimestamp(1).toInstant().toString());
+                    csv.write(',');
+                    writeCsvNumber(csv, rs.getDouble(2), false);
+                    csv.write(',');
+                    csv.write(Integer.toString(rs.getInt(3)));
+                    csv.write(',');
+                    writeCsvText(csv, rs.getString(4));
+                    csv.write(',');
+                    writeCsvNumber(csv, rs.getDouble(5), false);
+                    csv.write(',');
+                    csv.write(rs.getBoolean(6) ? "true" : "false");
+                    csv.write(',');
+                    writeCsvNumber(csv, rs.getDouble(7), rs.wasNull());
+                    csv.write(',');
+                    writeCsvNumber(csv, rs.getDouble(8), rs.wasNull());
+                    csv.write(',');
+                    writeCsvNumber(csv, rs.getDouble(9), rs.wasNull());
+                    csv.write(',');
+                    writeCsvText(csv, rs.getString(10));
+                    csv.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % FETCH_SIZE == 0) rowsWritten.accept(written[0]);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+        gzip.finish();
+        rowsWritten.accept(written[0]);
+        return written[0];
+    }
+
+    /** Eksport kolumnowy (format opisany w {@link ColumnarReportWriter}), te same kolumny co CSV. */
+    public long writeColumnar(LocalDate dateFrom, LocalDate dateTo, OutputStream out, LongConsumer rowsWritten) throws IOException {
+        long[] written = {0};
+        try (ColumnarReportWriter writer = new ColumnarReportWriter(out, COLUMNAR_COLUMNS, COLUMNAR_ROW_GROUP)) {
+            streamRows(dateFrom, dateTo, rs -> {
+                try {
+                    writer.putTimestamp(rs.getTimestamp(1).toInstant())
+                            .putDouble(rs.getDouble(2))
+                            .putInt(rs.getInt(3))
+                            .putString(rs.getString(4))
+                            .putDouble(rs.getDouble(5))
+                            .putBoolean(rs.getBoolean(6));
+                    for (int i = 7; i <= 9; i++) {
+                        double value = rs.getDouble(i);
+                        if (rs.wasNull()) writer.putNull(); else writer.putDouble(value);
+                    }
+                    writer.putString(rs.getString(10)).endRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % FETCH_SIZE == 0) rowsWritten.accept(written[0]);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowsWritten.accept(written[0]);
+        return written[0];
+    }
+
+    /** Wiersze EXPORT_SQL z zakresu dat czytane kursorem (fetch size) – bez encji i bez listy w pamięci. */
+    private void streamRows(LocalDate dateFrom, LocalDate dateTo, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.from(startOf(dateFrom)));
+            ps.setTimestamp(2, Timestamp.from(startOf(dateTo.plusDays(1))));
+            return ps;
+        }, handler);
+    }
+
+    private static void writeCsvNumber(Writer csv, double value, boolean isNull) throws IOException {
+        if (isNull) return;
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            csv.write(Long.toString((long) value));
+        } else {
+            csv.write(BigDecimal.valueOf(value).toPlainString()); // bez notacji naukowej (1.0E7)
+        }
+    }
+
+    private static void writeCsvText(Writer csv, String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+
+    /** Wiersz arkusza (XLS i XLSX) z bieżącego wiersza EXPORT_SQL. */
+    private static void writeRow(Row row, ResultSet rs, DateTimeFormatter dateFormatter, DateTimeFormatter timeFormatter)
+            throws SQLException {
+        Instant createdAt = rs.getTimestamp(1).toInstant();
+        row.createCell(0).setCellValue(dateFormatter.format(createdAt));
+        row.createCell(1).setCellValue(timeFormatter.format(createdAt));
+        row.createCell(2).setCellValue(rs.getDouble(2));
+        row.createCell(3).setCellValue(rs.getInt(3));
+        String gender = rs.getString(4);
+        row.createCell(4).setCellValue(gender != null ? gender : "");
+        row.createCell(5).setCellValue(rs.getDouble(5));
+        row.createCell(6).setCellValue(rs.getBoolean(6) ? "TAK" : "NIE");
+        row.createCell(7).setCellValue(rs.getDouble(7)); // NULL → 0
+        row.createCell(8).setCellValue(rs.getDouble(8));
+        row.createCell(9).setCellValue(rs.getDouble(9));
+        String postalCode = rs.getString(10);
+        row.createCell(10).setCellValue(postalCode != null ? postalCode : "");
+    }
+
+    private static Sheet newSheet(Workbook workbook, int number) {
+        Sheet sheet = workbook.createSheet(number == 1 ? "Raport" : "Raport " + number);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            header.createCell(i).setCellValue(HEADERS[i]);
+            sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256 + 512);
+        }
+        return sheet;
+    }
+
+    private static Instant startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
     public List<PensionCalculationReportJsonDto> generateJsonReport(LocalDate dateFrom, LocalDate dateTo) {
         Instant from = dateFrom.atStartOfDay(ZoneId.systemDefault()).toInstant();
         Instant to = dateTo.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
@@ -0,0 +1,132 @@
+package com.promptoholics.anonymous.ApiBackend.services;
+
+import com.promptoholics.anonymous.ApiBackend.domain.postal.PostalCodeIndex;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageColumns;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Kolumnowa kopia danych użycia ({@link UsageColumns}) dla zapytań analitycznych admina.
+ * - Odświeżanie w tle (pierwszy przebieg harmonogramu zaraz po starcie – zapytania nie wczytują danych same).
+ * - Tabela rośnie po created_at, więc zwykle dociągane są tylko wiersze z created_at > ostatnio wczytanego.
+ *   Pełne przebudowanie tylko, gdy zmienił się już wczytany fragment: jego „odcisk” (liczba wierszy i suma
+ *   wersji dla created_at <= granicy – zmienia się przy edycji kodu pocztowego, usunięciu albo spóźnionym
+ *   wierszu ze starszą datą) różni się od policzonego przy wczytaniu.
+ * - Odczyt kursorem (fetch size) prosto do tablic – bez encji JPA.
+ * - Nowa kopia publikowana atomowo; zapytania w toku liczą dalej na poprzedniej.
+ */
+@Slf4j
+@Service
+public class UsageColumnStore {
+
+    private static final String PREFIX_FINGERPRINT_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(version), 0) FROM pension_calculation WHERE created_at <= ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM pension_calculation";
+    private static final String COLUMNS =
+            "SELECT created_at, age, gender, salary_amount, expected_pension, actual_pension, "
+                    + "postal_code_num, postal_code, version FROM pension_calculation ";
+    private static final String LOAD_SQL = COLUMNS + "ORDER BY created_at";
+    private static final String APPEND_SQL = COLUMNS + "WHERE created_at > ? ORDER BY created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostalCodeDirectory postalCodeDirectory;
+    private final int fetchSize;
+    /** Przed pierwszym wczytaniem: pusta kopia z dataAsOf = 1970 (widać, że danych jeszcze nie ma). */
+    private final AtomicReference<UsageColumns> current =
+            new AtomicReference<>(new UsageColumns.Builder(0).build(Instant.EPOCH));
+
+    // stan wczytanego fragmentu – tylko pod monitorem refresh()
+    private UsageColumns.Builder builder;
+    private Timestamp loadedUpTo;
+    private long loadedRows;
+    private long loadedVersionSum;
+
+    public UsageColumnStore(JdbcTemplate jdbcTemplate,
+                            PostalCodeDirectory postalCodeDirectory,
+                            @Value("${usage.columns.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postalCodeDirectory = postalCodeDirectory;
+        this.fetchSize = fetchSize;
+    }
+
+    /** Aktualna kopia – bez dostępu do bazy i bez blokady. */
+    public UsageColumns current() {
+        return current.get();
+    }
+
+    @Scheduled(fixedDelayString = "${usage.columns.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Usage columns refresh failed, keeping snapshot of {} rows", current.get().rows(), e);
+        }
+    }
+
+    /** @return true, jeśli kopia się zmieniła (dociągnięte wiersze albo pełne przebudowanie) */
+    public synchronized boolean refresh() {
+        long started = System.nanoTime();
+        boolean rebuild = builder == null || !prefixUnchanged();
+        if (rebuild) {
+            Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+            builder = new UsageColumns.Builder((int) Math.min(Integer.MAX_VALUE - 8, count != null ? count : 0),
+                    postalCodeDirectory.index());
+            loadedUpTo = null;
+            loadedRows = 0;
+            loadedVersionSum = 0;
+        }
+        Instant asOf = Instant.now();
+        long appended = load(rebuild ? null : loadedUpTo);
+        if (!rebuild && appended == 0) return false;
+
+        UsageColumns columns = builder.build(asOf);
+        current.set(columns);
+        log.info("Usage columns {}: {} new rows, {} total in {} ms", rebuild ? "rebuilt" : "appended",
+                appended, columns.rows(), (System.nanoTime() - started) / 1_000_000);
+        return true;
+    }
+
+    /** Czy wczytany fragment (created_at <= granicy) jest w bazie nadal taki sam. */
+    private boolean prefixUnchanged() {
+        if (loadedUpTo == null) return loadedRows == 0;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(PREFIX_FINGERPRINT_SQL,
+                (rs, i) -> rs.getLong(1) == loadedRows && rs.getLong(2) == loadedVersionSum, loadedUpTo));
+    }
+
+    /** Wiersze z created_at > after (null = wszystkie) dopisane do buildera; @return liczba wierszy. */
+    private long load(Timestamp after) {
+        PostalCodeIndex regions = postalCodeDirectory.index();
+        long before = loadedRows;
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(after == null ? LOAD_SQL : APPEND_SQL);
+            ps.setFetchSize(fetchSize);
+            if (after != null) ps.setTimestamp(1, after);
+            return ps;
+        }, rs -> {
+            Timestamp created = rs.getTimestamp(1);
+            double actual = rs.getDouble(6);
+            Double actualOrNull = rs.wasNull() ? null : actual;
+            int postalCode = rs.getInt(7);
+            if (rs.wasNull()) {
+                // wiersz sprzed słownikowania (jeszcze nieuzupełniony) – kod z tekstu
+                builder.add(created.toInstant(), rs.getInt(2), rs.getString(3), rs.getDouble(4), rs.getDouble(5),
+                        actualOrNull, rs.getString(8));
+            } else {
+                // region z bieżącego indeksu (nie region_id z bazy) – etykiety zawsze pasują do id
+                builder.add(created.toInstant(), rs.getInt(2), rs.getString(3), rs.getDouble(4), rs.getDouble(5),
+                        actualOrNull, postalCode, regions.regionId(postalCode));
+            }
+            loadedUpTo = created;
+            loadedRows++;
+            loadedVersionSum += rs.getLong(9);
+        });
+        return loadedRows - before;
+    }
+}
@@ -10,7 +10,18 @@ CREATE TABLE IF NOT EXISTS pension_calculation (
     actual_pension DOUBLE PRECISION,
     inflation_adjusted_pension DOUBLE PRECISION,
     postal_code VARCHAR(16),
+    postal_code_num INTEGER,
+    region_id SMALLINT,
+    data_version VARCHAR(32),
     version INTEGER NOT NULL
 );
 
 CREATE INDEX IF NOT EXISTS idx_pension_usage_date ON pension_calculation(created_at);
+CREATE INDEX IF NOT EXISTS idx_pension_region ON pension_calculation(region_id);
+
+-- Pełny zapis kalkulacji (żądanie + wynik) do ponownego otwarcia bez przeliczania; payload: CBOR + deflate
+CREATE TABLE IF NOT EXISTS pension_calculation_snapshot (
+    calculation_id UUID PRIMARY KEY REFERENCES pension_calculation(id) ON DELETE CASCADE,
+    format SMALLINT NOT NULL,
+    payload BYTEA NOT NULL
+);
@@ -0,0 +1,85 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.services.CalculationBranchPlanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Poniżej progu gałęzie liczą się na wątku wywołującym, powyżej – w puli ForkJoin; plan czeka na nieodebrane gałęzie.
+ */
+class CalculationBranchPlannerTest {
+
+    @Test
+    void belowThresholdBranchesRunOnCallerThread() {
+        var registry = new SimpleMeterRegistry();
+        var planner = new CalculationBranchPlanner(registry, 1000, 2);
+
+        try (var plan = planner.plan(999)) {
+            assertFalse(plan.isParallel());
+            var branch = plan.fork(Thread::currentThread);
+            assertSame(Thread.currentThread(), branch.join());
+        }
+        assertEquals(1, registry.counter("pension.calculation.plan", "mode", "sequential").count());
+        assertEquals(0, registry.counter("pension.calculation.branches.forked").count());
+    }
+
+    @Test
+    void aboveThresholdBranchesRunOnPool() {
+        var registry = new SimpleMeterRegistry();
+        var planner = new CalculationBranchPlanner(registry, 1000, 2);
+
+        try (var plan = planner.plan(1000)) {
+            assertTrue(plan.isParallel());
+            var a = plan.fork(Thread::currentThread);
+            var b = plan.fork(() -> 21 * 2);
+            assertNotSame(Thread.currentThread(), a.join());
+            assertEquals(42, b.join());
+        }
+        assertEquals(1, registry.counter("pension.calculation.plan", "mode", "parallel").count());
+        assertEquals(2, registry.counter("pension.calculation.branches.forked").count());
+    }
+
+    @Test
+    void branchFailureSurfacesOnJoin() {
+        var planner = new CalculationBranchPlanner(new SimpleMeterRegistry(), 0, 2);
+        try (var plan = planner.plan(1)) {
+            var branch = plan.fork(() -> {
+                throw new IllegalArgumentException("bad input");
+            });
+            assertThrows(IllegalArgumentException.class, branch::join);
+        }
+    }
+
+    @Test
+    void closeWaitsForUnjoinedBranches() throws Exception {
+        var planner = new CalculationBranchPlanner(new SimpleMeterRegistry(), 0, 2);
+        var started = new CountDownLatch(1);
+        var finished = new AtomicBoolean();
+
+        try (var plan = planner.plan(1)) {
+            plan.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.set(true);
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }
+        assertTrue(finished.get());
+    }
+}
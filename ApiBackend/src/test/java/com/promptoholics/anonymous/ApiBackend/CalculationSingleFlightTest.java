@@ -0,0 +1,69 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.services.CalculationSingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Identyczne równoległe kalkulacje liczą się raz; po zakończeniu klucz jest zwalniany.
+ */
+class CalculationSingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var singleFlight = new CalculationSingleFlight(registry);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var computations = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "result";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("k", () -> {
+            computations.incrementAndGet();
+            return "other";
+        }));
+        while (registry.counter("pension.calculation.singleflight", "result", "coalesced").count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, computations.get());
+
+        // klucz zwolniony – kolejne wywołanie liczy od nowa
+        assertEquals("again", singleFlight.execute("k", () -> "again"));
+    }
+
+    @Test
+    void failureIsRethrownAndDoesNotStickToTheKey() {
+        var singleFlight = new CalculationSingleFlight(new SimpleMeterRegistry());
+        assertThrows(IllegalArgumentException.class,
+                () -> singleFlight.execute("k", () -> { throw new IllegalArgumentException("bad"); }));
+        assertEquals(42, (int) singleFlight.execute("k", () -> 42));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.promptoholics.anonymous.ApiBackend.application.StreamedCalculationRequest;
+import com.promptoholics.anonymous.ApiBackend.config.CalculationRequestJacksonConfig;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestAdditionalSalaryChangesInnerDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultMeetsExpectationDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationSnapshotDto;
+import com.promptoholics.anonymous.ApiBackend.services.CalculationSnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migawki kalkulacji na H2: CBOR+deflate w obie strony (także dla żądania strumieniowego),
+ * cache LRU przed bazą i odrzucenie nieznanego formatu.
+ */
+class CalculationSnapshotStoreTest {
+
+    private final ObjectMapper streamed = new ObjectMapper().registerModule(new JavaTimeModule())
+            .registerModule(new CalculationRequestJacksonConfig().calculationRequestModule());
+
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry meters;
+
+    @BeforeEach
+    void createTable() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:snapshots-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        jdbc.execute("""
+                CREATE TABLE pension_calculation_snapshot (
+                    calculation_id UUID PRIMARY KEY,
+                    format SMALLINT NOT NULL,
+                    payload BYTEA NOT NULL
+                )""");
+        meters = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void streamedRequestRoundTripsThroughTheDatabase() throws Exception {
+        UUID id = UUID.randomUUID();
+        PensionCalculationRequestDto request = streamed.readValue("""
+                {"age":30,"sex":"F","grossSalaryPLN":5000,"startYear":2015,"plannedEndYear":2050,
+                 "additionalSalaryChanges":[
+                   {"changeType":"BREAK","startDate":"2020-03-15T10:00:00Z","endDate":"2020-04-15T10:00:00Z"},
+                   {"changeType":"WORK","startDate":"2021-01-20T00:00:00Z","endDate":"2022-01-31T00:00:00Z","salary":9000}]}
+                """, PensionCalculationRequestDto.class);
+        assertInstanceOf(StreamedCalculationRequest.class, request);
+
+        store(10).save(id, request, response(id));
+        PensionCalculationSnapshotDto snapshot = store(10).find(id).orElseThrow(); // nowy cache – odczyt z bazy
+
+        assertEquals(1.0, missCount());
+        assertEquals(30, snapshot.getRequest().getAge());
+        List<PensionCalculationRequestAdditionalSalaryChangesInnerDto> changes = snapshot.getRequest().getAdditionalSalaryChanges();
+        assertEquals(2, changes.size());
+        // silnik liczy miesiącami – daty wracają jako początki miesięcy
+        assertTrue(OffsetDateTime.parse("2020-03-01T00:00:00Z").isEqual(changes.get(0).getStartDate()), changes.get(0).toString());
+        assertTrue(OffsetDateTime.parse("2022-01-01T00:00:00Z").isEqual(changes.get(1).getEndDate()), changes.get(1).toString());
+        assertEquals(9000f, changes.get(1).getSalary());
+
+        assertEquals(id.toString(), snapshot.getResponse().getId());
+        assertEquals(4321.5f, snapshot.getResponse().getResult().getActualAmountPLN());
+        assertEquals(JsonNullable.of(500f), snapshot.getResponse().getResult().getMeetsExpectation().getShortfallPLN());
+    }
+
+    @Test
+    void savedSnapshotsAreServedFromTheLruCache() {
+        CalculationSnapshotStore store = store(1);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        store.save(first, plainRequest(), response(first));
+        assertTrue(store.find(first).isPresent());
+        assertEquals(1.0, hitCount(), "write-through – bez odczytu z bazy");
+
+        store.save(second, plainRequest(), response(second)); // wypiera pierwszą
+        assertEquals(first.toString(), store.find(first).orElseThrow().getResponse().getId());
+        assertEquals(1.0, missCount());
+        assertTrue(store.find(first).isPresent());
+        assertEquals(2.0, hitCount());
+
+        assertTrue(store.find(UUID.randomUUID()).isEmpty());
+        assertEquals(2.0, missCount());
+    }
+
+    @Test
+    void unknownPayloadFormatIsRejected() {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO pension_calculation_snapshot (calculation_id, format, payload) VALUES (?, ?, ?)",
+                id, (short) 99, new byte[]{1, 2, 3});
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> store(10).find(id));
+        assertTrue(e.getMessage().contains("99"), e.getMessage());
+    }
+
+    private CalculationSnapshotStore store(int cacheSize) {
+        // jak w Boocie: moduły z konfiguracji aplikacji, daty jako ISO-8601
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+                .modulesToInstall(new JsonNullableModule(), new CalculationRequestJacksonConfig().calculationRequestModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new CalculationSnapshotStore(jdbc, builder, meters, cacheSize);
+    }
+
+    private double hitCount() {
+        return meters.get("pension.snapshot.cache").tag("result", "hit").counter().count();
+    }
+
+    private double missCount() {
+        return meters.get("pension.snapshot.cache").tag("result", "miss").counter().count();
+    }
+
+    private static PensionCalculationRequestDto plainRequest() {
+        PensionCalculationRequestDto request = new PensionCalculationRequestDto();
+        request.setAge(40);
+        return request;
+    }
+
+    private static PensionCalculationResponseDto response(UUID id) {
+        var meets = new PensionCalculationResponseResultMeetsExpectationDto();
+        meets.setIsMet(false);
+        meets.setShortfallPLN(JsonNullable.of(500f));
+        var result = new PensionCalculationResponseResultDto();
+        result.setActualAmountPLN(4321.5f);
+        result.setReplacementRatePct(41.2f);
+        result.setMeetsExpectation(meets);
+        var response = new PensionCalculationResponseDto();
+        response.setId(id.toString());
+        response.setDataVersion("2025.10.05");
+        response.setResult(result);
+        return response;
+    }
+}
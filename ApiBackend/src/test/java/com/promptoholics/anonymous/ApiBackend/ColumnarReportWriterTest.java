@@ -0,0 +1,110 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.services.ColumnarReportWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Format PCOL: zapis i odczyt według opisu w {@link ColumnarReportWriter} (czytnik poniżej = specyfikacja).
+ */
+class ColumnarReportWriterTest {
+
+    private static final List<ColumnarReportWriter.Column> COLUMNS = List.of(
+            new ColumnarReportWriter.Column("created_at", ColumnarReportWriter.Type.TIMESTAMP),
+            new ColumnarReportWriter.Column("age", ColumnarReportWriter.Type.INT32),
+            new ColumnarReportWriter.Column("actual_pension", ColumnarReportWriter.Type.FLOAT64),
+            new ColumnarReportWriter.Column("sick", ColumnarReportWriter.Type.BOOL),
+            new ColumnarReportWriter.Column("postal_code", ColumnarReportWriter.Type.STRING));
+
+    @Test
+    void roundTripsRowsAcrossRowGroupsWithNulls() throws IOException {
+        Instant t0 = Instant.parse("2025-10-01T08:00:00.123456Z");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ColumnarReportWriter writer = new ColumnarReportWriter(bytes, COLUMNS, 2)) {
+            writer.putTimestamp(t0).putInt(45).putDouble(3210.5).putBoolean(true).putString("43-100").endRow();
+            writer.putTimestamp(t0.plusSeconds(90)).putInt(30).putNull().putBoolean(false).putNull().endRow();
+            writer.putTimestamp(t0.minusSeconds(5)).putInt(61).putDouble(-1e7).putBoolean(false).putString("żółć,\"x\"").endRow();
+        }
+
+        List<Object[]> rows = read(bytes.toByteArray());
+
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[]{t0, 45, 3210.5, true, "43-100"}, rows.get(0));
+        assertArrayEquals(new Object[]{t0.plusSeconds(90), 30, null, false, null}, rows.get(1));
+        assertArrayEquals(new Object[]{t0.minusSeconds(5), 61, -1e7, false, "żółć,\"x\""}, rows.get(2));
+    }
+
+    @Test
+    void rejectsValuesOfWrongTypeAndIncompleteRows() throws IOException {
+        ColumnarReportWriter writer = new ColumnarReportWriter(new ByteArrayOutputStream(), COLUMNS, 16);
+        assertThrows(IllegalStateException.class, () -> writer.putInt(1));
+        writer.putTimestamp(Instant.EPOCH);
+        assertThrows(IllegalStateException.class, writer::endRow);
+    }
+
+    private static List<Object[]> read(byte[] file) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(file));
+        assertArrayEquals("PCOL".getBytes(StandardCharsets.US_ASCII), in.readNBytes(4));
+        assertEquals(1, in.readUnsignedByte());
+        int columnCount = in.readUnsignedShort();
+        int[] types = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            assertEquals(COLUMNS.get(c).name(), in.readUTF());
+            types[c] = in.readUnsignedByte();
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        int groupRows;
+        while ((groupRows = in.readInt()) > 0) {
+            Object[][] group = new Object[groupRows][columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                byte[] compressed = in.readNBytes(in.readInt());
+                DataInputStream column = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)));
+                byte[] nulls = column.readNBytes((groupRows + 7) / 8);
+                long previous = 0;
+                for (int r = 0; r < groupRows; r++) {
+                    if ((nulls[r >>> 3] & (1 << (r & 7))) != 0) continue;
+                    group[r][c] = switch (types[c]) {
+                        case 1 -> {
+                            long zigzag = readVarLong(column);
+                            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                            yield Instant.ofEpochSecond(Math.floorDiv(previous, 1_000_000L), Math.floorMod(previous, 1_000_000L) * 1_000);
+                        }
+                        case 2 -> column.readDouble();
+                        case 3 -> column.readInt();
+                        case 4 -> column.readByte() != 0;
+                        case 5 -> new String(column.readNBytes((int) readVarLong(column)), StandardCharsets.UTF_8);
+                        default -> throw new IllegalStateException("type " + types[c]);
+                    };
+                }
+            }
+            rows.addAll(List.of(group));
+        }
+        return rows;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
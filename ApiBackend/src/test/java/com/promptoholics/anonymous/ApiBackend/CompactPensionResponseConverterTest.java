@@ -0,0 +1,160 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.promptoholics.anonymous.ApiBackend.config.CompactPensionResponseConverter;
+import com.promptoholics.anonymous.ApiBackend.config.HttpEncodingConfig;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultSalaryProjectionInnerDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationResponseResultZusAccountFundsByYearInnerDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Zwarta postać serii rocznych ({startYear, values}, "years" przy lukach, null zachowany)
+ * i negocjacja: bez jawnego Accept na typ zwarty odpowiedź pozostaje zwykłym JSON.
+ */
+class CompactPensionResponseConverterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new JsonNullableModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private PensionCalculationResponseDto response;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        response = response(List.of(2025, 2026, 2027), new Float[]{1000.5f, 2000.25f, null},
+                List.of(2025, 2027, 2030), new Float[]{6000f, 6500f, 7000f});
+
+        // kolejność jak w Boocie: domyślny JSON, potem CBOR; konfiguracja dokłada konwerter zwarty
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(
+                new MappingJackson2HttpMessageConverter(mapper),
+                new MappingJackson2CborHttpMessageConverter()));
+        new HttpEncodingConfig(mapper).extendMessageConverters(converters);
+        mvc = MockMvcBuilders.standaloneSetup(new CalculationController())
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+    }
+
+    @Test
+    void consecutiveYearsBecomeStartYearAndValues() throws Exception {
+        MockHttpServletResponse http = fetch(CompactPensionResponseConverter.COMPACT_JSON);
+        assertTrue(CompactPensionResponseConverter.COMPACT_JSON.isCompatibleWith(MediaType.parseMediaType(http.getContentType())),
+                http.getContentType());
+
+        JsonNode funds = mapper.readTree(http.getContentAsString()).path("result").path("zusAccountFundsByYear");
+        assertEquals(2025, funds.path("startYear").intValue());
+        assertFalse(funds.has("years"), "kolejne lata – bez tablicy years");
+        assertEquals(3, funds.path("values").size());
+        assertEquals(1000.5f, funds.path("values").get(0).floatValue());
+        assertEquals(2000.25f, funds.path("values").get(1).floatValue());
+        assertTrue(funds.path("values").get(2).isNull(), "brak wartości zapisany jako null");
+    }
+
+    @Test
+    void yearGapsAddYearsArray() throws Exception {
+        JsonNode salary = mapper.readTree(fetch(CompactPensionResponseConverter.COMPACT_JSON).getContentAsString())
+                .path("result").path("salaryProjection");
+
+        assertEquals(2025, salary.path("startYear").intValue());
+        assertEquals(List.of(2025, 2027, 2030), ints(salary.path("years")));
+        assertEquals(3, salary.path("values").size());
+        assertEquals(7000f, salary.path("values").get(2).floatValue());
+    }
+
+    @Test
+    void wildcardAndJsonAcceptKeepPlainJson() throws Exception {
+        for (MediaType accept : List.of(MediaType.ALL, MediaType.APPLICATION_JSON)) {
+            MockHttpServletResponse http = fetch(accept);
+            assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(http.getContentType())),
+                    accept + " -> " + http.getContentType());
+
+            JsonNode funds = mapper.readTree(http.getContentAsString()).path("result").path("zusAccountFundsByYear");
+            assertTrue(funds.isArray(), accept + ": serie jako tablica obiektów");
+            assertEquals(2026, funds.get(1).path("year").intValue());
+        }
+    }
+
+    @Test
+    void writesOnlyCalculationResponses() {
+        var converter = new CompactPensionResponseConverter(mapper);
+        assertTrue(converter.canWrite(PensionCalculationResponseDto.class, CompactPensionResponseConverter.COMPACT_JSON));
+        assertFalse(converter.canWrite(PensionCalculationResponseDto.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(String.class, CompactPensionResponseConverter.COMPACT_JSON));
+        assertFalse(converter.canRead(PensionCalculationResponseDto.class, CompactPensionResponseConverter.COMPACT_JSON));
+    }
+
+    private MockHttpServletResponse fetch(MediaType accept) throws Exception {
+        MockHttpServletResponse http = mvc.perform(get("/calculation").accept(accept)).andReturn().getResponse();
+        assertEquals(200, http.getStatus());
+        return http;
+    }
+
+    private static List<Integer> ints(JsonNode array) {
+        List<Integer> out = new ArrayList<>();
+        array.forEach(n -> out.add(n.intValue()));
+        return out;
+    }
+
+    private static PensionCalculationResponseDto response(List<Integer> fundYears, Float[] funds,
+                                                          List<Integer> salaryYears, Float[] salaries) {
+        var result = new PensionCalculationResponseResultDto();
+        result.setActualAmountPLN(4321.5f);
+        result.setReplacementRatePct(41.2f);
+
+        List<PensionCalculationResponseResultZusAccountFundsByYearInnerDto> fundRows = new ArrayList<>();
+        for (int i = 0; i < fundYears.size(); i++) {
+            var row = new PensionCalculationResponseResultZusAccountFundsByYearInnerDto();
+            row.setYear(fundYears.get(i));
+            row.setZusAccountFundsPLN(funds[i]);
+            fundRows.add(row);
+        }
+        List<PensionCalculationResponseResultSalaryProjectionInnerDto> salaryRows = new ArrayList<>();
+        for (int i = 0; i < salaryYears.size(); i++) {
+            var row = new PensionCalculationResponseResultSalaryProjectionInnerDto();
+            row.setYear(salaryYears.get(i));
+            row.setSalary(salaries[i]);
+            salaryRows.add(row);
+        }
+        result.setZusAccountFundsByYear(fundRows);
+        result.setSalaryProjection(salaryRows);
+
+        var response = new PensionCalculationResponseDto();
+        response.setId("calc-1");
+        response.setDataVersion("2025.10.05");
+        response.setResult(result);
+        return response;
+    }
+
+    @RestController
+    class CalculationController {
+        @GetMapping("/calculation")
+        PensionCalculationResponseDto calculation() {
+            return response;
+        }
+    }
+}
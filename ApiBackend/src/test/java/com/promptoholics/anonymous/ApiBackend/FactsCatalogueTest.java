@@ -0,0 +1,129 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.application.FactsFacade;
+import com.promptoholics.anonymous.ApiBackend.domain.facts.FactsCatalogue;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.FactDto;
+import com.promptoholics.anonymous.ApiBackend.services.FactsCatalogueStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parser katalogu ciekawostek (TSV) oraz losowanie ważone i talia bez powtórzeń.
+ */
+class FactsCatalogueTest {
+
+    private static final String CATALOGUE = """
+            #facts-catalogue\tversion=2025.10.1\tdefault=pl
+            # komentarz
+            pl\t1\tpl-01\tPierwszy fakt – zażółć gęślą jaźń\r
+            pl\t0\tpl-off\tWyłączony
+
+            PL\t9\tpl-02\tDrugi fakt
+            en\t1\ten-01\tFirst fact
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesLocalesWeightsAndUtf8Text() {
+        FactsCatalogue catalogue = parse(CATALOGUE);
+
+        assertEquals("2025.10.1", catalogue.version());
+        assertEquals(Set.of("pl", "en"), catalogue.locales());
+        FactsCatalogue.LocaleIndex pl = catalogue.localeOrDefault("pl");
+        assertEquals(2, pl.size()); // waga 0 pominięta, locale bez rozróżniania wielkości liter
+        assertEquals("pl-01", catalogue.id(pl, 0));
+        assertEquals("Pierwszy fakt – zażółć gęślą jaźń", catalogue.text(pl, 0)); // bez \r z CRLF
+        assertEquals(9.0, pl.weight(1));
+        assertSame(pl, catalogue.localeOrDefault("de"));
+        assertSame(pl, catalogue.localeOrDefault(null));
+    }
+
+    @Test
+    void rejectsMalformedCatalogues() {
+        assertThrows(IllegalArgumentException.class, () -> parse("pl\t1\tpl-01\tBez nagłówka\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("#facts-catalogue\tdefault=pl\npl\t1\tpl-01\tFakt\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("#facts-catalogue\tversion=1\npl\t1\tpl-01\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("#facts-catalogue\tversion=1\n# tylko komentarz\n"));
+    }
+
+    @Test
+    void etagChangesWithContentEvenWithoutVersionBump() {
+        String pl = parse(CATALOGUE).localeOrDefault("pl").etag();
+
+        assertEquals(pl, parse(CATALOGUE).localeOrDefault("pl").etag());
+        assertNotEquals(pl, parse(CATALOGUE.replace("Drugi fakt", "Drugi fakt, poprawiony")).localeOrDefault("pl").etag());
+        assertNotEquals(pl, parse(CATALOGUE).localeOrDefault("en").etag());
+    }
+
+    @Test
+    void weightedPickFollowsWeights() throws Exception {
+        FactsFacade facade = facade(CATALOGUE);
+
+        int heavy = 0;
+        int draws = 20_000;
+        for (int i = 0; i < draws; i++) {
+            if ("pl-02".equals(facade.getRandomFact("pl-PL", null).getId())) heavy++;
+        }
+        assertEquals(0.9, heavy / (double) draws, 0.02);
+    }
+
+    @Test
+    void sessionDeckRepeatsNothingUntilPoolIsExhausted() throws Exception {
+        StringBuilder tsv = new StringBuilder("#facts-catalogue\tversion=1\tdefault=pl\n");
+        for (int i = 0; i < 20; i++) tsv.append("pl\t").append(i + 1).append("\tpl-").append(i).append("\tFakt ").append(i).append('\n');
+        FactsFacade facade = facade(tsv.toString());
+
+        for (int round = 0; round < 3; round++) {
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                assertTrue(seen.add(facade.getRandomFact("pl", "session-1").getId()), "powtórka w rundzie " + round);
+            }
+        }
+
+        // najcięższy fakt (waga 20 z 210) częściej niż lekki otwiera talię nowej sesji
+        int heavyFirst = 0;
+        int lightFirst = 0;
+        for (int s = 0; s < 2_000; s++) {
+            String first = facade.getRandomFact("pl", "s-" + s).getId();
+            if ("pl-19".equals(first)) heavyFirst++;
+            if ("pl-0".equals(first)) lightFirst++;
+        }
+        assertTrue(heavyFirst > 5 * lightFirst, heavyFirst + " vs " + lightFirst);
+    }
+
+    @Test
+    void factPoolIsBuiltOncePerCatalogue() throws Exception {
+        FactsFacade facade = facade(CATALOGUE);
+
+        List<FactDto> first = facade.facts(facade.getFactPool("pl"));
+        assertEquals(List.of("pl-01", "pl-02"), first.stream().map(FactDto::getId).toList());
+        assertSame(first, facade.facts(facade.getFactPool("pl-PL")));
+        assertEquals(facade.getFactPool("pl").etag(), facade.getFactPool(null).etag());
+    }
+
+    private static FactsCatalogue parse(String tsv) {
+        return FactsCatalogue.parse(ByteBuffer.wrap(tsv.getBytes(StandardCharsets.UTF_8)), Instant.now());
+    }
+
+    private FactsFacade facade(String tsv) throws Exception {
+        Path file = Files.writeString(dir.resolve("facts.tsv"), tsv);
+        return new FactsFacade(new FactsCatalogueStore(file.toString()));
+    }
+}
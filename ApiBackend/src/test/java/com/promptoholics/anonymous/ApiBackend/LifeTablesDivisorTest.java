@@ -0,0 +1,54 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.application.CalculationFacadeV3;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.Sex;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tablica dzielników V3 ([płeć][wiek 50..80] z przycięciem wieku) musi dawać to samo, co dawny wzór.
+ */
+class LifeTablesDivisorTest {
+
+    private final CalculationFacadeV3.LifeTables life = new CalculationFacadeV3.LifeTables();
+
+    @Test
+    void tableMatchesFormerFormulaForEveryAge() {
+        for (PensionCalculationRequestDto.SexEnum sex : PensionCalculationRequestDto.SexEnum.values()) {
+            for (int age = 50; age <= 80; age++) {
+                assertEquals(formerFormula(age, sex), life.annuityDivisor(age, sex), sex + " " + age);
+            }
+        }
+    }
+
+    @Test
+    void clampedEdgesMatchFormerFormula() {
+        for (PensionCalculationRequestDto.SexEnum sex : PensionCalculationRequestDto.SexEnum.values()) {
+            for (int age : new int[]{0, 18, 49, 81, 90, 120}) {
+                assertEquals(formerFormula(age, sex), life.annuityDivisor(age, sex), sex + " " + age);
+            }
+        }
+        assertEquals(formerFormula(45, null), life.annuityDivisor(45, (PensionCalculationRequestDto.SexEnum) null));
+        assertEquals(formerFormula(70, null), life.annuityDivisor(70, (PensionCalculationRequestDto.SexEnum) null));
+        assertEquals(26.0, life.annuityDivisor(60, Sex.F));
+        assertEquals(15.0, life.annuityDivisor(85, Sex.M)); // dolna granica 15 lat
+    }
+
+    /** Wzór sprzed tablicy (liczony przy każdym wywołaniu). */
+    private static double formerFormula(int ageAtRetirement, PensionCalculationRequestDto.SexEnum sex) {
+        double baseYears;
+        int baseAge;
+        if (sex == PensionCalculationRequestDto.SexEnum.F) {
+            baseAge = 60;
+            baseYears = 26.0;
+        } else {
+            baseAge = 65;
+            baseYears = 23.0;
+        }
+        int extra = Math.max(0, ageAtRetirement - baseAge);
+        double years = baseYears - 0.55 * extra;
+        return Math.max(15.0, years);
+    }
+}
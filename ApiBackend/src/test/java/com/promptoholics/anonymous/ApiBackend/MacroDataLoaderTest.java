@@ -0,0 +1,124 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.calc.LifeTablesGUS;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataLoader;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataSet;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroSnapshot;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.Sex;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.ZUSMacroSeries;
+import com.promptoholics.anonymous.ApiBackend.services.MacroDataRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dane z plików muszą dawać te same wartości, co dotychczasowe stałe w kodzie.
+ */
+class MacroDataLoaderTest {
+
+    private final MacroDataSet data = MacroDataLoader.bundled();
+
+    @Test
+    void bundledSeriesMatchOfficialIndices() {
+        ZUSMacroSeries macro = new ZUSMacroSeries(data);
+
+        assertEquals(0, new BigDecimal("1.1272").compareTo(macro.accountIndexFactor(2000)));
+        assertEquals(0, new BigDecimal("1.1441").compareTo(macro.accountIndexFactor(2024)));
+        assertEquals(0, new BigDecimal("1.06").compareTo(macro.accountIndexFactor(2030)));
+        assertEquals(0, new BigDecimal("1.055").compareTo(macro.subaccountIndexFactorYear(2040)));
+        assertEquals(1.1248 * 1.0585 * 1.016 * 1.007, macro.subaccountIndexFactorYear(2024).doubleValue(), 1e-12);
+
+        assertEquals(0, new BigDecimal("8962.28").compareTo(macro.averageMonthlyWage(2025)));
+        assertEquals(0, new BigDecimal("9452.74").compareTo(macro.averageMonthlyWage(2026)));
+        assertEquals(0, new BigDecimal("8962.28").compareTo(macro.averageMonthlyWage(2000))); // fallback
+    }
+
+    @Test
+    void decimalSeriesAreExactLikeFormerConstants() {
+        ZUSMacroSeries macro = new ZUSMacroSeries(data);
+
+        // iloczyn kwartałów bez przejścia przez double
+        BigDecimal sub2024 = new BigDecimal("1.1248").multiply(new BigDecimal("1.0585"))
+                .multiply(new BigDecimal("1.0160")).multiply(new BigDecimal("1.0070"));
+        assertEquals(0, sub2024.compareTo(macro.subaccountIndexFactorYear(2024)));
+
+        // projekcja płac zaokrąglana do grosza rok po roku, jak w dawnej pętli w ZUSMacroSeries
+        BigDecimal growth = new BigDecimal("1.025").multiply(new BigDecimal("1.029"));
+        BigDecimal wage = new BigDecimal("8962.28");
+        for (int y = 2026; y <= 2080; y++) {
+            wage = wage.multiply(growth).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(wage, macro.averageMonthlyWage(y), "rok " + y);
+        }
+        assertEquals(0, wage.multiply(new BigDecimal("30")).compareTo(macro.limit30k(2080)));
+        assertEquals(0, new BigDecimal("8962.28").compareTo(macro.averageMonthlyWage(2081))); // po projekcji – fallback
+    }
+
+    @Test
+    void lifeTablesInterpolateBetweenControlPoints() {
+        LifeTablesGUS life = new LifeTablesGUS(data);
+
+        assertEquals(221, life.months("M", 2025));
+        assertEquals(266, life.months("F", 2025));
+        assertEquals(230, life.months("M", 2035)); // 225 → 234
+        assertEquals(219, life.months("M", 2000)); // przed pierwszym punktem
+        assertEquals(289, life.months("F", 2095)); // po ostatnim punkcie
+    }
+
+    @Test
+    void denseLifeTableMatchesInterpolationInsideAndOutsideItsRange() {
+        LifeTablesGUS life = new LifeTablesGUS(data);
+
+        assertEquals(life.months("M", 2040), life.months(Sex.M, 2040));
+        assertEquals(266, life.months(Sex.F, 2025));
+        assertEquals(life.months(Sex.M, LifeTablesGUS.LAST_YEAR), life.months(Sex.M, 2150)); // poza tablicą gęstą
+        assertEquals(life.months(Sex.F, LifeTablesGUS.FIRST_YEAR), life.months(Sex.F, 1900));
+    }
+
+    @Test
+    void macroPathsReproduceFormerLadder() {
+        assertEquals(0.098, data.cpiYoY(1990));
+        assertEquals(0.003, data.realWageYoY(2023));
+        assertEquals(0.031, data.cpiYoY(2025));
+        assertEquals(0.029, data.realWageYoY(2030));
+        assertEquals(0.020, data.realWageYoY(2120));
+        assertTrue(MacroDataLoader.compareVersions("2026.01.15", "2025.10.05") > 0);
+    }
+
+    @Test
+    void registryReparsesVersionDirectoryOnlyWhenItsFilesChange(@TempDir Path root) throws Exception {
+        Path dir = Files.createDirectories(root.resolve("2025.10.05-fix")); // nazwa katalogu ≠ wersja z manifestu
+        for (String name : List.of(MacroDataLoader.MANIFEST, "avg-wage.csv", "gus-life-months.csv", "macro-paths.csv",
+                "zus-account-index.csv", "zus-subaccount-index.csv")) {
+            try (InputStream in = getClass().getResourceAsStream("/macro-data/bundled/" + name)) {
+                Files.copy(in, dir.resolve(name));
+            }
+        }
+        MacroDataRegistry registry = new MacroDataRegistry(root.toString());
+        MacroSnapshot loaded = registry.current();
+        assertEquals(dir.toString(), loaded.source());
+
+        assertFalse(registry.reload());
+        assertSame(loaded, registry.current());
+
+        // poprawka w miejscu, ta sama wersja w manifeście
+        Path wages = dir.resolve("avg-wage.csv");
+        Files.setLastModifiedTime(wages, FileTime.fromMillis(Files.getLastModifiedTime(wages).toMillis() + 10_000));
+        assertTrue(registry.reload());
+        assertNotSame(loaded, registry.current());
+        assertEquals(loaded.version(), registry.current().version());
+        assertFalse(registry.reload());
+    }
+}
@@ -0,0 +1,58 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MonteCarloPensionSimulator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tryb Monte Carlo: powtarzalność dla ziarna, uporządkowane pasma i zgodność ze ścieżką bazową przy zerowej zmienności.
+ */
+class MonteCarloPensionSimulatorTest {
+
+    private static MonteCarloPensionSimulator.Input input() {
+        int years = 40;
+        double[] contribution = new double[years];
+        double[] cpi = new double[years];
+        double[] real = new double[years];
+        Arrays.fill(contribution, 20_000.0);
+        Arrays.fill(cpi, 0.025);
+        Arrays.fill(real, 0.02);
+        return new MonteCarloPensionSimulator.Input(2000, 0.0, contribution, cpi, real, 25, 20.0);
+    }
+
+    @Test
+    void sameSeedGivesSameBands() {
+        var sim = new MonteCarloPensionSimulator();
+        var a = sim.simulate(input(), 3000, 42L);
+        var b = sim.simulate(input(), 3000, 42L);
+
+        assertEquals(a.monthlyPension(), b.monthlyPension());
+        assertEquals(Arrays.asList(a.potByYear()), Arrays.asList(b.potByYear()));
+    }
+
+    @Test
+    void bandsAreOrderedAndHistoryIsDeterministic() {
+        var r = new MonteCarloPensionSimulator().simulate(input(), 2000, 7L);
+
+        var p = r.monthlyPension();
+        assertTrue(p.p5() < p.p50() && p.p50() < p.p95());
+        var history = r.potByYear()[24]; // ostatni rok przed stochastyczną częścią
+        assertEquals(history.p5(), history.p95(), 1e-6);
+    }
+
+    @Test
+    void zeroVolatilityCollapsesToBaselinePath() {
+        var flat = new MonteCarloPensionSimulator(new MonteCarloPensionSimulator.Assumptions(0, 0, 0, 0));
+        var in = input();
+        var r = flat.simulate(in, 300, 1L);
+
+        double pot = 0.0;
+        for (int y = 0; y < in.years(); y++) pot = pot * 1.045 + 20_000.0;
+        assertEquals(pot / (20.0 * 12), r.monthlyPension().p50(), 1e-6);
+        assertEquals(r.monthlyPension().p5(), r.monthlyPension().p95(), 1e-6);
+    }
+}
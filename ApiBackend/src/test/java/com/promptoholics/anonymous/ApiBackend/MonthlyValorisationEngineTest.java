@@ -0,0 +1,42 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataLoader;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MacroDataSet;
+import com.promptoholics.anonymous.ApiBackend.domain.calc.MonthlyValorisationEngine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Miesięczne wpływy składek + waloryzacja konta (roczna) i subkonta (kwartalna).
+ */
+class MonthlyValorisationEngineTest {
+
+    private final MacroDataSet data = MacroDataLoader.bundled();
+
+    @Test
+    void quarterFactorsCompoundToAnnualFactor() {
+        for (int year : new int[]{2020, 2024, 2025, 2040}) {
+            double product = 1.0;
+            for (int q = 1; q <= 4; q++) product *= data.subaccountQuarterIndexFactor(year, q);
+            assertEquals(data.subaccountIndexFactorYear(year), product, 1e-12);
+        }
+    }
+
+    @Test
+    void openingBalanceGetsFullYearAndContributionsOnlyTheRemainder() {
+        int year = 2024;
+        double[] base = MonthlyValorisationEngine.spreadAnnual(new double[]{12_000.0});
+
+        var noContrib = MonthlyValorisationEngine.accumulate(data, year, year, 1000.0, 1000.0, new double[12], 0.15, 0.0452);
+        assertEquals(1000.0 * data.accountIndexFactor(year), noContrib.account(), 1e-9);
+        assertEquals(1000.0 * data.subaccountIndexFactorYear(year), noContrib.subaccount(), 1e-9);
+
+        var r = MonthlyValorisationEngine.accumulate(data, year, year, 0.0, 0.0, base, 0.15, 0.0452);
+        double paid = 12_000.0 * 0.15;
+        assertTrue(r.account() > paid);                                    // część roku waloryzacji
+        assertTrue(r.account() < paid * data.accountIndexFactor(year));    // ale nie cały rok jak od 1 stycznia
+        assertEquals(r.account() + r.subaccount(), r.totalByYear()[0], 1e-9);
+    }
+}
@@ -0,0 +1,153 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeBatchUpdater;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeBatchUpdater.Item;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeBatchUpdater.ItemResult;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeBatchUpdater.Status;
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Zbiorcza zmiana kodów pocztowych na H2: kontrola wersji, pozycje błędne, aktualna wersja przy konflikcie
+ * i wynik przy SUCCESS_NO_INFO.
+ */
+class PostalCodeBatchUpdaterTest {
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID missing = UUID.randomUUID();
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void createTable() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:postal-batch-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        jdbc.execute("""
+                CREATE TABLE pension_calculation (
+                    id UUID PRIMARY KEY,
+                    created_at TIMESTAMP NOT NULL,
+                    postal_code VARCHAR(16),
+                    postal_code_num INTEGER,
+                    region_id SMALLINT,
+                    version INTEGER NOT NULL
+                )""");
+        for (UUID id : List.of(first, second)) {
+            jdbc.update("INSERT INTO pension_calculation (id, created_at, version) VALUES (?, ?, 0)",
+                    id, Timestamp.from(Instant.now()));
+        }
+    }
+
+    @Test
+    void updatesMatchingVersionsAndReportsEveryOtherOutcome() {
+        List<ItemResult> results = updater(jdbc).update(List.of(
+                new Item(first.toString(), "43100", null),
+                new Item(second.toString(), "00-950", 3),
+                new Item(missing.toString(), "00-950", null),
+                new Item(first.toString(), "31-000", null),
+                new Item("not-a-uuid", "00-950", null),
+                new Item(UUID.randomUUID().toString(), "ABC", null)));
+
+        assertEquals(List.of(Status.UPDATED, Status.CONFLICT, Status.NOT_FOUND, Status.INVALID, Status.INVALID, Status.INVALID),
+                results.stream().map(ItemResult::status).toList());
+        assertEquals("43-100", results.get(0).postalCode());
+        assertEquals(1, results.get(0).version());
+        assertEquals(0, results.get(1).version(), "aktualna wersja przy konflikcie");
+        assertEquals("Duplicate calculationId in batch", results.get(3).message());
+
+        assertEquals(List.of("43-100", "1"), row(first));
+        assertEquals(List.of("null", "0"), row(second));
+    }
+
+    @Test
+    void staleExpectedVersionIsAConflictWithTheCurrentVersion() {
+        List<ItemResult> results = updater(concurrentChangeBeforeBatch(jdbc, false))
+                .update(List.of(new Item(first.toString(), "43-100", 0), new Item(second.toString(), "43-100", 0)));
+
+        assertEquals(List.of(Status.CONFLICT, Status.UPDATED), results.stream().map(ItemResult::status).toList());
+        assertEquals(1, results.get(0).version(), "wersja po zmianie równoległej");
+        assertEquals(List.of("80-001", "1"), row(first));
+    }
+
+    @Test
+    void withoutExpectedVersionTheLastWriterWins() {
+        List<ItemResult> results = updater(concurrentChangeBeforeBatch(jdbc, false))
+                .update(List.of(new Item(first.toString(), "43-100", null)));
+
+        assertEquals(Status.UPDATED, results.get(0).status());
+        assertEquals(2, results.get(0).version(), "wersja odczytana po batchu");
+        assertEquals(List.of("43-100", "2"), row(first));
+    }
+
+    @Test
+    void successNoInfoIsResolvedByReReadingTheRows() {
+        List<ItemResult> results = updater(concurrentChangeBeforeBatch(jdbc, true))
+                .update(List.of(new Item(first.toString(), "43-100", 0), new Item(second.toString(), "43-100", null)));
+
+        assertEquals(List.of(Status.CONFLICT, Status.UPDATED), results.stream().map(ItemResult::status).toList());
+        assertEquals(1, results.get(0).version(), "wersja po zmianie równoległej");
+        assertEquals(1, results.get(1).version());
+        assertEquals(List.of("43-100", "1"), row(second));
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        PostalCodeBatchUpdater updater = new PostalCodeBatchUpdater(jdbc, new PostalCodeDirectory("", jdbc), 3);
+        assertThrows(IllegalArgumentException.class, () -> updater.update(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> updater.update(
+                List.of(new Item(first.toString(), "43-100", null), new Item(second.toString(), "43-100", null),
+                        new Item(missing.toString(), "43-100", null), new Item(UUID.randomUUID().toString(), "43-100", null))));
+        assertNull(jdbc.queryForObject("SELECT postal_code FROM pension_calculation WHERE id = ?", String.class, first));
+    }
+
+    @Test
+    void backfillBumpsVersionsAndDoesNotRevisitUnparseableCodes() {
+        jdbc.update("UPDATE pension_calculation SET postal_code = '43100' WHERE id = ?", first);
+        jdbc.update("UPDATE pension_calculation SET postal_code = 'brak' WHERE id = ?", second);
+        PostalCodeDirectory directory = new PostalCodeDirectory("", jdbc);
+
+        directory.backfillLegacyRows();
+        directory.backfillLegacyRows();
+
+        assertEquals(List.of("43-100", "1"), row(first));
+        assertEquals(List.of("brak", "1"), row(second), "niepoprawny kod oznaczony raz, bez ponownego zapisu");
+        assertEquals(PostalCodeDirectory.UNPARSEABLE, jdbc.queryForObject(
+                "SELECT postal_code_num FROM pension_calculation WHERE id = ?", Integer.class, second));
+    }
+
+    private static PostalCodeBatchUpdater updater(JdbcTemplate jdbc) {
+        return new PostalCodeBatchUpdater(jdbc, new PostalCodeDirectory("", jdbc), 10);
+    }
+
+    /** Przed batchem inny klient zmienia pierwszy wiersz; opcjonalnie sterownik nie podaje liczby wierszy. */
+    private JdbcTemplate concurrentChangeBeforeBatch(JdbcTemplate delegate, boolean successNoInfo) {
+        return new JdbcTemplate(delegate.getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                delegate.update("UPDATE pension_calculation SET postal_code = '80-001', version = version + 1 WHERE id = ?", first);
+                int[] counts = super.batchUpdate(sql, batchArgs);
+                if (successNoInfo) Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                return counts;
+            }
+        };
+    }
+
+    private List<String> row(UUID id) {
+        return jdbc.queryForObject("SELECT postal_code, version FROM pension_calculation WHERE id = ?",
+                (rs, n) -> List.of(String.valueOf(rs.getString(1)), String.valueOf(rs.getInt(2))), id);
+    }
+}
@@ -0,0 +1,60 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.postal.PostalCodeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Normalizacja kodów pocztowych i odczyt regionu z gęstego indeksu.
+ */
+class PostalCodeIndexTest {
+
+    @Test
+    void normalizesUserInputAndFormatsCanonically() {
+        assertEquals(43100, PostalCodeIndex.normalize("43-100"));
+        assertEquals(43100, PostalCodeIndex.normalize(" 43 100 "));
+        assertEquals(43100, PostalCodeIndex.normalize("43100"));
+        assertEquals(1234, PostalCodeIndex.normalize("01–234"));
+        assertEquals(-1, PostalCodeIndex.normalize("431-00"));
+        assertEquals(-1, PostalCodeIndex.normalize("43-1000"));
+        assertEquals(-1, PostalCodeIndex.normalize("AB-123"));
+        assertEquals(-1, PostalCodeIndex.normalize(""));
+
+        assertEquals("01-234", PostalCodeIndex.format(1234));
+        assertEquals("43-100", PostalCodeIndex.format(43100));
+    }
+
+    @Test
+    void laterRangesOverrideEarlierOnes() {
+        PostalCodeIndex index = PostalCodeIndex.parse("test", new StringReader("""
+                from,to,voivodeship,powiat
+                40-000,44-999,śląskie,
+                43-100,43-143,śląskie,Tychy
+                """));
+
+        PostalCodeIndex.Region tychy = index.region(index.regionId(43100));
+        assertEquals("śląskie / Tychy", tychy.label());
+        assertEquals("śląskie", index.region(index.regionId(43300)).label());
+        assertEquals(tychy.voivodeshipId(), index.region(index.regionId(43300)).voivodeshipId());
+        assertEquals(PostalCodeIndex.UNKNOWN, index.regionId(1234));
+        assertEquals(PostalCodeIndex.UNKNOWN, index.regionId(-1));
+    }
+
+    @Test
+    void bundledIndexCoversAllVoivodeships() throws Exception {
+        PostalCodeIndex index = PostalCodeIndex.parse("bundled", new InputStreamReader(
+                Objects.requireNonNull(getClass().getResourceAsStream("/postal/postal-regions.csv")),
+                StandardCharsets.UTF_8));
+
+        assertEquals(17, index.voivodeshipCount()); // 16 + nieznane
+        assertEquals("śląskie / Tychy", index.region(index.regionId(PostalCodeIndex.normalize("43-100"))).label());
+        assertNotEquals(PostalCodeIndex.UNKNOWN, index.regionId(PostalCodeIndex.normalize("00-950")));
+    }
+}
@@ -0,0 +1,160 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.adapters.ReportFileResponses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Serwowanie plików raportów: warunkowe GET (304), If-Range oraz odpowiedzi 206 dla jednego i wielu zakresów.
+ */
+class ReportFileResponsesTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void writeReport() throws Exception {
+        file = Files.writeString(dir.resolve("report.xls"), CONTENT);
+        mvc = mvc("");
+    }
+
+    @Test
+    void servesWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = fetch(mvc, HttpHeaders.EMPTY);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).contains("admin-report.xls"));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void matchingIfNoneMatchOrIfModifiedSinceGivesNotModified() throws Exception {
+        MockHttpServletResponse first = fetch(mvc, HttpHeaders.EMPTY);
+
+        MockHttpServletResponse byEtag = fetch(mvc, headers(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG)));
+        assertEquals(304, byEtag.getStatus());
+        assertEquals("", byEtag.getContentAsString());
+
+        MockHttpServletResponse byDate = fetch(mvc, headers(HttpHeaders.IF_MODIFIED_SINCE, first.getHeader(HttpHeaders.LAST_MODIFIED)));
+        assertEquals(304, byDate.getStatus());
+
+        assertEquals(200, fetch(mvc, headers(HttpHeaders.IF_NONE_MATCH, "\"stale\"")).getStatus());
+    }
+
+    @Test
+    void singleRangeGivesPartialContent() throws Exception {
+        MockHttpServletResponse response = fetch(mvc, headers(HttpHeaders.RANGE, "bytes=2-5"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/" + CONTENT.length(), response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void multipleRangesGiveMultipartByteranges() throws Exception {
+        MockHttpServletResponse response = fetch(mvc, headers(HttpHeaders.RANGE, "bytes=0-1,10-12"));
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges"), response.getContentType());
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(body.contains("Content-Range: bytes 0-1/" + CONTENT.length()), body);
+        assertTrue(body.contains("Content-Range: bytes 10-12/" + CONTENT.length()), body);
+        assertTrue(body.contains("\r\n01\r\n") && body.contains("\r\nabc\r\n"), body);
+    }
+
+    @Test
+    void ifRangeSelectsBetweenPartialAndWholeFile() throws Exception {
+        MockHttpServletResponse first = fetch(mvc, HttpHeaders.EMPTY);
+
+        HttpHeaders currentEtag = headers(HttpHeaders.RANGE, "bytes=0-3");
+        currentEtag.set(HttpHeaders.IF_RANGE, first.getHeader(HttpHeaders.ETAG));
+        assertEquals("0123", fetch(mvc, currentEtag).getContentAsString());
+
+        HttpHeaders currentDate = headers(HttpHeaders.RANGE, "bytes=0-3");
+        currentDate.set(HttpHeaders.IF_RANGE, first.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals(206, fetch(mvc, currentDate).getStatus());
+
+        HttpHeaders staleEtag = headers(HttpHeaders.RANGE, "bytes=0-3");
+        staleEtag.set(HttpHeaders.IF_RANGE, "\"stale\"");
+        MockHttpServletResponse whole = fetch(mvc, staleEtag);
+        assertEquals(200, whole.getStatus());
+        assertEquals(CONTENT, whole.getContentAsString());
+        assertNull(whole.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        HttpHeaders staleDate = headers(HttpHeaders.RANGE, "bytes=0-3");
+        staleDate.set(HttpHeaders.IF_RANGE, "Thu, 01 Jan 1970 00:00:00 GMT");
+        assertEquals(CONTENT, fetch(mvc, staleDate).getContentAsString());
+    }
+
+    @Test
+    void delegatesBodyToNginxOrTomcatSendfile() throws Exception {
+        MockHttpServletResponse accel = fetch(mvc("/protected-reports"), HttpHeaders.EMPTY);
+        assertEquals("/protected-reports/report.xls", accel.getHeader("X-Accel-Redirect"));
+        assertEquals("", accel.getContentAsString());
+
+        var result = mvc.perform(get("/file").requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)).andReturn();
+        assertEquals(file.toAbsolutePath().normalize().toString(),
+                result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals((long) CONTENT.length(), result.getRequest().getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals("", result.getResponse().getContentAsString());
+    }
+
+    private MockMvc mvc(String accelRedirectPrefix) {
+        ReportFileResponses responses = new ReportFileResponses(dir.toString(), accelRedirectPrefix);
+        return MockMvcBuilders.standaloneSetup(new FileController(responses, file)).build();
+    }
+
+    private static MockHttpServletResponse fetch(MockMvc mvc, HttpHeaders headers) throws Exception {
+        return mvc.perform(get("/file").headers(headers)).andReturn().getResponse();
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
+        return headers;
+    }
+
+    @RestController
+    static class FileController {
+        private final ReportFileResponses responses;
+        private final Path file;
+
+        FileController(ReportFileResponses responses, Path file) {
+            this.responses = responses;
+            this.file = file;
+        }
+
+        @GetMapping("/file")
+        ResponseEntity<Resource> file() {
+            return responses.serve(file, "admin-report.xls", MediaType.parseMediaType("application/vnd.ms-excel"));
+        }
+    }
+}
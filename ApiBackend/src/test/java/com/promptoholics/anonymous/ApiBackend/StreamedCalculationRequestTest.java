@@ -0,0 +1,130 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.promptoholics.anonymous.ApiBackend.application.StreamedCalculationRequest;
+import com.promptoholics.anonymous.ApiBackend.config.CalculationRequestJacksonConfig;
+import com.promptoholics.anonymous.ApiBackend.config.CalculationRequestValidationConfig;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestAdditionalSalaryChangesInnerDto;
+import com.promptoholics.anonymous.ApiBackend.schemas.dtos.PensionCalculationRequestDto;
+import jakarta.validation.Configuration;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Strumieniowe czytanie additionalSalaryChanges (SpansDeserializer) – ta sama semantyka co wiązanie do listy DTO.
+ */
+class StreamedCalculationRequestTest {
+
+    private final ObjectMapper streamed = new ObjectMapper().registerModule(new JavaTimeModule())
+            .registerModule(new CalculationRequestJacksonConfig().calculationRequestModule());
+    private final ObjectMapper plain = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void matchesPlainDtoBindingForDateFormatsTypesAndSalaries() throws Exception {
+        String json = request("""
+                {"changeType":"WORK","startDate":"2020-03-15T10:00:00Z","endDate":"2021-06-30T23:59:59Z","salary":5000.5},
+                {"changeType":"BREAK","startDate":"2020-03-01T00:30:00+02:00","endDate":"2020-05-31T12:00:00-05:00"},
+                {"startDate":1583020800,"endDate":1590969600.5,"salary":"4200.25"},
+                {"changeType":null,"startDate":"2022-01-10T00:00:00Z","endDate":"2022-02-10T00:00:00Z","salary":null},
+                {"changeType":"WORK","startDate":null,"endDate":"2022-02-10T00:00:00Z","salary":100},
+                null
+                """);
+
+        PensionCalculationRequestDto fast = streamed.readValue(json, PensionCalculationRequestDto.class);
+        PensionCalculationRequestDto slow = plain.readValue(json, PensionCalculationRequestDto.class);
+
+        assertInstanceOf(StreamedCalculationRequest.class, fast);
+        assertEquals(List.of(
+                        "WORK 2020-3..2021-6 5000.5",
+                        "BREAK 2020-2..2020-5 null",       // offsety sprowadzone do UTC
+                        "WORK 2020-3..2020-6 4200.25",     // znaczniki czasu w sekundach, pensja jako tekst
+                        "WORK 2022-1..2022-2 null"),       // brak changeType = WORK
+                describe(fast.getAdditionalSalaryChanges()));
+        assertEquals(describe(slow.getAdditionalSalaryChanges()), describe(fast.getAdditionalSalaryChanges()));
+    }
+
+    @Test
+    void rejectsWhatPlainBindingRejects() {
+        for (String item : List.of(
+                "{\"changeType\":\"VACATION\",\"startDate\":\"2020-01-01T00:00:00Z\",\"endDate\":\"2020-02-01T00:00:00Z\"}",
+                "{\"changeType\":\"WORK\",\"startDate\":\"2020-01-01\",\"endDate\":\"2020-02-01T00:00:00Z\"}",
+                "{\"changeType\":\"WORK\",\"startDate\":\"2020-01-01T00:00:00Z\",\"endDate\":\"2020-02-01T00:00:00Z\",\"salary\":\"dużo\"}")) {
+            String json = request(item);
+            assertThrows(JsonMappingException.class, () -> plain.readValue(json, PensionCalculationRequestDto.class), item);
+            assertThrows(JsonMappingException.class, () -> streamed.readValue(json, PensionCalculationRequestDto.class), item);
+        }
+    }
+
+    @Test
+    void missingOrNullChangesAreEmpty() throws Exception {
+        assertTrue(streamed.readValue("{\"age\":30}", PensionCalculationRequestDto.class)
+                .getAdditionalSalaryChanges().isEmpty());
+        assertTrue(streamed.readValue("{\"age\":30,\"additionalSalaryChanges\":null}", PensionCalculationRequestDto.class)
+                .getAdditionalSalaryChanges().isEmpty());
+    }
+
+    @Test
+    void boundAndValidatedRequestNeverBuildsTheDtoList() throws Exception {
+        StreamedCalculationRequest request = (StreamedCalculationRequest) streamed.readValue("""
+                {"age":30,"sex":"F","grossSalaryPLN":5000,"startYear":2015,"plannedEndYear":2050,
+                 "additionalSalaryChanges":[
+                   {"changeType":"BREAK","startDate":"2020-03-15T10:00:00Z","endDate":"2020-04-15T10:00:00Z"},
+                   {"changeType":"WORK","startDate":"2021-01-01T00:00:00Z","endDate":"2022-01-01T00:00:00Z","salary":9000}]}
+                """, PensionCalculationRequestDto.class);
+
+        Configuration<?> configuration = Validation.byDefaultProvider().configure();
+        new CalculationRequestValidationConfig().calculationRequestValidation().customize(configuration);
+        try (ValidatorFactory factory = configuration.buildValidatorFactory()) {
+            assertTrue(factory.getValidator().validate(request).isEmpty());
+        }
+        String logged = request.toString();
+
+        assertTrue(logged.contains("additionalSalaryChanges: 2 spans"), logged);
+        assertFalse(request.salaryChangeDtosBuilt());
+        assertEquals(2, request.getAdditionalSalaryChanges().size()); // dopiero jawny odczyt (V1/V2, migawka)
+        assertTrue(request.salaryChangeDtosBuilt());
+    }
+
+    @Test
+    void rebuildsDtoListOnce() throws Exception {
+        PensionCalculationRequestDto request = streamed.readValue(request(
+                "{\"changeType\":\"BREAK\",\"startDate\":\"2020-03-15T10:00:00Z\",\"endDate\":\"2020-04-15T10:00:00Z\"}"),
+                PensionCalculationRequestDto.class);
+
+        assertSame(request.getAdditionalSalaryChanges(), request.getAdditionalSalaryChanges());
+        assertTrue(request.toString().contains("BREAK"), request.toString());
+        assertEquals(request, streamed.readValue(streamed.writeValueAsString(request), PensionCalculationRequestDto.class));
+    }
+
+    private static String request(String changes) {
+        return "{\"age\":30,\"additionalSalaryChanges\":[" + changes + "]}";
+    }
+
+    /** Pozycje tak, jak widzi je silnik: miesiące w UTC, brak typu = WORK, bez pozycji bez dat. */
+    private static List<String> describe(List<PensionCalculationRequestAdditionalSalaryChangesInnerDto> changes) {
+        return changes.stream()
+                .filter(c -> c != null && c.getStartDate() != null && c.getEndDate() != null)
+                .map(c -> (c.getChangeType() == null ? "WORK" : c.getChangeType().getValue())
+                        + " " + month(c.getStartDate()) + ".." + month(c.getEndDate()) + " " + c.getSalary())
+                .toList();
+    }
+
+    private static String month(OffsetDateTime date) {
+        OffsetDateTime utc = date.withOffsetSameInstant(ZoneOffset.UTC);
+        return utc.getYear() + "-" + utc.getMonthValue();
+    }
+}
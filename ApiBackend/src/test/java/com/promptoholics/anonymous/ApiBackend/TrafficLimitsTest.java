@@ -0,0 +1,98 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.config.BulkheadFilter;
+import com.promptoholics.anonymous.ApiBackend.domain.traffic.Bulkhead;
+import com.promptoholics.anonymous.ApiBackend.domain.traffic.ClientRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limit częstości per klient (GCRA) i limit równoczesności grodzi.
+ */
+class TrafficLimitsTest {
+
+    @Test
+    void rateLimiterAllowsBurstThenRefillsAtRate() {
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        ClientRateLimiter limiter = new ClientRateLimiter(2, 3, 100, now::get); // 2/s, burst 3
+
+        for (int i = 0; i < 3; i++) assertTrue(limiter.tryAcquire("a").allowed());
+        ClientRateLimiter.Decision denied = limiter.tryAcquire("a");
+        assertFalse(denied.allowed());
+        assertEquals(500_000_000L, denied.retryAfterNanos());
+        assertTrue(limiter.tryAcquire("b").allowed(), "inny klient ma własny kubełek");
+
+        now.addAndGet(500_000_000L);
+        assertTrue(limiter.tryAcquire("a").allowed());
+        assertFalse(limiter.tryAcquire("a").allowed());
+
+        now.addAndGet(10_000_000_000L);
+        assertEquals(2, limiter.evictIdle());
+        assertEquals(0, limiter.trackedClients());
+    }
+
+    @Test
+    void bulkheadRejectsWhenFullAndCountsRejections() {
+        Bulkhead bulkhead = new Bulkhead("reports", 2, new ClientRateLimiter(1, 1, 100, () -> 0L));
+
+        assertTrue(bulkhead.tryEnter());
+        assertTrue(bulkhead.tryEnter());
+        assertFalse(bulkhead.tryEnter());
+        assertEquals(1.0, bulkhead.saturation());
+        bulkhead.exit();
+        assertTrue(bulkhead.tryEnter());
+        assertEquals(1, bulkhead.rejectedFull());
+
+        assertTrue(bulkhead.admit("ip:10.0.0.1").allowed());
+        assertFalse(bulkhead.admit("ip:10.0.0.1").allowed());
+        assertEquals(1, bulkhead.rejectedRate());
+    }
+
+    @Test
+    void newClientsBeyondTrackedLimitAreRejectedInsteadOfSharingABucket() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 5, 2, () -> 0L);
+
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1").allowed());
+        assertTrue(limiter.tryAcquire("ip:10.0.0.2").allowed());
+        for (int i = 0; i < 5; i++) assertFalse(limiter.tryAcquire("ip:10.0.1." + i).allowed());
+        assertEquals(2, limiter.trackedClients());
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1").allowed(), "znani klienci zachowują własny limit");
+    }
+
+    @Test
+    void rotatingUnknownApiKeysDoesNotBypassPerIpLimit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("calculation", 10, new ClientRateLimiter(1, 3, 100, () -> 0L));
+        BulkheadFilter filter = new BulkheadFilter(
+                List.of(new BulkheadFilter.Route(List.of("/pensions"), bulkhead)), Set.of("partner-key"));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call(filter, "10.0.0.1", UUID.randomUUID().toString()).getStatus());
+        }
+        MockHttpServletResponse limited = call(filter, "10.0.0.1", UUID.randomUUID().toString());
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+
+        assertEquals(200, call(filter, "10.0.0.1", "partner-key").getStatus(), "znany klucz ma własny kubełek");
+        assertEquals(200, call(filter, "10.0.0.2", null).getStatus());
+    }
+
+    private static MockHttpServletResponse call(BulkheadFilter filter, String remoteAddr, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/pensions/calculations");
+        request.setRemoteAddr(remoteAddr);
+        if (apiKey != null) request.addHeader(BulkheadFilter.API_KEY_HEADER, apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,104 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.services.PostalCodeDirectory;
+import com.promptoholics.anonymous.ApiBackend.services.UsageColumnStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kopia kolumnowa na H2: nowe wiersze dociągane przyrostowo, pełne przebudowanie tylko po zmianie wczytanego fragmentu.
+ */
+class UsageColumnStoreTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-10T10:00:00Z");
+
+    private JdbcTemplate jdbc;
+    private final List<String> sql = new ArrayList<>();
+    private UsageColumnStore store;
+
+    @BeforeEach
+    void createTable() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:usage-columns-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                CREATE TABLE pension_calculation (
+                    id UUID PRIMARY KEY,
+                    created_at TIMESTAMP NOT NULL,
+                    age INTEGER,
+                    gender VARCHAR(8),
+                    salary_amount DOUBLE PRECISION,
+                    expected_pension DOUBLE PRECISION,
+                    actual_pension DOUBLE PRECISION,
+                    postal_code VARCHAR(16),
+                    postal_code_num INTEGER,
+                    version INTEGER NOT NULL
+                )""");
+        JdbcTemplate recording = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> T queryForObject(String statement, Class<T> requiredType) {
+                sql.add(statement);
+                return super.queryForObject(statement, requiredType);
+            }
+        };
+        store = new UsageColumnStore(recording, new PostalCodeDirectory("", jdbc), 100);
+    }
+
+    @Test
+    void appendsNewRowsWithoutFullReload() {
+        UUID first = insert(T0);
+        insert(T0.plusSeconds(60));
+
+        assertEquals(0, store.current().rows(), "przed pierwszym wczytaniem – pusta kopia");
+        assertTrue(store.refresh());
+        assertEquals(2, store.current().rows());
+        assertEquals(1, fullLoads());
+
+        assertFalse(store.refresh(), "bez nowych wierszy nic się nie zmienia");
+        insert(T0.plusSeconds(120));
+        insert(T0.plusSeconds(180));
+        assertTrue(store.refresh());
+        assertEquals(4, store.current().rows());
+        assertEquals(1, fullLoads(), "nowe wiersze dociągnięte, bez ponownego skanu");
+
+        jdbc.update("UPDATE pension_calculation SET postal_code = '43-100', version = version + 1 WHERE id = ?", first);
+        assertTrue(store.refresh());
+        assertEquals(4, store.current().rows());
+        assertEquals(2, fullLoads(), "zmiana w już wczytanym fragmencie – pełne przebudowanie");
+    }
+
+    @Test
+    void lateRowWithOlderTimestampTriggersRebuild() {
+        insert(T0);
+        insert(T0.plusSeconds(60));
+        store.refresh();
+
+        insert(T0.plusSeconds(30));
+        assertTrue(store.refresh());
+        assertEquals(3, store.current().rows());
+        assertEquals(2, fullLoads());
+    }
+
+    private long fullLoads() {
+        return sql.stream().filter(s -> s.startsWith("SELECT COUNT(*) FROM pension_calculation")).count();
+    }
+
+    private UUID insert(Instant createdAt) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO pension_calculation (id, created_at, age, gender, salary_amount, expected_pension, version) "
+                + "VALUES (?, ?, 40, 'F', 8000, 3000, 0)", id, Timestamp.from(createdAt));
+        return id;
+    }
+}
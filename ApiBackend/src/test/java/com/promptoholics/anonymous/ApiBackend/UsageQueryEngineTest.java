@@ -0,0 +1,88 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageColumns;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery.Aggregation;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery.Dimension;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery.Measure;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQuery.Metric;
+import com.promptoholics.anonymous.ApiBackend.domain.usage.UsageQueryEngine;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Grupowanie i agregaty na kolumnowej kopii danych użycia.
+ */
+class UsageQueryEngineTest {
+
+    private static final Instant T0 = Instant.parse("2025-06-30T10:00:00Z");
+
+    private static UsageColumns sample() {
+        return new UsageColumns.Builder(8)
+                .add(T0, 34, "F", 7000, 4000, 3000.0, "43-100")                        // Q2, niedobór 1000
+                .add(T0.plusSeconds(86_400), 36, "F", 6000, 4000, 3500.0, "43-300")   // Q3, niedobór 500
+                .add(T0.plusSeconds(172_800), 38, "M", 9000, 3000, 3500.0, "43-300")  // Q3, bez niedoboru
+                .add(T0.plusSeconds(259_200), 52, "M", 8000, 5000, null, "01-234")    // Q3, brak prognozy
+                .add(T0.plusSeconds(345_600), 41, "F", 5000, 4500, 2500.0, "")        // Q3, brak kodu
+                .build(Instant.now());
+    }
+
+    @Test
+    void averageShortfallByPostalPrefixAndAgeBandForQuarter() {
+        var query = new UsageQuery(Instant.parse("2025-07-01T00:00:00Z"), null,
+                List.of(Dimension.POSTAL_PREFIX, Dimension.AGE_BAND), 10, null, null, null, null,
+                List.of(new Metric(Aggregation.AVG, Measure.SHORTFALL), new Metric(Aggregation.COUNT, null)));
+
+        var result = UsageQueryEngine.execute(sample(), query);
+
+        assertEquals(4, result.rowsScanned());
+        assertEquals(4, result.rowsMatched());
+        assertEquals(3, result.groups().size());
+        var first = result.groups().get(0);
+        assertEquals(List.of("01", "50-59"), first.keys());
+        assertTrue(Double.isNaN(first.values()[0]));                 // brak prognozy → brak średniej
+        var cracow = result.groups().get(1);
+        assertEquals(List.of("43", "30-39"), cracow.keys());
+        assertEquals(2, cracow.count());
+        assertEquals(250.0, cracow.values()[0], 1e-9);               // (500 + 0) / 2
+        assertEquals(List.of("unknown", "40-49"), result.groups().get(2).keys());
+    }
+
+    @Test
+    void filtersAndCalendarDimensions() {
+        var query = new UsageQuery(null, null, List.of(Dimension.QUARTER, Dimension.GENDER), 10,
+                "f", "43", null, null,
+                List.of(new Metric(Aggregation.SUM, Measure.SALARY), new Metric(Aggregation.MAX, Measure.EXPECTED_PENSION)));
+
+        var groups = UsageQueryEngine.execute(sample(), query).groups();
+
+        assertEquals(2, groups.size());
+        assertEquals(List.of("2025-Q2", "F"), groups.get(0).keys());
+        assertEquals(7000.0, groups.get(0).values()[0], 1e-9);
+        assertEquals(List.of("2025-Q3", "F"), groups.get(1).keys());
+        assertEquals(6000.0, groups.get(1).values()[0], 1e-9);
+        assertEquals(4000.0, groups.get(1).values()[1], 1e-9);
+    }
+
+    @Test
+    void largeInputIsAggregatedAcrossParallelChunks() {
+        var builder = new UsageColumns.Builder(200_000);
+        for (int i = 0; i < 200_000; i++) {
+            builder.add(T0.plusSeconds(i), 20 + i % 40, i % 2 == 0 ? "M" : "F", 1000 + i % 7, 0, 0.0, "80-001");
+        }
+        var query = new UsageQuery(null, null, List.of(Dimension.GENDER), 10, null, null, null, null,
+                List.of(new Metric(Aggregation.COUNT, null), new Metric(Aggregation.MIN, Measure.SALARY)));
+
+        var result = UsageQueryEngine.execute(builder.build(Instant.now()), query);
+
+        assertEquals(200_000, result.rowsMatched());
+        assertEquals(2, result.groups().size());
+        assertEquals(100_000.0, result.groups().get(0).values()[0], 1e-9);
+        assertEquals(1000.0, result.groups().get(0).values()[1], 1e-9);
+    }
+}
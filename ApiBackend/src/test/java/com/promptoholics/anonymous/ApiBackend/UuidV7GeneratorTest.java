@@ -0,0 +1,58 @@
+package com.promptoholics.anonymous.ApiBackend;
+
+import com.promptoholics.anonymous.ApiBackend.domain.ids.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UUID v7: pola wersji/wariantu, monotoniczność w obrębie milisekundy i przy cofnięciu zegara.
+ */
+class UuidV7GeneratorTest {
+
+    @Test
+    void encodesVersionVariantAndTimestamp() {
+        long millis = 1_760_000_000_000L;
+        UUID id = new UuidV7Generator(() -> millis).next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(millis, UuidV7Generator.timestampOf(id));
+    }
+
+    @Test
+    void staysMonotonicWithinMillisecondAndWhenClockGoesBack() {
+        AtomicLong clock = new AtomicLong(1_760_000_000_000L);
+        UuidV7Generator generator = new UuidV7Generator(clock::get);
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {   // więcej niż 4096 – licznik przenosi się na czas
+            ids.add(generator.next());
+        }
+        clock.addAndGet(-5_000);            // cofnięcie zegara (np. korekta NTP)
+        ids.add(generator.next());
+        clock.addAndGet(60_000);
+        ids.add(generator.next());
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, "not increasing at " + i);
+        }
+    }
+
+    @Test
+    void concurrentCallersGetUniqueIds() {
+        UuidV7Generator generator = new UuidV7Generator();
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(generator.next()));
+        assertEquals(200_000, ids.size());
+    }
+}